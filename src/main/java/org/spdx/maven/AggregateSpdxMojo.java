@@ -1,8 +1,10 @@
 package org.spdx.maven;
 
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuildingRequest;
@@ -12,11 +14,21 @@ import org.apache.maven.shared.dependency.graph.DependencyNode;
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.maven.utils.AbstractDependencyBuilder;
 import org.spdx.maven.utils.AbstractDocumentBuilder;
+import org.spdx.maven.utils.DaemonThreadFactory;
 import org.spdx.maven.utils.LicenseMapperException;
 
-
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.Nullable;
 
 @Mojo( name = "aggregateSPDX",
         defaultPhase = LifecyclePhase.VERIFY,
@@ -24,6 +36,21 @@ import java.util.Arrays;
         threadSafe = true )
 public class AggregateSpdxMojo extends CreateSpdxMojo {
 
+    /**
+     * If true, the dependencies of the modules are added from the SPDX files already generated and attached by the
+     * createSPDX goal for the modules in the same build.  The Maven dependency graph is only used for modules
+     * without an SPDX file or with an SPDX file which can not be used.  Only SPDX 2 files can currently be used.
+     * <p>
+     * The module SPDX files only contain the dependencies in the scopes included by the module configuration.
+     * Dependencies in scopes excluded by the include*Scope parameters of this goal are skipped.  The Maven scope is
+     * only recorded as the relationship type, so modules with relationships which may come from both included and
+     * excluded scopes (for example optional dependencies when test scope is excluded) use the Maven dependency graph.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.useModuleSpdxFiles", defaultValue = "false" )
+    private boolean useModuleSpdxFiles;
+
     @Override
     protected void buildSpdxDependencyInformation( AbstractDocumentBuilder builder, OutputFormat outputFormatEnum )
             throws DependencyGraphBuilderException, LicenseMapperException, InvalidSPDXAnalysisException {
@@ -35,15 +62,116 @@ public class AggregateSpdxMojo extends CreateSpdxMojo {
             {
                 getLog().info( "List of projects that will be aggregated into one file: "
                         + Arrays.toString( projects.toArray() ) );
+                List<MavenProject> graphProjects = new ArrayList<>();
                 for ( MavenProject project : projects )
                 {
-                    ProjectBuildingRequest request = new DefaultProjectBuildingRequest( session.getProjectBuildingRequest() );
-                    request.setProject( project );
-                    ArtifactFilter artifactFilter = getArtifactFilter();
-                    DependencyNode parentNode = dependencyGraphBuilder.buildDependencyGraph( request, artifactFilter );
-                    dependencyBuilder.addMavenDependencies( mavenProjectBuilder, session, project, parentNode, builder.getProjectPackage() );
+                    File moduleSpdxFile = useModuleSpdxFiles ? moduleSpdxFile( project ) : null;
+                    if ( moduleSpdxFile != null && dependencyBuilder.addModuleDependencies( project, moduleSpdxFile,
+                            builder.getProjectPackage(), getArtifactFilter() ) )
+                    {
+                        getLog().debug( "Added dependencies for " + project.getArtifactId() + " from " + moduleSpdxFile.getPath() );
+                    }
+                    else
+                    {
+                        graphProjects.add( project );
+                    }
+                }
+                if ( useModuleSpdxFiles )
+                {
+                    getLog().info( ( projects.size() - graphProjects.size() ) + " of " + projects.size()
+                            + " modules added from module SPDX files" );
+                }
+                dependencyBuilder.addMavenDependencies( mavenProjectBuilder, session,
+                        buildDependencyGraphs( graphProjects ), builder.getProjectPackage() );
+                getLog().debug( "Dependency graph: " + dependencyBuilder.getGraphStatistics() );
+            }
+        }
+    }
+
+    /**
+     * Build the dependency graphs of the projects using up to dependencyResolutionThreads threads
+     *
+     * @param projects projects to build the dependency graphs for
+     * @return map of project to its dependency graph in the order of the projects
+     * @throws DependencyGraphBuilderException on errors building a dependency graph
+     */
+    private Map<MavenProject, DependencyNode> buildDependencyGraphs( List<MavenProject> projects )
+            throws DependencyGraphBuilderException
+    {
+        ArtifactFilter artifactFilter = getArtifactFilter();
+        Map<MavenProject, DependencyNode> retval = new LinkedHashMap<>();
+        int threads = Math.min( dependencyResolutionThreads, projects.size() );
+        if ( threads <= 1 )
+        {
+            for ( MavenProject project : projects )
+            {
+                retval.put( project, buildDependencyGraph( project, artifactFilter ) );
+            }
+            return retval;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool( threads, new DaemonThreadFactory( "spdx-dependency-graph-" ) );
+        try
+        {
+            Map<MavenProject, Future<DependencyNode>> graphs = new LinkedHashMap<>();
+            for ( MavenProject project : projects )
+            {
+                graphs.put( project, executor.submit( () -> buildDependencyGraph( project, artifactFilter ) ) );
+            }
+            // collected in the order of the projects so the aggregate document does not depend on the thread timing
+            for ( Map.Entry<MavenProject, Future<DependencyNode>> graph : graphs.entrySet() )
+            {
+                retval.put( graph.getKey(), graph.getValue().get() );
+            }
+            return retval;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new DependencyGraphBuilderException( "Interrupted while building the dependency graphs", e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof DependencyGraphBuilderException )
+            {
+                throw (DependencyGraphBuilderException) e.getCause();
+            }
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DependencyGraphBuilderException( "Error building the dependency graphs", e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private DependencyNode buildDependencyGraph( MavenProject project, ArtifactFilter artifactFilter )
+            throws DependencyGraphBuilderException
+    {
+        ProjectBuildingRequest request = new DefaultProjectBuildingRequest( session.getProjectBuildingRequest() );
+        request.setProject( project );
+        return dependencyGraphBuilder.buildDependencyGraph( request, artifactFilter );
+    }
+
+    /**
+     * @param project module project
+     * @return the SPDX file attached to the module project or null if the module has no SPDX file
+     */
+    private @Nullable File moduleSpdxFile( MavenProject project )
+    {
+        for ( Artifact attached : project.getAttachedArtifacts() )
+        {
+            for ( OutputFormat format : OutputFormat.values() )
+            {
+                if ( format.getArtifactType().equals( attached.getType() ) && attached.getFile() != null &&
+                        attached.getFile().isFile() && !attached.getFile().equals( spdxFile ) )
+                {
+                    return attached.getFile();
                 }
             }
         }
+        return null;
     }
 }
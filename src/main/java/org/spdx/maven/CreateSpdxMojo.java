@@ -41,6 +41,8 @@ import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.core.SpdxCoreConstants.SpdxMajorVersion;
 import org.spdx.library.SpdxModelFactory;
 import org.spdx.library.model.v2.SpdxConstantsCompatV2;
+import org.spdx.maven.utils.LicenseListCache;
+import org.spdx.maven.utils.MavenToSpdxLicenseMapper;
 import org.spdx.maven.utils.LicenseMapperException;
 import org.spdx.maven.utils.SpdxBuilderException;
 import org.spdx.maven.utils.SpdxCollectionException;
@@ -66,6 +68,7 @@ import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 import org.spdx.library.LicenseInfoFactory;
 import org.spdx.library.model.v2.license.InvalidLicenseStringException;
 
@@ -133,7 +136,7 @@ public class CreateSpdxMojo extends AbstractMojo
      */
     @Parameter( defaultValue = "${project.reporting.outputDirectory}/${project.groupId}_${project.artifactId}-${project.version}.spdx",
         property = "spdxFileName" )
-    private File spdxFile;
+    protected File spdxFile;
 
     /**
      * Document namespace - must be unique for the artifact and SPDX file
@@ -571,6 +574,154 @@ public class CreateSpdxMojo extends AbstractMojo
     @Parameter( defaultValue = "${project.build.outputTimestamp}" )
     private String created;
 
+    /**
+     * Number of threads used to calculate checksums and scan source files for SPDX license identifiers.  The SPDX
+     * elements are still created on a single thread in a fixed order, so the generated document does not depend
+     * on this value.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.fileCollectionThreads", defaultValue = "1" )
+    private int fileCollectionThreads;
+
+    /**
+     * If true, checksums and SPDX license identifiers found in files are saved to {@code fileScanCacheFile}
+     * and reused in later builds for files whose size and last modified time have not changed.  A file changed
+     * without changing its size or last modified time keeps the checksums of its previous content unless
+     * {@code verifyFileScanCache} is also set.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.useFileScanCache", defaultValue = "false" )
+    private boolean useFileScanCache;
+
+    /**
+     * File used to cache the file scan results between builds.  Only the results for the files scanned by the
+     * last build are kept, so each execution of the goal uses its own file by default.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( defaultValue = "${project.build.directory}/spdx-file-scan-cache-${mojoExecution.executionId}.json" )
+    private File fileScanCacheFile;
+
+    /**
+     * If true, cached file scan results are only used if a CRC32 fingerprint of the complete file content also
+     * matches.  This protects against files changed without updating the size or last modified time, but every
+     * cached file is read again.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.verifyFileScanCache", defaultValue = "false" )
+    private boolean verifyFileScanCache;
+
+    /**
+     * Files of at least this size in bytes are memory mapped when calculating checksums rather than read through
+     * a heap buffer.  This applies to the collected files and to the package artifact.  Zero or a negative value
+     * disables memory mapping.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.mappedChecksumThreshold", defaultValue = "16777216" )
+    private long mappedChecksumThreshold = AbstractFileCollector.DEFAULT_MAPPED_CHECKSUM_THRESHOLD;
+
+    /**
+     * Number of lines at the start of each source file searched for SPDX-License-Identifier tags.  If zero, the
+     * entire file is searched.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.licenseScanHeaderLines", defaultValue = "0" )
+    private int licenseScanHeaderLines;
+
+    /**
+     * If true, SPDX 2 JSON files are written a chunk of packages, files and snippets at a time rather than from an
+     * in-memory JSON representation of the complete document.  The content of the file is the same.  This only avoids
+     * the JSON copy of the document while it is saved - the complete SPDX model is still held in memory until the
+     * document is saved.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.streamingOutput", defaultValue = "false" )
+    private boolean streamingOutput;
+
+    /**
+     * Number of threads used to build the Maven projects of the dependencies, which may require downloading the
+     * dependency and parent POM files.  The aggregate goal also uses this number of threads to build the dependency
+     * graphs of the modules.  The SPDX packages and relationships are still created in the order of the dependency
+     * graph, so the generated document does not depend on this value.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.dependencyResolutionThreads", defaultValue = "1" )
+    protected int dependencyResolutionThreads;
+
+    /**
+     * If true, the dependency information used to create the SPDX packages is cached between builds so the Maven
+     * projects of unchanged dependencies do not need to be built.  Cached information is only used if the
+     * dependency POM file in the local repository is unchanged.  SNAPSHOT dependencies and dependencies on projects in
+     * the reactor are never cached since their metadata can change without a change to the POM in the local
+     * repository.  A change to the parent POM of a released dependency in the local repository is not detected.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.useDependencyMetadataCache", defaultValue = "false" )
+    private boolean useDependencyMetadataCache;
+
+    /**
+     * Directory used to cache the dependency information between builds.  The directory may be shared by
+     * concurrent builds.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.dependencyMetadataCacheDirectory",
+                defaultValue = "${settings.localRepository}/.cache/spdx-maven-plugin/dependencies" )
+    private File dependencyMetadataCacheDirectory;
+
+    /**
+     * Maximum depth of the transitive dependencies included where the direct dependencies have a depth of 1.  Values
+     * less than 1 include all transitive dependencies.  Only used if includeTransitiveDependencies is true.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.maxDependencyDepth", defaultValue = "0" )
+    private int maxDependencyDepth;
+
+    /**
+     * If true, the SPDX license list fetched from spdx.org is cached between builds.  The cached license list is used
+     * without contacting spdx.org until it expires.  An expired license list is used for the build while it is
+     * refreshed in the background.  Not used if onlyUseLocalLicenses is true.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.useLicenseListCache", defaultValue = "true" )
+    private boolean useLicenseListCache;
+
+    /**
+     * Directory used to cache the SPDX license list between builds.  The directory may be shared by concurrent
+     * builds.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.licenseListCacheDirectory",
+                defaultValue = "${settings.localRepository}/.cache/spdx-maven-plugin/licenses" )
+    private File licenseListCacheDirectory;
+
+    /**
+     * Number of hours the cached SPDX license list is used before it is refreshed.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.licenseListCacheHours", defaultValue = "24" )
+    private int licenseListCacheHours;
+
+    /**
+     * Connect and read timeout in milliseconds for fetching the SPDX license list.
+     *
+     * @since 1.0.5
+     */
+    @Parameter( property = "spdx.licenseListTimeout", defaultValue = "10000" )
+    private int licenseListTimeout;
+
     public void execute() throws MojoExecutionException
     {
         if ( skip )
@@ -687,6 +838,11 @@ public class CreateSpdxMojo extends AbstractMojo
         {
             System.setProperty( "SPDXParser.OnlyUseLocalLicenses", "true" );
         }
+        else if ( useLicenseListCache && licenseListCacheDirectory != null )
+        {
+            MavenToSpdxLicenseMapper.setLicenseListCache( new LicenseListCache( licenseListCacheDirectory,
+                    TimeUnit.HOURS.toMillis( licenseListCacheHours ), licenseListTimeout ) );
+        }
         if ( defaultLicenseInformationInFile == null ) {
             defaultLicenseInformationInFile = defaultFileConcludedLicense;
         }
@@ -705,8 +861,10 @@ public class CreateSpdxMojo extends AbstractMojo
             }
             else
             {
-                builder = new SpdxV2DocumentBuilder( mavenProject, generatePurls, spdxFile, namespaceUri,
-                        outputFormatEnum );
+                SpdxV2DocumentBuilder v2Builder = new SpdxV2DocumentBuilder( mavenProject, generatePurls, spdxFile,
+                        namespaceUri, outputFormatEnum );
+                v2Builder.setStreamingOutput( streamingOutput );
+                builder = v2Builder;
             }
 
         }
@@ -722,6 +880,13 @@ public class CreateSpdxMojo extends AbstractMojo
         {
             throw new MojoExecutionException( "Invalid SPDX document namespace - not a valid URI: " + spdxDocumentNamespace, e );
         }
+        builder.setFileCollectionThreads( fileCollectionThreads );
+        builder.setMappedChecksumThreshold( mappedChecksumThreshold );
+        builder.setLicenseScanHeaderLines( licenseScanHeaderLines );
+        if ( useFileScanCache && fileScanCacheFile != null )
+        {
+            builder.setFileScanCache( fileScanCacheFile, verifyFileScanCache );
+        }
         if ( nonStandardLicenses != null )
         {
             try
@@ -756,6 +921,7 @@ public class CreateSpdxMojo extends AbstractMojo
             DependencyNode parentNode = dependencyGraphBuilder.buildDependencyGraph( request, artifactFilter );
 
             dependencyBuilder.addMavenDependencies( mavenProjectBuilder, session, mavenProject, parentNode, builder.getProjectPackage() );
+            getLog().debug( "Dependency graph: " + dependencyBuilder.getGraphStatistics() );
         }
     }
 
@@ -767,6 +933,12 @@ public class CreateSpdxMojo extends AbstractMojo
             SpdxV3DocumentBuilder documentBuilder = (SpdxV3DocumentBuilder) builder;
             SpdxV3DependencyBuilder dependencyBuilder = new SpdxV3DependencyBuilder(
                     documentBuilder, createExternalRefs, generatePurls, useArtifactID, includeTransitiveDependencies );
+            dependencyBuilder.setDependencyResolutionThreads( dependencyResolutionThreads );
+            dependencyBuilder.setMaxDependencyDepth( maxDependencyDepth );
+            if ( useDependencyMetadataCache )
+            {
+                dependencyBuilder.setDependencyMetadataCacheDirectory( dependencyMetadataCacheDirectory );
+            }
             addLicenseOverwrites( documentBuilder, dependencyBuilder );
             return dependencyBuilder;
         }
@@ -774,6 +946,12 @@ public class CreateSpdxMojo extends AbstractMojo
         SpdxV2DocumentBuilder documentBuilder = (SpdxV2DocumentBuilder) builder;
         SpdxV2DependencyBuilder dependencyBuilder = new SpdxV2DependencyBuilder(
                 documentBuilder, createExternalRefs, generatePurls, useArtifactID, includeTransitiveDependencies );
+        dependencyBuilder.setDependencyResolutionThreads( dependencyResolutionThreads );
+        dependencyBuilder.setMaxDependencyDepth( maxDependencyDepth );
+        if ( useDependencyMetadataCache )
+        {
+            dependencyBuilder.setDependencyMetadataCacheDirectory( dependencyMetadataCacheDirectory );
+        }
         addLicenseOverwrites( documentBuilder, dependencyBuilder );
         return dependencyBuilder;
     }
@@ -801,6 +979,10 @@ public class CreateSpdxMojo extends AbstractMojo
                 // add some info the help the user fixing the configuration
                 throw new InvalidLicenseStringException( "Invalid license overwrite configuration for " + licenseOverwrite, e );
             }
+            catch ( IllegalArgumentException e )
+            {
+                throw new InvalidSPDXAnalysisException( "Conflicting license overwrite configuration: " + e.getMessage(), e );
+            }
         }
     }
 
@@ -827,6 +1009,10 @@ public class CreateSpdxMojo extends AbstractMojo
                 // add some info the help the user fixing the configuration
                 throw new InvalidLicenseStringException( "Invalid license overwrite configuration for " + licenseOverwrite, e );
             }
+            catch ( IllegalArgumentException e )
+            {
+                throw new InvalidSPDXAnalysisException( "Conflicting license overwrite configuration: " + e.getMessage(), e );
+            }
         }
     }
 
@@ -1047,7 +1233,7 @@ public class CreateSpdxMojo extends AbstractMojo
             {
                 getLog().debug( "Generating checksum for file " + packageFile.getAbsolutePath() );
                 Set<String> algorithms = getChecksumAlgorithms();
-                checksums = AbstractFileCollector.generateChecksum( packageFile, algorithms );
+                checksums = AbstractFileCollector.generateChecksum( packageFile, algorithms, mappedChecksumThreshold );
             }
             catch ( SpdxCollectionException | InvalidSPDXAnalysisException e )
             {
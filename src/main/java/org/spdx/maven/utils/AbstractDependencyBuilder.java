@@ -7,17 +7,34 @@ package org.spdx.maven.utils;
 import java.io.File;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nullable;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingException;
+import org.apache.maven.project.ProjectBuildingRequest;
 import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.LocalRepositoryManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spdx.core.CoreModelObject;
@@ -42,9 +59,52 @@ public abstract class AbstractDependencyBuilder
     protected boolean generatePurls;
     protected boolean useArtifactID;
     protected boolean includeTransitiveDependencies;
-    private final HashSet<String> usedDependencies = new HashSet<>();
+
+    /**
+     * Map of dependency group:artifact:version to the SPDX element created for the dependency
+     */
+    private final Map<String, CoreModelObject> dependencyElements = new HashMap<>();
+
+    /**
+     * Map of group:artifact:version of dependencies whose own dependencies have been added to the lowest depth the
+     * dependencies were added from
+     */
+    private final Map<String, Integer> expandedDependencies = new HashMap<>();
+
+    /**
+     * Parent object URI and dependency group:artifact:version of the relationships created
+     */
+    private final Set<String> dependencyRelationships = new HashSet<>();
+
+    private final DependencyGraphStatistics statistics = new DependencyGraphStatistics();
+
+    /**
+     * Maximum depth of dependencies to include - less than 1 for no limit
+     */
+    private int maxDependencyDepth = 0;
+
     DateFormat format = new SimpleDateFormat( SpdxConstantsCompatV2.SPDX_DATE_FORMAT );
 
+    /**
+     * Number of threads used to build the Maven projects for the dependencies ahead of creating the SPDX elements
+     */
+    private int resolutionThreads = 1;
+
+    /**
+     * Executor building the dependency projects - only non-null while dependencies are being added
+     */
+    private ExecutorService prefetchExecutor = null;
+
+    /**
+     * Map of dependency group:artifact:version to the Maven project being built for the dependency
+     */
+    private final Map<String, Future<MavenProject>> prefetchedProjects = new HashMap<>();
+
+    /**
+     * Cache of dependency metadata persisted between builds - null if the persistent cache is not used
+     */
+    private PersistentDependencyMetadataCache persistentMetadataCache = null;
+
     /**
      * @param createExternalRefs if true, create external references for dependencies
      * @param generatePurls if true, generate a Package URL and include as an external identifier for the dependencies
@@ -62,6 +122,12 @@ public abstract class AbstractDependencyBuilder
 
     /**
      * Adds information about Maven dependencies to the list of SPDX Dependencies
+     * <p>
+     * The dependency graph is traversed iteratively in the order of the graph.  An SPDX element is created once for
+     * each group:artifact:version and every parent depending on the artifact is related to that element.  The
+     * dependencies of an artifact are only added the first time the artifact is reached since they are the same for
+     * every occurrence of the artifact - unless a maximum depth is configured and the artifact is reached again at a
+     * lower depth, where more of its transitive dependencies are within the maximum depth.
      * 
      * @param mavenProjectBuilder project builder for the repo containing the POM file
      * @param session Maven session for building the project
@@ -74,31 +140,581 @@ public abstract class AbstractDependencyBuilder
     public void addMavenDependencies( ProjectBuilder mavenProjectBuilder, MavenSession session,
                                                   MavenProject mavenProject, DependencyNode node,
                                                   CoreModelObject pkg ) throws LicenseMapperException, InvalidSPDXAnalysisException
+    {
+        addMavenDependencies( mavenProjectBuilder, session, Collections.singletonMap( mavenProject, node ), pkg );
+    }
+
+    /**
+     * Adds information about the Maven dependencies of several projects to the list of SPDX Dependencies
+     * <p>
+     * The dependency graphs are added in the iteration order of the map.  Dependencies used by more than one of the
+     * projects are only added once.  If more than one resolution thread is configured, the Maven projects for the
+     * dependencies of all the graphs are built concurrently before the first graph is added.
+     *
+     * @param mavenProjectBuilder project builder for the repo containing the POM file
+     * @param session Maven session for building the project
+     * @param dependencyGraphs map of Maven project to the dependency node which contains all the dependencies of
+     *                         the project
+     * @param pkg SPDX Package to attach the dependencies to
+     * @throws InvalidSPDXAnalysisException on errors generating SPDX
+     * @throws LicenseMapperException on errors mapping licenses or creating custom licenses
+     */
+    public void addMavenDependencies( ProjectBuilder mavenProjectBuilder, MavenSession session,
+                                      Map<MavenProject, DependencyNode> dependencyGraphs,
+                                      CoreModelObject pkg ) throws LicenseMapperException, InvalidSPDXAnalysisException
+    {
+        if ( resolutionThreads > 1 && prefetchExecutor == null )
+        {
+            prefetchExecutor = Executors.newFixedThreadPool( resolutionThreads, new DaemonThreadFactory( "spdx-dependency-resolver-" ) );
+            boolean added = false;
+            try
+            {
+                Set<String> seen = new HashSet<>( dependencyElements.keySet() );
+                Map<String, Integer> expanded = new HashMap<>( expandedDependencies );
+                for ( Map.Entry<MavenProject, DependencyNode> graph : dependencyGraphs.entrySet() )
+                {
+                    prefetchProjects( mavenProjectBuilder, session, graph.getKey(), graph.getValue(), seen, expanded );
+                }
+                for ( Map.Entry<MavenProject, DependencyNode> graph : dependencyGraphs.entrySet() )
+                {
+                    addDependencyGraph( mavenProjectBuilder, session, graph.getKey(), graph.getValue(), pkg );
+                }
+                added = true;
+            }
+            finally
+            {
+                stopPrefetch( added );
+            }
+        }
+        else
+        {
+            for ( Map.Entry<MavenProject, DependencyNode> graph : dependencyGraphs.entrySet() )
+            {
+                addDependencyGraph( mavenProjectBuilder, session, graph.getKey(), graph.getValue(), pkg );
+            }
+        }
+    }
+
+    /**
+     * Adds the dependencies in the graph below the node in the order of the dependency graph
+     */
+    private void addDependencyGraph( ProjectBuilder mavenProjectBuilder, MavenSession session,
+                                     MavenProject mavenProject, DependencyNode node,
+                                     CoreModelObject pkg ) throws LicenseMapperException, InvalidSPDXAnalysisException
+    {
+        Deque<PendingDependency> pending = new ArrayDeque<>();
+        pushChildren( pending, pkg, node, 1 );
+        while ( !pending.isEmpty() )
+        {
+            PendingDependency dependency = pending.pop();
+            Artifact artifact = dependency.node.getArtifact();
+            String name = gav( artifact );
+            CoreModelObject element = visitDependency( name, dependency.depth );
+            if ( element == null )
+            {
+                element = createDependencyElement( artifact, mavenProjectBuilder, session, mavenProject );
+                dependencyElementCreated( name, element );
+            }
+            if ( isNewDependencyRelationship( dependency.parent, name ) )
+            {
+                addDependencyRelationship( dependency.parent, element, artifact );
+            }
+            if ( includeTransitiveDependencies && canHaveDependencies( element ) &&
+                    !dependency.node.getChildren().isEmpty() && expandDependency( name, dependency.depth ) )
+            {
+                pushChildren( pending, element, dependency.node, dependency.depth + 1 );
+            }
+        }
+    }
+
+    /**
+     * Record a visit to a dependency in the dependency graph
+     *
+     * @param gav group:artifact:version of the dependency
+     * @param depth depth of the dependency where the direct dependencies have a depth of 1
+     * @return the SPDX element already created for the dependency or null if no element has been created
+     */
+    @Nullable CoreModelObject visitDependency( String gav, int depth )
+    {
+        statistics.nodeVisited( depth );
+        CoreModelObject element = dependencyElements.get( gav );
+        if ( element != null )
+        {
+            LOG.debug( "Using the existing SPDX element for dependency {}", gav );
+            statistics.sharedNodeVisited();
+        }
+        return element;
+    }
+
+    /**
+     * @param gav group:artifact:version of the dependency
+     * @param element SPDX element created for the dependency
+     */
+    void dependencyElementCreated( String gav, CoreModelObject element )
+    {
+        dependencyElements.put( gav, element );
+        statistics.dependencyAdded();
+    }
+
+    /**
+     * Record a relationship from a parent to a dependency
+     *
+     * @param parent SPDX element depending on the dependency
+     * @param gav group:artifact:version of the dependency
+     * @return true if the relationship has not already been recorded and is to be created by the caller
+     */
+    boolean isNewDependencyRelationship( CoreModelObject parent, String gav )
+    {
+        if ( dependencyRelationships.add( parent.getObjectUri() + "->" + gav ) )
+        {
+            statistics.relationshipAdded();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record that the dependencies of a dependency are to be added
+     *
+     * @param gav group:artifact:version of the dependency
+     * @param depth depth of the dependency where the direct dependencies have a depth of 1
+     * @return true if the dependencies of the dependency are within the maximum depth and have not already been
+     *         added from the same or a lower depth
+     */
+    boolean expandDependency( String gav, int depth )
+    {
+        if ( isExpanded( expandedDependencies, gav, depth ) )
+        {
+            return false;
+        }
+        // a dependency reached beyond the maximum depth may still be expanded where it is reached at a lower depth
+        if ( !withinMaxDepth( depth ) )
+        {
+            LOG.debug( "Dependencies of {} not included - maximum dependency depth reached", gav );
+            statistics.depthLimitReached();
+            return false;
+        }
+        expandedDependencies.put( gav, depth );
+        return true;
+    }
+
+    /**
+     * @param expanded map of group:artifact:version to the lowest depth the dependencies were added from
+     * @param gav group:artifact:version of the dependency
+     * @param depth depth of the dependency
+     * @return true if the dependencies of the dependency have already been added as deep as they would be from the
+     *         depth
+     */
+    private boolean isExpanded( Map<String, Integer> expanded, String gav, int depth )
+    {
+        Integer expandedDepth = expanded.get( gav );
+        return expandedDepth != null && ( maxDependencyDepth <= 0 || expandedDepth <= depth );
+    }
+
+    /**
+     * Push the children of the node in reverse so they are popped in the order of the dependency graph
+     */
+    private void pushChildren( Deque<PendingDependency> pending, CoreModelObject parent, DependencyNode node, int depth )
     {
         List<DependencyNode> children = node.getChildren();
         logDependencies( children );
-        String name = "";
+        for ( int i = children.size() - 1; i >= 0; i-- )
+        {
+            pending.push( new PendingDependency( parent, children.get( i ), depth ) );
+        }
+    }
+
+    /**
+     * @param depth depth of a dependency where the direct dependencies have a depth of 1
+     * @return true if the dependencies of a dependency at the depth are to be included
+     */
+    private boolean withinMaxDepth( int depth )
+    {
+        return maxDependencyDepth <= 0 || depth < maxDependencyDepth;
+    }
+
+    /**
+     * Create the SPDX element for a dependency - called once for each group:artifact:version
+     *
+     * @param dependency Maven dependency artifact
+     * @param mavenProjectBuilder project builder for the repo containing the POM file
+     * @param session Maven session for building the project
+     * @param mavenProject Maven project
+     * @return SPDX element for the dependency
+     * @throws InvalidSPDXAnalysisException on errors generating SPDX
+     * @throws LicenseMapperException on errors mapping licenses or creating custom licenses
+     */
+    abstract CoreModelObject createDependencyElement( Artifact dependency, ProjectBuilder mavenProjectBuilder,
+                                                      MavenSession session, MavenProject mavenProject )
+         throws LicenseMapperException, InvalidSPDXAnalysisException;
+
+    /**
+     * Relate a parent to the SPDX element of one of its dependencies
+     *
+     * @param parentPackage SPDX element of the project or dependency depending on the artifact
+     * @param dependencyElement SPDX element for the dependency
+     * @param dependency Maven dependency artifact - the scope and optional flag are those of the dependency of the parent
+     * @throws InvalidSPDXAnalysisException on errors generating SPDX
+     */
+    abstract void addDependencyRelationship( CoreModelObject parentPackage, CoreModelObject dependencyElement,
+                                             Artifact dependency ) throws InvalidSPDXAnalysisException;
+
+    /**
+     * @param dependencyElement SPDX element for a dependency
+     * @return true if dependencies can be related to the element
+     */
+    abstract boolean canHaveDependencies( CoreModelObject dependencyElement );
+
+    /**
+     * Adds the dependencies recorded in the SPDX file already generated for a module of the build.  Dependencies
+     * shared with other modules or dependencies are related to the same SPDX element.
+     * <p>
+     * Only supported by builders which can read the SPDX file format of the module - other builders return false.
+     * <p>
+     * The SPDX file only contains the dependencies in the scopes included by the module configuration, so scopes
+     * excluded for the module can not be added back.  Dependencies in scopes excluded by the artifact filter are
+     * skipped.
+     *
+     * @param module Maven project for the module
+     * @param moduleSpdxFile SPDX file generated for the module
+     * @param pkg SPDX Package to attach the dependencies to
+     * @param artifactFilter scope filter for the dependencies or null to add all the dependencies of the SPDX file
+     * @return true if the dependencies were added from the SPDX file, false if they need to be added from the
+     *         Maven dependency graph of the module
+     * @throws InvalidSPDXAnalysisException on errors generating SPDX
+     */
+    public boolean addModuleDependencies( MavenProject module, File moduleSpdxFile, CoreModelObject pkg,
+                                          @Nullable ArtifactFilter artifactFilter ) throws InvalidSPDXAnalysisException
+    {
+        return false;
+    }
 
-        for ( DependencyNode childNode : children )
+    /**
+     * @param artifact Maven dependency artifact
+     * @return true if the artifact has an SPDX document the SPDX package can be created from without building the
+     *         Maven project for the artifact
+     */
+    abstract boolean hasSpdxDocument( Artifact artifact );
+
+    /**
+     * @param resolutionThreads number of threads used to build the Maven projects for the dependencies.  If more than
+     *                          one, the projects for all dependencies in the graph are built concurrently ahead of
+     *                          creating the SPDX packages which are still created in the order of the dependency graph
+     */
+    public void setDependencyResolutionThreads( int resolutionThreads )
+    {
+        this.resolutionThreads = resolutionThreads;
+    }
+
+    /**
+     * @return number of threads used to build the Maven projects for the dependencies
+     */
+    public int getDependencyResolutionThreads()
+    {
+        return resolutionThreads;
+    }
+
+    /**
+     * @param maxDependencyDepth maximum depth of the dependencies included where the direct dependencies have a
+     *                           depth of 1 - less than 1 to include all transitive dependencies
+     */
+    public void setMaxDependencyDepth( int maxDependencyDepth )
+    {
+        this.maxDependencyDepth = maxDependencyDepth;
+    }
+
+    /**
+     * @return maximum depth of the dependencies included - less than 1 if there is no limit
+     */
+    public int getMaxDependencyDepth()
+    {
+        return maxDependencyDepth;
+    }
+
+    /**
+     * @return statistics on the dependency graphs added by this builder
+     */
+    public DependencyGraphStatistics getGraphStatistics()
+    {
+        return statistics;
+    }
+
+    /**
+     * @param cacheDirectory directory used to persist the dependency metadata between builds or null to always build
+     *                       the Maven projects for the dependencies
+     */
+    public void setDependencyMetadataCacheDirectory( @Nullable File cacheDirectory )
+    {
+        this.persistentMetadataCache = cacheDirectory == null ? null : new PersistentDependencyMetadataCache( cacheDirectory );
+    }
+
+    /**
+     * Start building the Maven projects for all dependencies in the graph which will be added in the same order
+     * they will be added as SPDX elements
+     *
+     * @param mavenProjectBuilder project builder for the repo containing the POM file
+     * @param session Maven session for building the project
+     * @param mavenProject Maven project
+     * @param node Dependency node which contains all the dependencies
+     * @param seen group:artifact:version of dependencies already added or scheduled
+     * @param expanded map of group:artifact:version of dependencies whose dependencies have already been added or
+     *                 scheduled to the lowest depth they were added from
+     */
+    private void prefetchProjects( ProjectBuilder mavenProjectBuilder, MavenSession session,
+                                   MavenProject mavenProject, DependencyNode node,
+                                   Set<String> seen, Map<String, Integer> expanded )
+    {
+        Deque<PendingDependency> pending = new ArrayDeque<>();
+        for ( int i = node.getChildren().size() - 1; i >= 0; i-- )
+        {
+            pending.push( new PendingDependency( null, node.getChildren().get( i ), 1 ) );
+        }
+        while ( !pending.isEmpty() )
         {
-            name = String.format( "%s:%s:%s", childNode.getArtifact().getGroupId(),
-                    childNode.getArtifact().getArtifactId(), childNode.getArtifact().getVersion() );
-            //To keep the repetition-check at O(1)
-            if ( usedDependencies.add( name ) )
+            PendingDependency dependency = pending.pop();
+            Artifact artifact = dependency.node.getArtifact();
+            String name = gav( artifact );
+            if ( seen.add( name ) && !hasSpdxDocument( artifact ) )
             {
-                addMavenDependency( pkg, childNode, mavenProjectBuilder, session, mavenProject );
+                prefetchedProjects.put( name, prefetchExecutor.submit(
+                        () -> buildProject( artifact, mavenProjectBuilder, session, mavenProject ) ) );
             }
-            else
+            if ( includeTransitiveDependencies && withinMaxDepth( dependency.depth ) &&
+                    !isExpanded( expanded, name, dependency.depth ) )
             {
-                LOG.info( "Duplicate dependency occurred for " + name );
+                expanded.put( name, dependency.depth );
+                List<DependencyNode> children = dependency.node.getChildren();
+                for ( int i = children.size() - 1; i >= 0; i-- )
+                {
+                    pending.push( new PendingDependency( null, children.get( i ), dependency.depth + 1 ) );
+                }
             }
         }
     }
-    
-    abstract void addMavenDependency( CoreModelObject parentPackage, DependencyNode dependencyNode, 
-                                       ProjectBuilder mavenProjectBuilder,
-                                       MavenSession session, MavenProject mavenProject )
-         throws LicenseMapperException, InvalidSPDXAnalysisException;
+
+    /**
+     * Stop building the dependency projects which were not used.  Projects already being built are only interrupted
+     * if adding the dependencies failed so that they are not recorded as failed in the session wide metadata cache.
+     *
+     * @param added true if all the dependency graphs were added
+     */
+    private void stopPrefetch( boolean added )
+    {
+        if ( added )
+        {
+            // prefetched projects which were never used, e.g. below the maximum depth, are not waited for
+            for ( Future<MavenProject> unused : prefetchedProjects.values() )
+            {
+                unused.cancel( false );
+            }
+            prefetchExecutor.shutdown();
+        }
+        else
+        {
+            prefetchExecutor.shutdownNow();
+        }
+        prefetchExecutor = null;
+        prefetchedProjects.clear();
+    }
+
+    /**
+     * Get the Maven project for a dependency using the mavenProjectBuilder to resolve properties including
+     * inherited properties.  If the project has already been built concurrently, the already built project
+     * is returned.
+     *
+     * @param artifact Maven dependency artifact
+     * @param mavenProjectBuilder project builder for the repo containing the POM file
+     * @param session Maven session for building the project
+     * @param mavenProject Maven project
+     * @return the Maven project for the dependency
+     * @throws ProjectBuildingException on errors building the project
+     */
+    protected MavenProject getDependencyProject( Artifact artifact, ProjectBuilder mavenProjectBuilder,
+                                                 MavenSession session, MavenProject mavenProject ) throws ProjectBuildingException
+    {
+        Future<MavenProject> prefetched = prefetchedProjects.remove( gav( artifact ) );
+        if ( prefetched == null )
+        {
+            return buildProject( artifact, mavenProjectBuilder, session, mavenProject );
+        }
+        try
+        {
+            return prefetched.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ProjectBuildingException( artifact.getId(), "Interrupted while building the dependency project", e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof ProjectBuildingException )
+            {
+                throw (ProjectBuildingException) e.getCause();
+            }
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ProjectBuildingException( artifact.getId(), "Error building the dependency project", e.getCause() );
+        }
+    }
+
+    /**
+     * Get the project metadata for a dependency from the session wide dependency metadata cache, building the Maven
+     * project if this is the first time the dependency is used in the session
+     */
+    private MavenProject buildProject( Artifact artifact, ProjectBuilder mavenProjectBuilder,
+                                       MavenSession session, MavenProject mavenProject ) throws ProjectBuildingException
+    {
+        DependencyMetadata metadata = DependencyMetadataCache.forSession( session ).get( metadataKey( artifact, mavenProject ),
+                () -> loadMetadata( artifact, mavenProjectBuilder, session, mavenProject ) );
+        if ( metadata.isFailure() )
+        {
+            throw new ProjectBuildingException( artifact.getId(), metadata.getFailureMessage(), (Throwable) null );
+        }
+        return metadata.toMavenProject();
+    }
+
+    /**
+     * Load the metadata from the persistent cache if the dependency POM file is unchanged, otherwise build the Maven
+     * project and store the metadata in the persistent cache.  SNAPSHOT and reactor dependencies are always built.
+     */
+    private DependencyMetadata loadMetadata( Artifact artifact, ProjectBuilder mavenProjectBuilder,
+                                             MavenSession session, MavenProject mavenProject ) throws ProjectBuildingException
+    {
+        File pomFile = persistentMetadataCache == null || !isPersistentlyCacheable( artifact, session ) ? null
+                : localPomFile( artifact, session );
+        if ( pomFile != null )
+        {
+            DependencyMetadata cached = persistentMetadataCache.get( artifact.getGroupId(), artifact.getArtifactId(),
+                    artifact.getBaseVersion(), pomFile );
+            if ( cached != null )
+            {
+                LOG.debug( "Using cached metadata for dependency {}", gav( artifact ) );
+                return cached;
+            }
+        }
+        DependencyMetadata metadata = DependencyMetadata.fromProject(
+                buildMavenProject( artifact, mavenProjectBuilder, session, mavenProject ) );
+        if ( pomFile != null )
+        {
+            persistentMetadataCache.put( artifact.getGroupId(), artifact.getArtifactId(), artifact.getBaseVersion(),
+                    pomFile, metadata );
+        }
+        return metadata;
+    }
+
+    /**
+     * The Maven project of a SNAPSHOT dependency may be built from a changed parent POM and the Maven project of a
+     * dependency in the reactor is built from the workspace POM, so neither can be validated against the POM file in
+     * the local repository
+     *
+     * @return true if the metadata of the artifact can be stored in the persistent cache
+     */
+    static boolean isPersistentlyCacheable( Artifact artifact, MavenSession session )
+    {
+        if ( artifact.isSnapshot() )
+        {
+            return false;
+        }
+        if ( session.getProjects() != null )
+        {
+            for ( MavenProject project : session.getProjects() )
+            {
+                if ( Objects.equals( project.getGroupId(), artifact.getGroupId() ) &&
+                        Objects.equals( project.getArtifactId(), artifact.getArtifactId() ) &&
+                        Objects.equals( project.getVersion(), artifact.getBaseVersion() ) )
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the POM file for the artifact in the local repository or null if the local repository is not available
+     */
+    private static @Nullable File localPomFile( Artifact artifact, MavenSession session )
+    {
+        RepositorySystemSession repositorySession = session.getRepositorySession();
+        if ( repositorySession == null || repositorySession.getLocalRepositoryManager() == null )
+        {
+            return null;
+        }
+        LocalRepositoryManager localRepositoryManager = repositorySession.getLocalRepositoryManager();
+        org.eclipse.aether.artifact.Artifact pom = new org.eclipse.aether.artifact.DefaultArtifact(
+                artifact.getGroupId(), artifact.getArtifactId(), "pom", artifact.getBaseVersion() );
+        return new File( localRepositoryManager.getRepository().getBasedir(),
+                localRepositoryManager.getPathForLocalArtifact( pom ) );
+    }
+
+    private MavenProject buildMavenProject( Artifact artifact, ProjectBuilder mavenProjectBuilder,
+                                            MavenSession session, MavenProject mavenProject ) throws ProjectBuildingException
+    {
+        ProjectBuildingRequest request = new DefaultProjectBuildingRequest( session.getProjectBuildingRequest() );
+        request.setProcessPlugins( false );
+        request.setRemoteRepositories( mavenProject.getRemoteArtifactRepositories() );
+        if ( LOG.isDebugEnabled() )
+        {
+            for ( ArtifactRepository ar : request.getRemoteRepositories() ) {
+                LOG.debug( "request Remote repository ID: {}", ar.getId() );
+            }
+            for ( ArtifactRepository ar : mavenProject.getRemoteArtifactRepositories() ) {
+                LOG.debug( "Project Remote repository ID: {}", ar.getId() );
+            }
+        }
+        return mavenProjectBuilder.build( artifact, request ).getProject();
+    }
+
+    /**
+     * @param artifact Maven artifact
+     * @return group:artifact:version for the artifact
+     */
+    static String gav( Artifact artifact )
+    {
+        return String.format( "%s:%s:%s", artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion() );
+    }
+
+    /**
+     * The dependency project is built with the remote repositories of the project depending on it, so modules
+     * with different repositories, e.g. from different profiles, may resolve the same dependency differently
+     *
+     * @param artifact Maven dependency artifact
+     * @param mavenProject Maven project depending on the artifact
+     * @return key of the dependency metadata in the session wide metadata cache
+     */
+    static String metadataKey( Artifact artifact, MavenProject mavenProject )
+    {
+        StringBuilder key = new StringBuilder( gav( artifact ) );
+        List<ArtifactRepository> repositories = mavenProject.getRemoteArtifactRepositories();
+        if ( repositories != null )
+        {
+            for ( ArtifactRepository repository : repositories )
+            {
+                key.append( '|' ).append( repository.getId() ).append( '=' ).append( repository.getUrl() );
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Dependency node waiting to be added to the SPDX document
+     */
+    private static class PendingDependency
+    {
+        private final CoreModelObject parent;
+        private final DependencyNode node;
+        private final int depth;
+
+        private PendingDependency( CoreModelObject parent, DependencyNode node, int depth )
+        {
+            this.parent = parent;
+            this.node = node;
+            this.depth = depth;
+        }
+    }
     
 
     /**
@@ -32,6 +32,11 @@ import org.spdx.storage.ISerializableModelStore;
 public abstract class AbstractDocumentBuilder
 {
     protected static final String UNSPECIFIED = "UNSPECIFIED";
+
+    /**
+     * Size in bytes of the buffer used to write the SPDX file
+     */
+    protected static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
     public static final String NULL_SHA1 = "cf23df2207d99a74fbe169e3eba035e633b65d94";
     
     protected MavenProject project;
@@ -41,6 +46,11 @@ public abstract class AbstractDocumentBuilder
     protected ISerializableModelStore modelStore;
     protected ModelCopyManager copyManager;
     protected DateFormat format = new SimpleDateFormat( SpdxConstantsCompatV2.SPDX_DATE_FORMAT );
+    protected int fileCollectionThreads = 1;
+    protected File fileScanCacheFile = null;
+    protected boolean verifyFileScanCache = false;
+    protected long mappedChecksumThreshold = AbstractFileCollector.DEFAULT_MAPPED_CHECKSUM_THRESHOLD;
+    protected int licenseScanHeaderLines = 0;
     
 
     /**
@@ -90,6 +100,60 @@ public abstract class AbstractDocumentBuilder
         
     }
 
+    /**
+     * @param fileCollectionThreads number of threads used to checksum and scan files when collecting file information
+     */
+    public void setFileCollectionThreads( int fileCollectionThreads )
+    {
+        this.fileCollectionThreads = fileCollectionThreads;
+    }
+
+    /**
+     * @param fileScanCacheFile   file used to cache checksums and license identifiers between builds or null if no
+     *                            cache is to be used
+     * @param verifyFileScanCache if true, cached results are only used if a fingerprint of the file content matches
+     */
+    public void setFileScanCache( File fileScanCacheFile, boolean verifyFileScanCache )
+    {
+        this.fileScanCacheFile = fileScanCacheFile;
+        this.verifyFileScanCache = verifyFileScanCache;
+    }
+
+    /**
+     * @param mappedChecksumThreshold size in bytes at or above which files are memory mapped when calculating
+     *                                checksums - zero or a negative value disables memory mapping
+     */
+    public void setMappedChecksumThreshold( long mappedChecksumThreshold )
+    {
+        this.mappedChecksumThreshold = mappedChecksumThreshold;
+    }
+
+    /**
+     * @param licenseScanHeaderLines number of lines at the start of source files searched for SPDX license
+     *                               identifiers - zero or a negative value searches the whole file
+     */
+    public void setLicenseScanHeaderLines( int licenseScanHeaderLines )
+    {
+        this.licenseScanHeaderLines = licenseScanHeaderLines;
+    }
+
+    /**
+     * Apply the file collection settings of this builder to a file collector
+     *
+     * @param fileCollector collector used to collect the file information for the document
+     */
+    protected void configureFileCollector( AbstractFileCollector fileCollector )
+    {
+        fileCollector.setThreads( fileCollectionThreads );
+        fileCollector.setMappedChecksumThreshold( mappedChecksumThreshold );
+        fileCollector.setLicenseScanHeaderLines( licenseScanHeaderLines );
+        if ( fileScanCacheFile != null )
+        {
+            fileCollector.setFileScanCache( FileScanCache.load( fileScanCacheFile, verifyFileScanCache,
+                    fileCollector.getLicenseScanSettings() ) );
+        }
+    }
+
     /**
      * @param projectInformation Information about project extracted from Maven metadata and parameters
      * @throws SpdxBuilderException on errors adding document level information
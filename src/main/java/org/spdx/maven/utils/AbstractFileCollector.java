@@ -7,18 +7,32 @@ package org.spdx.maven.utils;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.annotation.Nullable;
+
+import org.apache.maven.shared.model.fileset.FileSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spdx.core.InvalidSPDXAnalysisException;
@@ -61,7 +75,141 @@ public abstract class AbstractFileCollector
         CHECKSUM_ALGORITHMS.put( ChecksumAlgorithm.MD5.toString(), "MD5" );
         CHECKSUM_ALGORITHMS.put( ChecksumAlgorithm.MD6.toString(), "MD6" );
     }
+
+    /**
+     * Size of the buffer used to stream file content through the checksum digests
+     */
+    static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Read buffer reused by all checksum calculations on the same thread
+     */
+    private static final ThreadLocal<byte[]> CHECKSUM_BUFFER = ThreadLocal.withInitial( () -> new byte[CHECKSUM_BUFFER_SIZE] );
+
+    /**
+     * Files of at least this size are memory mapped rather than read through the checksum buffer by default
+     */
+    public static final long DEFAULT_MAPPED_CHECKSUM_THRESHOLD = 16L * 1024 * 1024;
+
+    /**
+     * Maximum size of a single memory mapped region when calculating checksums
+     */
+    static final long MAPPED_CHECKSUM_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Number of files which may be scanned ahead of the SPDX element creation for each thread
+     */
+    private static final int FILES_IN_FLIGHT_PER_THREAD = 4;
+
+    /**
+     * Handles a file once it has been scanned - always called on the thread collecting the files
+     * and in the order the files are found in the file sets
+     */
+    protected interface ScannedFileHandler
+    {
+        void handle( ScannedFile scannedFile ) throws SpdxCollectionException;
+    }
+
+    /**
+     * Number of threads used to checksum and scan the files
+     */
+    private int threads = 1;
+
+    /**
+     * Cache of scan results from previous builds - null if no cache is used
+     */
+    private FileScanCache fileScanCache = null;
+
+    /**
+     * Files of at least this size are memory mapped when calculating checksums
+     */
+    private long mappedChecksumThreshold = DEFAULT_MAPPED_CHECKSUM_THRESHOLD;
+
+    /**
+     * Number of lines at the start of source files searched for SPDX license identifiers - 0 for the whole file
+     */
+    private int licenseScanHeaderLines = 0;
     
+    /**
+     * @return number of threads used to checksum and scan the files
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Set the number of threads used to checksum and scan files for SPDX license identifiers.  The SPDX elements are
+     * always created on the calling thread in the order the files are found, so the resulting document does not
+     * depend on the number of threads.
+     *
+     * @param threads number of threads - a value less than 2 scans all files on the calling thread
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = Math.max( 1, threads );
+    }
+
+    /**
+     * @return cache of scan results from previous builds or null if no cache is used
+     */
+    public @Nullable FileScanCache getFileScanCache()
+    {
+        return fileScanCache;
+    }
+
+    /**
+     * @param fileScanCache cache of scan results from previous builds or null if no cache is to be used
+     */
+    public void setFileScanCache( @Nullable FileScanCache fileScanCache )
+    {
+        this.fileScanCache = fileScanCache;
+    }
+
+    /**
+     * @return size in bytes at or above which files are memory mapped when calculating checksums
+     */
+    public long getMappedChecksumThreshold()
+    {
+        return mappedChecksumThreshold;
+    }
+
+    /**
+     * @param mappedChecksumThreshold size in bytes at or above which files are memory mapped when calculating
+     *                                checksums - zero or a negative value disables memory mapping
+     */
+    public void setMappedChecksumThreshold( long mappedChecksumThreshold )
+    {
+        this.mappedChecksumThreshold = mappedChecksumThreshold;
+    }
+
+    /**
+     * @return number of lines at the start of source files searched for SPDX license identifiers - 0 for the whole
+     *         file
+     */
+    public int getLicenseScanHeaderLines()
+    {
+        return licenseScanHeaderLines;
+    }
+
+    /**
+     * @param licenseScanHeaderLines number of lines at the start of source files searched for SPDX license
+     *                               identifiers - zero or a negative value searches the whole file
+     */
+    public void setLicenseScanHeaderLines( int licenseScanHeaderLines )
+    {
+        this.licenseScanHeaderLines = licenseScanHeaderLines;
+    }
+
+    /**
+     * @return description of the settings used when scanning files for SPDX license identifiers, used to invalidate
+     *         cached license identifiers when the settings change
+     */
+    public String getLicenseScanSettings()
+    {
+        return "scanner=2;headerLines=" + Math.max( 0, licenseScanHeaderLines );
+    }
+
     /**
      * Load file type constants from the properties file
      */
@@ -103,7 +251,20 @@ public abstract class AbstractFileCollector
     
     public String getExtension( File file )
     {
-        String fileName = file.getName();
+        return getExtension( file.getName() );
+    }
+
+    /**
+     * @param file path of the file
+     * @return extension of the file name or an empty string if there is no extension
+     */
+    public String getExtension( Path file )
+    {
+        return getExtension( file.getFileName().toString() );
+    }
+
+    private static String getExtension( String fileName )
+    {
         int lastDot = fileName.lastIndexOf( '.' );
         if ( lastDot < 1 )
         {
@@ -177,7 +338,7 @@ public abstract class AbstractFileCollector
 
     /**
      * Generate the Sha1 for a given file.  Must have read access to the file. This method is equivalent to calling
-     * {@code SpdxFileCollector.generateChecksum(file, "SHA-1")}.
+     * {@code SpdxFileCollector.generateChecksum(file, "SHA1")}.
      *
      * @param file file to generate checksum for
      * @return SHA1 checksum of the input file
@@ -187,12 +348,16 @@ public abstract class AbstractFileCollector
     public static Checksum generateSha1( File file ) throws SpdxCollectionException, InvalidSPDXAnalysisException
     {
         Set<String> sha1 = new HashSet<>();
-        sha1.add( "SHA-1" );
+        sha1.add( ChecksumAlgorithm.SHA1.toString() );
         return generateChecksum( file, sha1 ).iterator().next();
     }
     
     /**
      * Generate checksums for a given file using each algorithm supplied. Must have read access to the file.
+     * <p>
+     * The file is read only once and every requested digest is updated in the same pass, so the memory used is
+     * independent of the file size.  Files of at least {@link #DEFAULT_MAPPED_CHECKSUM_THRESHOLD} bytes are memory
+     * mapped.
      *
      * @param file       file whose checksum is to be generated
      * @param algorithms algorithms to generate the checksums
@@ -202,38 +367,273 @@ public abstract class AbstractFileCollector
      */
     public static Set<Checksum> generateChecksum( File file, Set<String> algorithms ) throws SpdxCollectionException, InvalidSPDXAnalysisException
     {
-        Set<Checksum> checksums = new HashSet<>();
+        return generateChecksum( file, algorithms, DEFAULT_MAPPED_CHECKSUM_THRESHOLD );
+    }
+
+    /**
+     * Generate checksums for a given file using each algorithm supplied. Must have read access to the file.
+     * <p>
+     * The file is read only once and every requested digest is updated in the same pass.  Files smaller than the
+     * mapped threshold are streamed through a reusable buffer; larger files are memory mapped in windows so the file
+     * content is never copied to the heap.
+     *
+     * @param file             file whose checksum is to be generated
+     * @param algorithms       algorithms to generate the checksums
+     * @param mappedThreshold  size in bytes at or above which the file is memory mapped - zero or a negative value
+     *                         disables memory mapping
+     * @return {@code Set} of checksums for file using each algorithm specified
+     * @throws SpdxCollectionException if the input algorithm is invalid or unavailable or if the file cannot be read
+     * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+     */
+    public static Set<Checksum> generateChecksum( File file, Set<String> algorithms, long mappedThreshold ) throws SpdxCollectionException, InvalidSPDXAnalysisException
+    {
+        return generateChecksum( file.toPath(), file.length(), algorithms, mappedThreshold );
+    }
+
+    /**
+     * Generate checksums for a file whose size is already known, such as a file found while walking a directory.
+     *
+     * @param file             file whose checksum is to be generated
+     * @param size             size of the file in bytes - used to decide if the file is memory mapped
+     * @param algorithms       algorithms to generate the checksums
+     * @param mappedThreshold  size in bytes at or above which the file is memory mapped - zero or a negative value
+     *                         disables memory mapping
+     * @return {@code Set} of checksums for file using each algorithm specified
+     * @throws SpdxCollectionException if the input algorithm is invalid or unavailable or if the file cannot be read
+     */
+    static Set<Checksum> generateChecksum( Path file, long size, Set<String> algorithms, long mappedThreshold ) throws SpdxCollectionException
+    {
+        String[] algorithmNames = algorithms.toArray( new String[0] );
+        MessageDigest[] digests = new MessageDigest[algorithmNames.length];
+        for ( int i = 0; i < algorithmNames.length; i++ )
+        {
+            String checksumAlgorithm = CHECKSUM_ALGORITHMS.get( algorithmNames[i] );
+            if ( checksumAlgorithm == null )
+            {
+                throw new SpdxCollectionException( "Unsupported checksum algorithm: " + algorithmNames[i] );
+            }
+            try
+            {
+                digests[i] = MessageDigest.getInstance( checksumAlgorithm );
+            }
+            catch ( NoSuchAlgorithmException e )
+            {
+                throw new SpdxCollectionException( e );
+            }
+        }
 
-        byte[] buffer;
         try
         {
-            buffer = Files.readAllBytes( file.toPath() );
+            if ( mappedThreshold > 0 && size >= mappedThreshold )
+            {
+                updateDigestsMapped( file, digests );
+            }
+            else
+            {
+                updateDigestsStreamed( file, digests );
+            }
         }
         catch ( IOException e )
         {
             throw new SpdxCollectionException( "IO error while calculating checksums.", e );
         }
 
-        for ( String algorithm : algorithms )
+        Set<Checksum> checksums = new HashSet<>();
+        for ( int i = 0; i < algorithmNames.length; i++ )
         {
-            String checksumAlgorithm = CHECKSUM_ALGORITHMS.get( algorithm );
+            checksums.add( new Checksum( algorithmNames[i], convertChecksumToString( digests[i].digest() ) ) );
+        }
+        return checksums;
+    }
 
-            MessageDigest digest;
-            try
+    /**
+     * Update the digests with the file content read through the reusable checksum buffer
+     *
+     * @param file    file to read
+     * @param digests digests to update
+     * @throws IOException on errors reading the file
+     */
+    private static void updateDigestsStreamed( Path file, MessageDigest[] digests ) throws IOException
+    {
+        byte[] buffer = CHECKSUM_BUFFER.get();
+        try ( InputStream is = Files.newInputStream( file ) )
+        {
+            int bytesRead;
+            while ( ( bytesRead = is.read( buffer ) ) != -1 )
             {
-                digest = MessageDigest.getInstance( checksumAlgorithm );
+                for ( MessageDigest digest : digests )
+                {
+                    digest.update( buffer, 0, bytesRead );
+                }
             }
-            catch ( NoSuchAlgorithmException e )
+        }
+    }
+
+    /**
+     * Update the digests with the file content memory mapped one window at a time
+     *
+     * @param file    file to read
+     * @param digests digests to update
+     * @throws IOException on errors mapping the file
+     */
+    private static void updateDigestsMapped( Path file, MessageDigest[] digests ) throws IOException
+    {
+        try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            long size = channel.size();
+            long position = 0;
+            while ( position < size )
             {
-                throw new SpdxCollectionException( e );
+                long windowSize = Math.min( MAPPED_CHECKSUM_WINDOW_SIZE, size - position );
+                MappedByteBuffer window = channel.map( FileChannel.MapMode.READ_ONLY, position, windowSize );
+                for ( MessageDigest digest : digests )
+                {
+                    digest.update( window.duplicate() );
+                }
+                position += windowSize;
             }
+        }
+    }
 
-            digest.update( buffer );
-            String checksum = convertChecksumToString( digest.digest() );
-            checksums.add( new Checksum( algorithm, checksum ) );
+    /**
+     * Scan all files in the file sets and pass the results to the handler.
+     * <p>
+     * The file set directories are walked incrementally so scanning starts with the first included file.  If more
+     * than one thread is configured, files are checksummed and scanned concurrently while the handler is still
+     * called on the calling thread in the same order the files are found in the file sets.
+     *
+     * @param fileSets                FileSets containing the description of the directory to be scanned
+     * @param baseDir                 project base directory used to construct the relative paths for the SPDX files
+     * @param defaultFileInformation  Information on default SPDX field data for the files
+     * @param pathSpecificInformation Map of path to file information used to override the default file information
+     * @param algorithms              algorithms to use to generate checksums
+     * @param handler                 handler for each of the scanned files
+     * @throws SpdxCollectionException on errors scanning the files or thrown by the handler
+     */
+    protected void collectFileSets( List<FileSet> fileSets, String baseDir,
+                                    SpdxDefaultFileInformation defaultFileInformation,
+                                    Map<String, SpdxDefaultFileInformation> pathSpecificInformation,
+                                    Set<String> algorithms, ScannedFileHandler handler ) throws SpdxCollectionException
+    {
+        ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool( threads, new DaemonThreadFactory( "spdx-file-collector-" ) ) : null;
+        Deque<Future<ScannedFile>> inFlight = new ArrayDeque<>();
+        PathSpecificInfoResolver pathSpecificInfoResolver = new PathSpecificInfoResolver( pathSpecificInformation );
+        Path basePath = Path.of( baseDir );
+        try
+        {
+            for ( FileSet fileSet : fileSets )
+            {
+                new FileSetWalker( fileSet ).walk( ( path, attributes, includedFile ) -> {
+                    String relativeFilePath = toRelativeFilePath( path, basePath );
+                    SpdxDefaultFileInformation fileInfo = pathSpecificInfoResolver.resolve( relativeFilePath );
+                    if ( fileInfo == null )
+                    {
+                        fileInfo = defaultFileInformation;
+                    }
+                    String outputFileName = Objects.nonNull( fileSet.getOutputDirectory() ) ?
+                            fileSet.getOutputDirectory() + File.separator + includedFile : relativeFilePath;
+                    ScannedFile scannedFile = new ScannedFile( path, attributes, relativeFilePath, outputFileName, fileInfo );
+                    if ( executor == null )
+                    {
+                        handler.handle( scanFile( scannedFile, algorithms ) );
+                    }
+                    else
+                    {
+                        inFlight.add( executor.submit( () -> scanFile( scannedFile, algorithms ) ) );
+                        if ( inFlight.size() >= threads * FILES_IN_FLIGHT_PER_THREAD )
+                        {
+                            handler.handle( waitForScan( inFlight.remove() ) );
+                        }
+                    }
+                } );
+            }
+            while ( !inFlight.isEmpty() )
+            {
+                handler.handle( waitForScan( inFlight.remove() ) );
+            }
+            if ( fileScanCache != null )
+            {
+                fileScanCache.save();
+            }
         }
+        finally
+        {
+            if ( executor != null )
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
 
-        return checksums;
+    /**
+     * @param scan future for a file being scanned
+     * @return the scanned file once the scan is complete
+     * @throws SpdxCollectionException if the scan failed or the thread was interrupted
+     */
+    private ScannedFile waitForScan( Future<ScannedFile> scan ) throws SpdxCollectionException
+    {
+        try
+        {
+            return scan.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new SpdxCollectionException( "Interrupted while collecting file information", e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof SpdxCollectionException )
+            {
+                throw (SpdxCollectionException) e.getCause();
+            }
+            throw new SpdxCollectionException( "Error collecting file information", e.getCause() );
+        }
+    }
+
+    /**
+     * Read the file content computing the checksums and, for source files, the SPDX license identifiers.  Results
+     * for unchanged files are taken from the file scan cache if one is configured.  This does not access the SPDX
+     * model store and is safe to call from any thread.
+     *
+     * @param scannedFile file to scan
+     * @param algorithms  algorithms to use to generate checksums
+     * @return the scannedFile with the checksums and license identifiers filled in
+     * @throws SpdxCollectionException if the checksums can not be generated
+     */
+    protected ScannedFile scanFile( ScannedFile scannedFile, Set<String> algorithms ) throws SpdxCollectionException
+    {
+        Path file = scannedFile.getPath();
+        boolean parseLicenses = extensionToFileType( getExtension( file ) ) == FileType.SOURCE;
+        if ( fileScanCache != null &&
+                fileScanCache.fill( scannedFile.getRelativePath(), scannedFile, algorithms, parseLicenses ) )
+        {
+            return scannedFile;
+        }
+        try
+        {
+            scannedFile.setChecksums( generateChecksum( file, scannedFile.getSize(), algorithms, mappedChecksumThreshold ) );
+        }
+        catch ( SpdxCollectionException e )
+        {
+            throw new SpdxCollectionException( "Unable to generate checksum for file "+file.getFileName() );
+        }
+        if ( parseLicenses )
+        {
+            try
+            {
+                scannedFile.setSpdxLicenses( SpdxSourceFileParser.parseFileForSpdxLicenses( file, licenseScanHeaderLines ) );
+            }
+            catch ( SpdxSourceParserException ex )
+            {
+                LOG.error( "Error parsing for SPDX license ID's", ex );
+            }
+        }
+        if ( fileScanCache != null )
+        {
+            fileScanCache.update( scannedFile.getRelativePath(), scannedFile );
+        }
+        return scannedFile;
     }
 
     /**
@@ -242,7 +642,15 @@ public abstract class AbstractFileCollector
      * @return a file path for the file relative to the baseDir
      */
     protected static String toRelativeFilePath( File file, String baseDir ) {
-        return Path.of( baseDir ).relativize( file.toPath() ).toString().replace( '\\', '/' );
+        return toRelativeFilePath( file.toPath(), Path.of( baseDir ) );
     }
 
+    /**
+     * @param file path of the file which is the target for the path string
+     * @param baseDir base directory of the SPDX archive or project containing the file
+     * @return a file path for the file relative to the baseDir
+     */
+    static String toRelativeFilePath( Path file, Path baseDir ) {
+        return baseDir.relativize( file ).toString().replace( '\\', '/' );
+    }
 }
@@ -0,0 +1,34 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates numbered daemon threads for the executors of the plugin so a failed build can not hang on an executor
+ */
+public class DaemonThreadFactory implements ThreadFactory
+{
+    private final String namePrefix;
+
+    private final AtomicInteger threadNumber = new AtomicInteger( 1 );
+
+    /**
+     * @param namePrefix prefix of the thread names, followed by the number of the thread
+     */
+    public DaemonThreadFactory( String namePrefix )
+    {
+        this.namePrefix = namePrefix;
+    }
+
+    @Override
+    public Thread newThread( Runnable runnable )
+    {
+        Thread thread = new Thread( runnable, namePrefix + threadNumber.getAndIncrement() );
+        thread.setDaemon( true );
+        return thread;
+    }
+}
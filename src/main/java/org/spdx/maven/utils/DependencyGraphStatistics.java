@@ -0,0 +1,128 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+/**
+ * Statistics on the Maven dependency graph traversed to create the SPDX dependency elements
+ */
+public class DependencyGraphStatistics
+{
+    private int nodes = 0;
+    private int dependencies = 0;
+    private int sharedNodes = 0;
+    private int relationships = 0;
+    private int maxDepth = 0;
+    private int depthLimitedNodes = 0;
+    private int licenseCacheHits = 0;
+    private int licenseCacheMisses = 0;
+
+    void nodeVisited( int depth )
+    {
+        nodes++;
+        maxDepth = Math.max( maxDepth, depth );
+    }
+
+    void dependencyAdded()
+    {
+        dependencies++;
+    }
+
+    void sharedNodeVisited()
+    {
+        sharedNodes++;
+    }
+
+    void relationshipAdded()
+    {
+        relationships++;
+    }
+
+    void depthLimitReached()
+    {
+        depthLimitedNodes++;
+    }
+
+    void licenseCacheHit()
+    {
+        licenseCacheHits++;
+    }
+
+    void licenseCacheMiss()
+    {
+        licenseCacheMisses++;
+    }
+
+    /**
+     * @return number of dependency graph nodes visited including repeated occurrences of the same dependency
+     */
+    public int getNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * @return number of distinct dependencies an SPDX element was created for
+     */
+    public int getDependencies()
+    {
+        return dependencies;
+    }
+
+    /**
+     * @return number of nodes for a dependency which already had an SPDX element
+     */
+    public int getSharedNodes()
+    {
+        return sharedNodes;
+    }
+
+    /**
+     * @return number of dependency relationships created
+     */
+    public int getRelationships()
+    {
+        return relationships;
+    }
+
+    /**
+     * @return depth of the deepest node visited where the direct dependencies have a depth of 1
+     */
+    public int getMaxDepth()
+    {
+        return maxDepth;
+    }
+
+    /**
+     * @return number of nodes whose dependencies were not included due to the maximum dependency depth
+     */
+    public int getDepthLimitedNodes()
+    {
+        return depthLimitedNodes;
+    }
+
+    /**
+     * @return number of dependency Maven license lists which reused a previously converted SPDX license
+     */
+    public int getLicenseCacheHits()
+    {
+        return licenseCacheHits;
+    }
+
+    /**
+     * @return number of distinct dependency Maven license lists converted to an SPDX license
+     */
+    public int getLicenseCacheMisses()
+    {
+        return licenseCacheMisses;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "%d nodes, %d dependencies, %d shared nodes, %d relationships, max depth %d, %d nodes at the depth limit, license cache %d hits %d misses",
+                              nodes, dependencies, sharedNodes, relationships, maxDepth, depthLimitedNodes,
+                              licenseCacheHits, licenseCacheMisses );
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.apache.maven.model.Contributor;
+import org.apache.maven.model.License;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Organization;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * The subset of the Maven project information for a dependency used to create the SPDX package for the dependency.
+ * <p>
+ * Unlike a built {@link MavenProject}, this holds no references to the resolved model, parents or repositories, so
+ * it can be cached and shared between modules for the whole build.  A failed project build is recorded as metadata
+ * with a failure message so that it is not retried for every module.
+ */
+public class DependencyMetadata
+{
+    /**
+     * License information from the POM file
+     */
+    public static class LicenseMetadata
+    {
+        private String name;
+        private String url;
+        private String distribution;
+        private String comments;
+
+        LicenseMetadata()
+        {
+            // for deserialization
+        }
+
+        LicenseMetadata( License license )
+        {
+            this.name = license.getName();
+            this.url = license.getUrl();
+            this.distribution = license.getDistribution();
+            this.comments = license.getComments();
+        }
+
+        License toLicense()
+        {
+            License license = new License();
+            license.setName( name );
+            license.setUrl( url );
+            license.setDistribution( distribution );
+            license.setComments( comments );
+            return license;
+        }
+    }
+
+    private String groupId;
+    private String artifactId;
+    private String version;
+    private String name;
+    private String description;
+    private String url;
+    private String organizationName;
+    private List<LicenseMetadata> licenses = new ArrayList<>();
+    private List<String> contributors = new ArrayList<>();
+    private String failureMessage;
+
+    DependencyMetadata()
+    {
+        // for deserialization
+    }
+
+    /**
+     * @param project built Maven project for the dependency
+     * @return metadata extracted from the project
+     */
+    public static DependencyMetadata fromProject( MavenProject project )
+    {
+        DependencyMetadata retval = new DependencyMetadata();
+        retval.groupId = project.getGroupId();
+        retval.artifactId = project.getArtifactId();
+        retval.version = project.getVersion();
+        retval.name = project.getName();
+        retval.description = project.getDescription();
+        retval.url = project.getUrl();
+        if ( project.getOrganization() != null )
+        {
+            retval.organizationName = project.getOrganization().getName();
+        }
+        if ( project.getLicenses() != null )
+        {
+            for ( License license : project.getLicenses() )
+            {
+                retval.licenses.add( new LicenseMetadata( license ) );
+            }
+        }
+        if ( project.getContributors() != null )
+        {
+            for ( Contributor contributor : project.getContributors() )
+            {
+                retval.contributors.add( contributor.getName() );
+            }
+        }
+        return retval;
+    }
+
+    /**
+     * @param failureMessage message describing why the project could not be built
+     * @return metadata recording the failure
+     */
+    public static DependencyMetadata failure( String failureMessage )
+    {
+        DependencyMetadata retval = new DependencyMetadata();
+        retval.failureMessage = failureMessage;
+        return retval;
+    }
+
+    /**
+     * @return true if the Maven project could not be built for the dependency
+     */
+    public boolean isFailure()
+    {
+        return failureMessage != null;
+    }
+
+    /**
+     * @return message describing why the project could not be built or null if the project was built
+     */
+    public @Nullable String getFailureMessage()
+    {
+        return failureMessage;
+    }
+
+    /**
+     * @return a Maven project containing only the metadata
+     */
+    public MavenProject toMavenProject()
+    {
+        Model model = new Model();
+        model.setGroupId( groupId );
+        model.setArtifactId( artifactId );
+        model.setVersion( version );
+        model.setName( name );
+        model.setDescription( description );
+        model.setUrl( url );
+        if ( organizationName != null )
+        {
+            Organization organization = new Organization();
+            organization.setName( organizationName );
+            model.setOrganization( organization );
+        }
+        for ( LicenseMetadata license : licenses )
+        {
+            model.addLicense( license.toLicense() );
+        }
+        for ( String contributorName : contributors )
+        {
+            Contributor contributor = new Contributor();
+            contributor.setName( contributorName );
+            model.addContributor( contributor );
+        }
+        return new MavenProject( model );
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.ProjectBuildingException;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Cache of dependency metadata shared by all modules built in the same Maven session.
+ * <p>
+ * The cache is stored in the repository session data, which is shared by all modules including modules built in
+ * parallel, so the Maven project for a given dependency is built at most once per session.  Concurrent requests for
+ * the same dependency wait for the first request to complete rather than building the project again.
+ * <p>
+ * The metadata is keyed by the group:artifact:version of the dependency and the remote repositories the project is
+ * built with, so modules with different repositories do not share the metadata or failures of a dependency.
+ */
+public class DependencyMetadataCache
+{
+    /**
+     * Builds the metadata for a dependency
+     */
+    public interface MetadataLoader
+    {
+        DependencyMetadata load() throws ProjectBuildingException;
+    }
+
+    private static final String SESSION_DATA_KEY = DependencyMetadataCache.class.getName();
+
+    /**
+     * Caches for sessions without repository session data - only expected in tests
+     */
+    private static final Map<MavenSession, DependencyMetadataCache> SESSIONS_WITHOUT_DATA = new WeakHashMap<>();
+
+    private final ConcurrentMap<String, CompletableFuture<DependencyMetadata>> metadata = new ConcurrentHashMap<>();
+
+    /**
+     * @param session Maven session
+     * @return the cache shared by all modules in the session
+     */
+    public static DependencyMetadataCache forSession( MavenSession session )
+    {
+        RepositorySystemSession repositorySession = session.getRepositorySession();
+        SessionData data = repositorySession == null ? null : repositorySession.getData();
+        if ( data == null )
+        {
+            synchronized ( SESSIONS_WITHOUT_DATA )
+            {
+                return SESSIONS_WITHOUT_DATA.computeIfAbsent( session, key -> new DependencyMetadataCache() );
+            }
+        }
+        while ( true )
+        {
+            Object existing = data.get( SESSION_DATA_KEY );
+            if ( existing instanceof DependencyMetadataCache )
+            {
+                return (DependencyMetadataCache) existing;
+            }
+            DependencyMetadataCache cache = new DependencyMetadataCache();
+            if ( data.set( SESSION_DATA_KEY, existing, cache ) )
+            {
+                return cache;
+            }
+        }
+    }
+
+    /**
+     * Get the metadata for a dependency, loading it if it is not already cached.  A failure to build the project is
+     * cached as failed metadata unless the build was interrupted.
+     *
+     * @param key    group:artifact:version of the dependency and the remote repositories used to build it
+     * @param loader loader for the metadata if it is not cached
+     * @return the metadata for the dependency
+     */
+    public DependencyMetadata get( String key, MetadataLoader loader )
+    {
+        while ( true )
+        {
+            CompletableFuture<DependencyMetadata> loading = new CompletableFuture<>();
+            CompletableFuture<DependencyMetadata> existing = metadata.putIfAbsent( key, loading );
+            if ( existing != null )
+            {
+                try
+                {
+                    return existing.join();
+                }
+                catch ( CancellationException e )
+                {
+                    // the load was interrupted - load again
+                    continue;
+                }
+            }
+            try
+            {
+                loading.complete( loader.load() );
+            }
+            catch ( ProjectBuildingException e )
+            {
+                if ( isInterruption( e ) )
+                {
+                    // not a property of the dependency - allow a later request to try again
+                    metadata.remove( key, loading );
+                    loading.cancel( false );
+                    return DependencyMetadata.failure( e.getMessage() );
+                }
+                loading.complete( DependencyMetadata.failure( e.getMessage() ) );
+            }
+            catch ( RuntimeException | Error e )
+            {
+                // not a property of the dependency - allow a later request to try again
+                metadata.remove( key, loading );
+                loading.completeExceptionally( e );
+                throw e;
+            }
+            return loading.join();
+        }
+    }
+
+    /**
+     * @param e error building a dependency project
+     * @return true if the error was caused by interrupting the thread building the project
+     */
+    private static boolean isInterruption( Throwable e )
+    {
+        if ( Thread.currentThread().isInterrupted() )
+        {
+            return true;
+        }
+        for ( Throwable cause = e; cause != null; cause = cause.getCause() )
+        {
+            if ( cause instanceof InterruptedException || cause instanceof InterruptedIOException ||
+                    cause instanceof ClosedByInterruptException )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of dependencies in the cache
+     */
+    public int size()
+    {
+        return metadata.size();
+    }
+}
@@ -0,0 +1,299 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.model.v2.enumerations.ChecksumAlgorithm;
+import org.spdx.maven.Checksum;
+
+/**
+ * Bounded cache of the package data extracted from the SPDX files published with dependencies.
+ * <p>
+ * The same dependency SPDX file is typically used by many modules in a build and again when the aggregate
+ * document is created.  Each file is parsed once per Maven session and the extracted data is reused for as long as
+ * the size and last modified time of the file are unchanged.  The parser is expected to return only the data used
+ * from the file, e.g. the described packages, rather than the complete parsed document.  The SHA1 of the file
+ * needed for external document references is calculated from the same read of the file used for parsing.  The least
+ * recently used documents are discarded once the maximum number of documents is reached.
+ * <p>
+ * The cache is stored in the repository session data, so it is shared by all modules in the session and discarded
+ * with the session.  Concurrent requests for the same file wait for the first request to parse the file.
+ * <p>
+ * This class is thread safe.
+ *
+ * @param <T> type of the parsed document - differs between the SPDX spec versions
+ */
+class ExternalSpdxDocumentCache<T>
+{
+    /**
+     * Default maximum number of documents kept in the cache
+     */
+    static final int DEFAULT_MAX_DOCUMENTS = 64;
+
+    private static final String SESSION_DATA_KEY = ExternalSpdxDocumentCache.class.getName();
+
+    /**
+     * Caches for sessions without repository session data - only expected in tests
+     */
+    private static final Map<MavenSession, Map<String, ExternalSpdxDocumentCache<?>>> SESSIONS_WITHOUT_DATA = new WeakHashMap<>();
+
+    /**
+     * Parses an SPDX file
+     */
+    interface DocumentParser<T>
+    {
+        /**
+         * @param file    SPDX file - used to determine the format of the file
+         * @param content content of the file - closed by the caller
+         * @return the data extracted from the file
+         */
+        T parse( File file, InputStream content ) throws IOException, InvalidSPDXAnalysisException;
+    }
+
+    /**
+     * A parsed SPDX file
+     */
+    static class ExternalDocument<T>
+    {
+        private final File file;
+        private final long size;
+        private final long lastModified;
+        private final T document;
+        private final Checksum sha1;
+
+        private ExternalDocument( File file, long size, long lastModified, T document, Checksum sha1 )
+        {
+            this.file = file;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.document = document;
+            this.sha1 = sha1;
+        }
+
+        private boolean isUnchanged( long size, long lastModified )
+        {
+            return this.size == size && this.lastModified == lastModified;
+        }
+
+        /**
+         * @return the SPDX file
+         */
+        File getFile()
+        {
+            return file;
+        }
+
+        /**
+         * @return the data extracted from the SPDX file
+         */
+        T getDocument()
+        {
+            return document;
+        }
+
+        /**
+         * @return SHA1 checksum of the SPDX file
+         */
+        Checksum getSha1()
+        {
+            return sha1;
+        }
+    }
+
+    private final Map<String, CompletableFuture<ExternalDocument<T>>> documents;
+
+    /**
+     * @param maxDocuments maximum number of documents kept in the cache
+     */
+    ExternalSpdxDocumentCache( int maxDocuments )
+    {
+        this.documents = new LinkedHashMap<String, CompletableFuture<ExternalDocument<T>>>( 16, 0.75f, true )
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, CompletableFuture<ExternalDocument<T>>> eldest )
+            {
+                return size() > maxDocuments;
+            }
+        };
+    }
+
+    /**
+     * @param session Maven session
+     * @param name    name of the cache - different names are used for the different types of documents
+     * @return the cache with the name shared by all modules in the session
+     */
+    @SuppressWarnings( "unchecked" )
+    static <T> ExternalSpdxDocumentCache<T> forSession( MavenSession session, String name )
+    {
+        RepositorySystemSession repositorySession = session.getRepositorySession();
+        SessionData data = repositorySession == null ? null : repositorySession.getData();
+        if ( data == null )
+        {
+            synchronized ( SESSIONS_WITHOUT_DATA )
+            {
+                return (ExternalSpdxDocumentCache<T>) SESSIONS_WITHOUT_DATA.computeIfAbsent( session, key -> new HashMap<>() )
+                        .computeIfAbsent( name, key -> new ExternalSpdxDocumentCache<>( DEFAULT_MAX_DOCUMENTS ) );
+            }
+        }
+        String key = SESSION_DATA_KEY + "." + name;
+        while ( true )
+        {
+            Object existing = data.get( key );
+            if ( existing instanceof ExternalSpdxDocumentCache )
+            {
+                return (ExternalSpdxDocumentCache<T>) existing;
+            }
+            ExternalSpdxDocumentCache<T> cache = new ExternalSpdxDocumentCache<>( DEFAULT_MAX_DOCUMENTS );
+            if ( data.set( key, existing, cache ) )
+            {
+                return cache;
+            }
+        }
+    }
+
+    /**
+     * Get the parsed document for an SPDX file, parsing the file if it has not been parsed or has changed since it
+     * was parsed
+     *
+     * @param file   SPDX file
+     * @param parser parser for the file
+     * @return the parsed SPDX file
+     * @throws IOException on errors reading the file
+     * @throws InvalidSPDXAnalysisException on errors parsing the file
+     */
+    ExternalDocument<T> get( File file, DocumentParser<T> parser ) throws IOException, InvalidSPDXAnalysisException
+    {
+        String path = file.getAbsolutePath();
+        long size = file.length();
+        long lastModified = file.lastModified();
+        CompletableFuture<ExternalDocument<T>> loading = new CompletableFuture<>();
+        CompletableFuture<ExternalDocument<T>> existing;
+        synchronized ( documents )
+        {
+            existing = documents.get( path );
+            if ( existing == null || ( existing.isDone() && !existing.join().isUnchanged( size, lastModified ) ) )
+            {
+                documents.put( path, loading );
+                existing = null;
+            }
+        }
+        if ( existing != null )
+        {
+            return await( existing );
+        }
+        // parsed outside of the lock - concurrent requests for the same file wait for the result
+        try
+        {
+            ExternalDocument<T> parsed = parse( file, size, lastModified, parser );
+            loading.complete( parsed );
+            return parsed;
+        }
+        catch ( IOException | InvalidSPDXAnalysisException | RuntimeException | Error e )
+        {
+            synchronized ( documents )
+            {
+                documents.remove( path, loading );
+            }
+            loading.completeExceptionally( e );
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for another request to parse the file
+     */
+    private ExternalDocument<T> await( CompletableFuture<ExternalDocument<T>> loading ) throws IOException, InvalidSPDXAnalysisException
+    {
+        try
+        {
+            return loading.join();
+        }
+        catch ( CompletionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw new IOException( cause.getMessage(), cause );
+            }
+            if ( cause instanceof InvalidSPDXAnalysisException )
+            {
+                throw new InvalidSPDXAnalysisException( cause.getMessage(), cause );
+            }
+            if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Parse the file calculating the SHA1 of the file content as it is read by the parser
+     */
+    private ExternalDocument<T> parse( File file, long size, long lastModified, DocumentParser<T> parser ) throws IOException, InvalidSPDXAnalysisException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IOException( "SHA1 digest is not available", e );
+        }
+        try ( DigestInputStream content = new DigestInputStream( new BufferedInputStream( Files.newInputStream( file.toPath() ) ), digest ) )
+        {
+            T document = parser.parse( file, new FilterInputStream( content )
+            {
+                @Override
+                public void close()
+                {
+                    // the remaining content is read for the digest before the stream is closed
+                }
+            } );
+            // parsers may stop reading at the end of the document
+            byte[] buffer = new byte[8192];
+            //noinspection StatementWithEmptyBody
+            while ( content.read( buffer ) >= 0 )
+            {
+            }
+            Checksum sha1 = new Checksum( ChecksumAlgorithm.SHA1.toString(),
+                                          AbstractFileCollector.convertChecksumToString( digest.digest() ) );
+            return new ExternalDocument<>( file, size, lastModified, document, sha1 );
+        }
+    }
+
+    /**
+     * @return number of documents in the cache
+     */
+    int size()
+    {
+        synchronized ( documents )
+        {
+            return documents.size();
+        }
+    }
+}
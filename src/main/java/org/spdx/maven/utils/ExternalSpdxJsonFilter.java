@@ -0,0 +1,339 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Removes the files and snippets from the SPDX JSON files of dependencies before they are deserialized.
+ * <p>
+ * Only the described packages are used from the SPDX documents of dependencies, but the files and snippets
+ * typically make up most of a dependency SBOM.  The SPDX file content is streamed once, dropping the files and
+ * snippets, collecting their IDs and dropping references to the files and snippets already read.  If references
+ * were written before the element they refer to was read, they are removed by a second streaming pass over the
+ * filtered content.  At most one element is held in memory at a time while streaming, so apart from the IDs of the
+ * removed elements, the memory used depends on the size of the filtered content rather than on the number of files
+ * in the document.
+ */
+class ExternalSpdxJsonFilter
+{
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String V2_ID = "SPDXID";
+    private static final String V2_FILES = "files";
+    private static final String V2_SNIPPETS = "snippets";
+    private static final String V2_PACKAGES = "packages";
+    private static final String V2_HAS_FILES = "hasFiles";
+    private static final String V2_RELATIONSHIPS = "relationships";
+    private static final String V2_DOCUMENT_DESCRIBES = "documentDescribes";
+    private static final String V2_RELATIONSHIP_FROM = "spdxElementId";
+    private static final String V2_RELATIONSHIP_TO = "relatedSpdxElement";
+
+    private static final String V3_GRAPH = "@graph";
+    private static final String V3_ID = "spdxId";
+    private static final String V3_TYPE = "type";
+    private static final Set<String> V3_REMOVED_TYPES = Set.of( "software_File", "software_Snippet" );
+    private static final String V3_FROM = "from";
+    private static final String V3_SUBJECT = "subject";
+    private static final String[] V3_ELEMENT_LISTS = new String[] { "to", "element", "rootElement" };
+
+    private ExternalSpdxJsonFilter()
+    {
+        // static methods only
+    }
+
+    /**
+     * @param content content of an SPDX spec version 2 JSON file - not closed
+     * @return the JSON content without files and snippets
+     * @throws IOException on errors reading the content or invalid JSON
+     */
+    static byte[] filterSpdxV2Json( InputStream content ) throws IOException
+    {
+        Set<String> removedIds = new HashSet<>();
+        FilteredContent out = new FilteredContent();
+        if ( !filterSpdxV2Json( content, out, removedIds ) )
+        {
+            return out.toByteArray();
+        }
+        // references to files which follow them are removed by a second streaming pass over the filtered content
+        FilteredContent second = new FilteredContent();
+        filterSpdxV2Json( out.toInputStream(), second, removedIds );
+        return second.toByteArray();
+    }
+
+    /**
+     * Streams the content to the output without the files and snippets, removing references to the removed
+     * elements which are already known
+     * @param removedIds IDs of the removed elements - the IDs of the files and snippets read are added
+     * @return true if references to removed elements may have been written before the element was read
+     */
+    private static boolean filterSpdxV2Json( InputStream content, OutputStream out, Set<String> removedIds ) throws IOException
+    {
+        boolean referencesWritten = false;
+        boolean incomplete = false;
+        try ( JsonParser parser = createParser( content );
+              JsonGenerator generator = MAPPER.getFactory().createGenerator( out ) )
+        {
+            expect( parser.nextToken(), JsonToken.START_OBJECT );
+            generator.writeStartObject();
+            while ( parser.nextToken() == JsonToken.FIELD_NAME )
+            {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ( V2_FILES.equals( field ) || V2_SNIPPETS.equals( field ) )
+                {
+                    if ( value == JsonToken.START_ARRAY )
+                    {
+                        while ( parser.nextToken() == JsonToken.START_OBJECT )
+                        {
+                            if ( collectId( parser, removedIds ) && referencesWritten )
+                            {
+                                incomplete = true;
+                            }
+                        }
+                    }
+                    else
+                    {
+                        parser.skipChildren();
+                    }
+                }
+                else if ( V2_PACKAGES.equals( field ) && value == JsonToken.START_ARRAY )
+                {
+                    generator.writeFieldName( field );
+                    generator.writeStartArray();
+                    while ( parser.nextToken() != JsonToken.END_ARRAY )
+                    {
+                        JsonNode element = parser.readValueAsTree();
+                        if ( element.isObject() )
+                        {
+                            ( (ObjectNode) element ).remove( V2_HAS_FILES );
+                        }
+                        MAPPER.writeTree( generator, element );
+                    }
+                    generator.writeEndArray();
+                }
+                else if ( V2_RELATIONSHIPS.equals( field ) && value == JsonToken.START_ARRAY )
+                {
+                    referencesWritten = true;
+                    generator.writeFieldName( field );
+                    generator.writeStartArray();
+                    while ( parser.nextToken() != JsonToken.END_ARRAY )
+                    {
+                        JsonNode relationship = parser.readValueAsTree();
+                        if ( !removedIds.contains( relationship.path( V2_RELATIONSHIP_FROM ).asText() ) &&
+                                !removedIds.contains( relationship.path( V2_RELATIONSHIP_TO ).asText() ) )
+                        {
+                            MAPPER.writeTree( generator, relationship );
+                        }
+                    }
+                    generator.writeEndArray();
+                }
+                else if ( V2_DOCUMENT_DESCRIBES.equals( field ) && value == JsonToken.START_ARRAY )
+                {
+                    referencesWritten = true;
+                    generator.writeFieldName( field );
+                    generator.writeStartArray();
+                    while ( parser.nextToken() != JsonToken.END_ARRAY )
+                    {
+                        if ( parser.currentToken() != JsonToken.VALUE_STRING || !removedIds.contains( parser.getText() ) )
+                        {
+                            generator.copyCurrentStructure( parser );
+                        }
+                    }
+                    generator.writeEndArray();
+                }
+                else
+                {
+                    generator.writeFieldName( field );
+                    generator.copyCurrentStructure( parser );
+                }
+            }
+            generator.writeEndObject();
+        }
+        return incomplete;
+    }
+
+    /**
+     * @param content content of an SPDX spec version 3 JSON-LD file - not closed
+     * @return the JSON-LD content without files and snippets
+     * @throws IOException on errors reading the content or invalid JSON
+     */
+    static byte[] filterSpdxV3JsonLd( InputStream content ) throws IOException
+    {
+        Set<String> removedIds = new HashSet<>();
+        FilteredContent out = new FilteredContent();
+        if ( !filterSpdxV3JsonLd( content, out, removedIds ) )
+        {
+            return out.toByteArray();
+        }
+        // references to files which follow them are removed by a second streaming pass over the filtered content
+        FilteredContent second = new FilteredContent();
+        filterSpdxV3JsonLd( out.toInputStream(), second, removedIds );
+        return second.toByteArray();
+    }
+
+    /**
+     * Streams the content to the output without the files and snippets, removing references to the removed
+     * elements which are already known
+     * @param removedIds IDs of the removed elements - the IDs of the files and snippets read are added
+     * @return true if references to removed elements may have been written before the element was read
+     */
+    private static boolean filterSpdxV3JsonLd( InputStream content, OutputStream out, Set<String> removedIds ) throws IOException
+    {
+        boolean elementsWritten = false;
+        boolean incomplete = false;
+        try ( JsonParser parser = createParser( content );
+              JsonGenerator generator = MAPPER.getFactory().createGenerator( out ) )
+        {
+            expect( parser.nextToken(), JsonToken.START_OBJECT );
+            generator.writeStartObject();
+            while ( parser.nextToken() == JsonToken.FIELD_NAME )
+            {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                generator.writeFieldName( field );
+                if ( V3_GRAPH.equals( field ) && value == JsonToken.START_ARRAY )
+                {
+                    generator.writeStartArray();
+                    while ( parser.nextToken() != JsonToken.END_ARRAY )
+                    {
+                        JsonNode element = parser.readValueAsTree();
+                        if ( V3_REMOVED_TYPES.contains( element.path( V3_TYPE ).asText() ) )
+                        {
+                            removedIds.add( element.path( V3_ID ).asText() );
+                            incomplete |= elementsWritten;
+                        }
+                        else if ( keepV3Element( element, removedIds ) )
+                        {
+                            MAPPER.writeTree( generator, element );
+                            elementsWritten = true;
+                        }
+                    }
+                    generator.writeEndArray();
+                }
+                else
+                {
+                    generator.copyCurrentStructure( parser );
+                }
+            }
+            generator.writeEndObject();
+        }
+        return incomplete;
+    }
+
+    /**
+     * Removes references to removed elements from the element
+     * @return true if the element should be kept
+     */
+    private static boolean keepV3Element( JsonNode element, Set<String> removedIds )
+    {
+        if ( !element.isObject() )
+        {
+            return true;
+        }
+        if ( removedIds.contains( element.path( V3_FROM ).asText() ) ||
+                removedIds.contains( element.path( V3_SUBJECT ).asText() ) )
+        {
+            return false;
+        }
+        for ( String listProperty : V3_ELEMENT_LISTS )
+        {
+            JsonNode list = element.get( listProperty );
+            if ( removeIds( list, removedIds ) && list.size() == 0 && "to".equals( listProperty ) )
+            {
+                return false;   // relationship only to removed elements
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param list       list of element IDs
+     * @param removedIds IDs of the removed elements
+     * @return true if any IDs were removed from the list
+     */
+    private static boolean removeIds( JsonNode list, Set<String> removedIds )
+    {
+        boolean removed = false;
+        if ( list instanceof ArrayNode )
+        {
+            Iterator<JsonNode> iter = list.iterator();
+            while ( iter.hasNext() )
+            {
+                if ( removedIds.contains( iter.next().asText() ) )
+                {
+                    iter.remove();
+                    removed = true;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Reads the SPDX ID from the object the parser is positioned at the start of without materializing the object
+     * @param ids set the ID is added to
+     * @return true if an ID was added
+     */
+    private static boolean collectId( JsonParser parser, Set<String> ids ) throws IOException
+    {
+        boolean added = false;
+        while ( parser.nextToken() == JsonToken.FIELD_NAME )
+        {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ( V2_ID.equals( field ) && value == JsonToken.VALUE_STRING )
+            {
+                added |= ids.add( parser.getText() );
+            }
+            else
+            {
+                parser.skipChildren();
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Buffer for the filtered content which can be read again without copying it
+     */
+    private static class FilteredContent extends ByteArrayOutputStream
+    {
+        private InputStream toInputStream()
+        {
+            return new ByteArrayInputStream( buf, 0, count );
+        }
+    }
+
+    private static JsonParser createParser( InputStream content ) throws IOException
+    {
+        JsonParser parser = MAPPER.getFactory().createParser( content );
+        parser.disable( JsonParser.Feature.AUTO_CLOSE_SOURCE );
+        return parser;
+    }
+
+    private static void expect( JsonToken actual, JsonToken expected ) throws IOException
+    {
+        if ( actual != expected )
+        {
+            throw new IOException( String.format( "Invalid SPDX JSON file - expected %s but found %s", expected, actual ) );
+        }
+    }
+}
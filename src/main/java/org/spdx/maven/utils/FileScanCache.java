@@ -0,0 +1,287 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spdx.maven.Checksum;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+/**
+ * Persistent cache of file scan results used to avoid reading unchanged files on subsequent builds.
+ * <p>
+ * Entries are keyed by the file path relative to the project base directory and are only used if the file size
+ * and last modified time are unchanged.  Optionally, a fingerprint of the complete file content is also compared.
+ * <p>
+ * This class is thread safe.
+ */
+public class FileScanCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger( FileScanCache.class );
+
+    /**
+     * Incremented whenever the format of the cache file or the meaning of the cached values change
+     */
+    static final int CACHE_FORMAT_VERSION = 2;
+
+    /**
+     * Size of the buffer used to read the file content for the fingerprint
+     */
+    private static final int FINGERPRINT_BUFFER_SIZE = 65536;
+
+    private final File cacheFile;
+    private final boolean verifyFingerprint;
+    private final String licenseScanSettings;
+    private final Map<String, CacheEntry> entries;
+    private final Set<String> usedPaths = ConcurrentHashMap.newKeySet();
+    private volatile boolean modified = false;
+
+    /**
+     * Cache file content as persisted in JSON
+     */
+    private static class CacheContent
+    {
+        int version;
+        String licenseScanSettings;
+        Map<String, CacheEntry> entries;
+    }
+
+    /**
+     * Cached scan results for a single file
+     */
+    private static class CacheEntry
+    {
+        long size;
+        long lastModified;
+        String fingerprint;
+        Map<String, String> checksums;
+        List<String> spdxLicenses;
+    }
+
+    /**
+     * @param cacheFile           file used to persist the cache
+     * @param verifyFingerprint   if true, a fingerprint of the file content is compared in addition to the size and
+     *                            last modified time
+     * @param licenseScanSettings description of the settings used to scan files for license identifiers - cached
+     *                            license identifiers are discarded if the settings change
+     */
+    private FileScanCache( File cacheFile, boolean verifyFingerprint, String licenseScanSettings,
+                           Map<String, CacheEntry> entries )
+    {
+        this.cacheFile = cacheFile;
+        this.verifyFingerprint = verifyFingerprint;
+        this.licenseScanSettings = licenseScanSettings;
+        this.entries = entries;
+    }
+
+    /**
+     * Load a cache from a file.  If the file does not exist or can not be read, an empty cache is returned.
+     *
+     * @param cacheFile           file used to persist the cache
+     * @param verifyFingerprint   if true, a fingerprint of the file content is compared in addition to the size and
+     *                            last modified time
+     * @param licenseScanSettings description of the settings used to scan files for license identifiers
+     * @return the file scan cache
+     */
+    public static FileScanCache load( File cacheFile, boolean verifyFingerprint, String licenseScanSettings )
+    {
+        Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+        if ( cacheFile.isFile() )
+        {
+            try ( Reader reader = Files.newBufferedReader( cacheFile.toPath(), StandardCharsets.UTF_8 ) )
+            {
+                CacheContent content = new Gson().fromJson( reader, CacheContent.class );
+                if ( Objects.nonNull( content ) && content.version == CACHE_FORMAT_VERSION &&
+                        Objects.nonNull( content.entries ) )
+                {
+                    boolean keepLicenses = Objects.equals( licenseScanSettings, content.licenseScanSettings );
+                    for ( Map.Entry<String, CacheEntry> entry : content.entries.entrySet() )
+                    {
+                        if ( Objects.nonNull( entry.getValue() ) && Objects.nonNull( entry.getValue().checksums ) )
+                        {
+                            if ( !keepLicenses )
+                            {
+                                entry.getValue().spdxLicenses = null;
+                            }
+                            entries.put( entry.getKey(), entry.getValue() );
+                        }
+                    }
+                }
+                else
+                {
+                    LOG.debug( "Ignoring file scan cache {} with an incompatible format", cacheFile );
+                }
+            }
+            catch ( IOException | JsonParseException e )
+            {
+                LOG.warn( "Unable to read the file scan cache {} - all files will be scanned", cacheFile );
+            }
+        }
+        return new FileScanCache( cacheFile, verifyFingerprint, licenseScanSettings, entries );
+    }
+
+    /**
+     * Fill in the scan results from the cache if the file is unchanged since it was cached
+     *
+     * @param relativePath  path of the file relative to the project base directory
+     * @param scannedFile   file to fill in the checksums and license identifiers for
+     * @param algorithms    checksum algorithms required
+     * @param needsLicenses true if the SPDX license identifiers are required
+     * @return true if all required results were found in the cache
+     */
+    boolean fill( String relativePath, ScannedFile scannedFile, Set<String> algorithms, boolean needsLicenses )
+    {
+        usedPaths.add( relativePath );
+        CacheEntry entry = entries.get( relativePath );
+        if ( Objects.isNull( entry ) || entry.size != scannedFile.getSize() || entry.lastModified != scannedFile.getLastModified() ||
+                !entry.checksums.keySet().containsAll( algorithms ) || ( needsLicenses && Objects.isNull( entry.spdxLicenses ) ) )
+        {
+            return false;
+        }
+        if ( verifyFingerprint && !Objects.equals( entry.fingerprint, fingerprint( scannedFile.getPath() ) ) )
+        {
+            return false;
+        }
+        Set<Checksum> checksums = new HashSet<>();
+        for ( String algorithm : algorithms )
+        {
+            checksums.add( new Checksum( algorithm, entry.checksums.get( algorithm ) ) );
+        }
+        scannedFile.setChecksums( checksums );
+        if ( needsLicenses )
+        {
+            scannedFile.setSpdxLicenses( new ArrayList<>( entry.spdxLicenses ) );
+        }
+        return true;
+    }
+
+    /**
+     * Store the scan results for a file
+     *
+     * @param relativePath path of the file relative to the project base directory
+     * @param scannedFile  file containing the results of the scan
+     */
+    void update( String relativePath, ScannedFile scannedFile )
+    {
+        CacheEntry entry = new CacheEntry();
+        entry.size = scannedFile.getSize();
+        entry.lastModified = scannedFile.getLastModified();
+        entry.fingerprint = verifyFingerprint ? fingerprint( scannedFile.getPath() ) : null;
+        entry.checksums = new HashMap<>();
+        for ( Checksum checksum : scannedFile.getChecksums() )
+        {
+            entry.checksums.put( checksum.getAlgorithm(), checksum.getValue() );
+        }
+        entry.spdxLicenses = scannedFile.getSpdxLicenses();
+        usedPaths.add( relativePath );
+        entries.put( relativePath, entry );
+        modified = true;
+    }
+
+    /**
+     * Save the cache to the cache file.  Only entries for files used since the cache was loaded are saved.
+     * Errors are logged and otherwise ignored since the cache only affects performance.
+     */
+    public void save()
+    {
+        if ( !modified && usedPaths.size() == entries.size() )
+        {
+            return;
+        }
+        CacheContent content = new CacheContent();
+        content.version = CACHE_FORMAT_VERSION;
+        content.licenseScanSettings = licenseScanSettings;
+        content.entries = new HashMap<>();
+        for ( String path : usedPaths )
+        {
+            CacheEntry entry = entries.get( path );
+            if ( Objects.nonNull( entry ) )
+            {
+                content.entries.put( path, entry );
+            }
+        }
+        Path cachePath = cacheFile.toPath();
+        Path tempPath = null;
+        try
+        {
+            Path parent = cachePath.toAbsolutePath().getParent();
+            Files.createDirectories( parent );
+            tempPath = Files.createTempFile( parent, cacheFile.getName(), ".tmp" );
+            Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+            try ( Writer writer = Files.newBufferedWriter( tempPath, StandardCharsets.UTF_8 ) )
+            {
+                gson.toJson( content, writer );
+            }
+            Files.move( tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+            tempPath = null;
+            modified = false;
+        }
+        catch ( IOException e )
+        {
+            LOG.warn( "Unable to save the file scan cache {}: {}", cacheFile, e.getMessage() );
+        }
+        finally
+        {
+            if ( Objects.nonNull( tempPath ) )
+            {
+                try
+                {
+                    Files.deleteIfExists( tempPath );
+                }
+                catch ( IOException e )
+                {
+                    LOG.debug( "Unable to delete temporary file scan cache {}", tempPath );
+                }
+            }
+        }
+    }
+
+    /**
+     * @param file file to fingerprint
+     * @return CRC32 of the complete file content or null if the file can not be read
+     */
+    static String fingerprint( Path file )
+    {
+        try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocate( FINGERPRINT_BUFFER_SIZE );
+            while ( channel.read( buffer ) >= 0 )
+            {
+                crc.update( buffer.flip() );
+                buffer.clear();
+            }
+            return Long.toHexString( crc.getValue() );
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+}
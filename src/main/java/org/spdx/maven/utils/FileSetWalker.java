@@ -0,0 +1,197 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.codehaus.plexus.util.AbstractScanner;
+import org.codehaus.plexus.util.MatchPatterns;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Walks the directory of a {@link FileSet} passing each included file to a handler as soon as it is found.
+ * <p>
+ * The include and exclude patterns (including the default excludes) have the same meaning as for
+ * {@code FileSetManager.getIncludedFiles}, but the matching files are never collected into an array and
+ * directories which can not contain any included files are not visited.
+ */
+public class FileSetWalker
+{
+    private static final Logger LOG = LoggerFactory.getLogger( FileSetWalker.class );
+
+    private static final String REGEX_PREFIX = "%regex[";
+    private static final String ALL_DESCENDANTS = File.separator + "**";
+
+    /**
+     * Handles a file included in the file set
+     */
+    public interface IncludedFileHandler
+    {
+        /**
+         * @param file         path of the included file
+         * @param attributes   attributes of the included file read while walking the directory
+         * @param includedFile path of the file relative to the file set directory using the system separator
+         * @throws SpdxCollectionException on errors handling the file - stops the walk
+         */
+        void handle( Path file, BasicFileAttributes attributes, String includedFile ) throws SpdxCollectionException;
+    }
+
+    private final FileSet fileSet;
+    private final MatchPatterns includes;
+    private final MatchPatterns excludes;
+    private final MatchPatterns excludedTrees;
+
+    /**
+     * @param fileSet file set describing the directory and the files to include
+     */
+    public FileSetWalker( FileSet fileSet )
+    {
+        this.fileSet = fileSet;
+        String[] includePatterns = fileSet.getIncludesArray();
+        if ( includePatterns.length == 0 )
+        {
+            includePatterns = new String[] { "**" };
+        }
+        List<String> excludePatterns = new ArrayList<>( Arrays.asList( fileSet.getExcludesArray() ) );
+        if ( fileSet.isUseDefaultExcludes() )
+        {
+            excludePatterns.addAll( Arrays.asList( AbstractScanner.DEFAULTEXCLUDES ) );
+        }
+        List<String> normalizedIncludes = new ArrayList<>();
+        for ( String pattern : includePatterns )
+        {
+            normalizedIncludes.add( normalizePattern( pattern ) );
+        }
+        List<String> normalizedExcludes = new ArrayList<>();
+        List<String> treeExcludes = new ArrayList<>();
+        for ( String pattern : excludePatterns )
+        {
+            String normalized = normalizePattern( pattern );
+            normalizedExcludes.add( normalized );
+            if ( !normalized.startsWith( REGEX_PREFIX ) &&
+                    ( normalized.endsWith( ALL_DESCENDANTS ) || "**".equals( normalized ) ) )
+            {
+                // anything below a directory matching this pattern is also excluded
+                treeExcludes.add( normalized );
+            }
+        }
+        this.includes = MatchPatterns.from( normalizedIncludes );
+        this.excludes = MatchPatterns.from( normalizedExcludes );
+        this.excludedTrees = MatchPatterns.from( treeExcludes );
+    }
+
+    /**
+     * Same normalization as the plexus DirectoryScanner used by the FileSetManager
+     */
+    private static String normalizePattern( String pattern )
+    {
+        String normalized = pattern.trim();
+        if ( normalized.startsWith( REGEX_PREFIX ) )
+        {
+            return normalized;
+        }
+        normalized = normalized.replace( File.separatorChar == '/' ? '\\' : '/', File.separatorChar );
+        if ( normalized.endsWith( File.separator ) )
+        {
+            normalized = normalized + "**";
+        }
+        return normalized;
+    }
+
+    /**
+     * Walk the file set directory calling the handler for every included file.  If the directory does not exist,
+     * the handler is not called.
+     *
+     * @param handler handler for each included file
+     * @throws SpdxCollectionException on errors reading the directories or thrown by the handler
+     */
+    public void walk( IncludedFileHandler handler ) throws SpdxCollectionException
+    {
+        if ( fileSet.getDirectory() == null )
+        {
+            return;
+        }
+        Path root = Path.of( fileSet.getDirectory() );
+        if ( !Files.isDirectory( root ) )
+        {
+            return;
+        }
+        Set<FileVisitOption> options = fileSet.isFollowSymlinks() ? EnumSet.of( FileVisitOption.FOLLOW_LINKS )
+                : EnumSet.noneOf( FileVisitOption.class );
+        SpdxCollectionException[] handlerException = new SpdxCollectionException[1];
+        try
+        {
+            Files.walkFileTree( root, options, Integer.MAX_VALUE, new SimpleFileVisitor<Path>()
+            {
+                @Override
+                public FileVisitResult preVisitDirectory( Path dir, BasicFileAttributes attrs )
+                {
+                    if ( dir.equals( root ) )
+                    {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    String name = root.relativize( dir ).toString();
+                    if ( !includes.matchesPatternStart( name, true ) || excludedTrees.matches( name, true ) )
+                    {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile( Path file, BasicFileAttributes attrs )
+                {
+                    if ( attrs.isDirectory() || ( attrs.isSymbolicLink() && !fileSet.isFollowSymlinks() ) )
+                    {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    String name = root.relativize( file ).toString();
+                    if ( includes.matches( name, true ) && !excludes.matches( name, true ) )
+                    {
+                        try
+                        {
+                            handler.handle( file, attrs, name );
+                        }
+                        catch ( SpdxCollectionException e )
+                        {
+                            handlerException[0] = e;
+                            return FileVisitResult.TERMINATE;
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed( Path file, IOException exc )
+                {
+                    LOG.warn( "Unable to read {} - skipping: {}", file, exc.getMessage() );
+                    return FileVisitResult.CONTINUE;
+                }
+            } );
+        }
+        catch ( IOException e )
+        {
+            throw new SpdxCollectionException( "Error reading files in " + fileSet.getDirectory(), e );
+        }
+        if ( handlerException[0] != null )
+        {
+            throw handlerException[0];
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Map of license URLs to SPDX license IDs layering the URLs of the non-standard licenses of a single SPDX document
+ * over the shared listed license URL map.
+ * <p>
+ * The listed license URL map is never copied or modified - mappings added for non-standard licenses are kept in a
+ * separate map which is checked first and therefore replaces any listed license mapping for the same URL.
+ */
+class LayeredLicenseUrlMap
+{
+    /**
+     * Listed license URL map shared by all license managers
+     */
+    private final Map<String, String> listedLicenseUrls;
+
+    /**
+     * URLs of the non-standard licenses added to this map
+     */
+    private final Map<String, String> nonStandardLicenseUrls = new HashMap<>();
+
+    /**
+     * @param listedLicenseUrls unmodifiable map of URLs to listed license IDs
+     */
+    LayeredLicenseUrlMap( Map<String, String> listedLicenseUrls )
+    {
+        this.listedLicenseUrls = listedLicenseUrls;
+    }
+
+    /**
+     * @param url license URL
+     * @return the ID of the non-standard license or, if none, the listed license mapped to the URL or null if the URL
+     *         is not mapped
+     */
+    String get( String url )
+    {
+        String licenseId = nonStandardLicenseUrls.get( url );
+        return licenseId == null ? listedLicenseUrls.get( url ) : licenseId;
+    }
+
+    /**
+     * @param url license URL
+     * @return true if the URL is mapped to a non-standard or listed license
+     */
+    boolean containsKey( String url )
+    {
+        return nonStandardLicenseUrls.containsKey( url ) || listedLicenseUrls.containsKey( url );
+    }
+
+    /**
+     * Map a URL to a non-standard license replacing any existing mapping for the URL
+     *
+     * @param url       license URL
+     * @param licenseId ID of the non-standard license
+     */
+    void put( String url, String licenseId )
+    {
+        nonStandardLicenseUrls.put( url, licenseId );
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+
+/**
+ * Cache of parsed license expressions for a single SPDX document.
+ * <p>
+ * Most files in a project share the default file licenses and a handful of distinct SPDX-License-Identifier
+ * expressions, so each distinct expression is parsed once and the resulting license is reused for every file
+ * and snippet in the same document.  The cache is cleared if it is used with a different document.
+ *
+ * @param <T> type of the parsed license - differs between the SPDX spec versions
+ */
+class LicenseExpressionCache<T>
+{
+    /**
+     * Parses a license expression into the document model store
+     */
+    interface LicenseParser<T>
+    {
+        T parse( String expression ) throws InvalidSPDXAnalysisException;
+    }
+
+    private final Map<String, T> parsedLicenses = new HashMap<>();
+    private Object document;
+
+    /**
+     * @param document   document the license is to be stored in
+     * @param expression license expression
+     * @param parser     parser used if the expression has not already been parsed for the document
+     * @return the license for the expression
+     * @throws InvalidSPDXAnalysisException on errors parsing the expression
+     */
+    T parse( Object document, String expression, LicenseParser<T> parser ) throws InvalidSPDXAnalysisException
+    {
+        if ( !Objects.equals( this.document, document ) )
+        {
+            parsedLicenses.clear();
+            this.document = document;
+        }
+        if ( expression == null )
+        {
+            return parser.parse( null );
+        }
+        T license = parsedLicenses.get( expression );
+        if ( license == null )
+        {
+            license = parser.parse( expression );
+            parsedLicenses.put( expression, license );
+        }
+        return license;
+    }
+
+    /**
+     * @return number of distinct expressions parsed for the current document
+     */
+    int size()
+    {
+        return parsedLicenses.size();
+    }
+}
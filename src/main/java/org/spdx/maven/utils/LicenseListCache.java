@@ -0,0 +1,348 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spdx.storage.listedlicense.LicenseJsonTOC;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+/**
+ * Local cache of the SPDX license list JSON file shared between builds and between Maven processes.
+ * <p>
+ * The cached license list is used without contacting the server until it is older than the time to live.  A stale
+ * license list is revalidated using the ETag and Last-Modified headers of the response it was fetched from, so the
+ * license list is only downloaded again if it has changed.  By default the stale license list is used for the
+ * current build while it is revalidated in the background for the next build.  All requests use connect and read
+ * timeouts so an unreachable server can not stall the build.
+ * <p>
+ * The cache is written to a temporary file which atomically replaces the cache file so that concurrent Maven
+ * processes never read a partially written cache.  Errors are logged and otherwise ignored since the bundled license
+ * list is used if no license list is available.
+ * <p>
+ * This class is thread safe.
+ */
+public class LicenseListCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger( LicenseListCache.class );
+
+    /**
+     * URL for the SPDX license list JSON file
+     */
+    public static final String DEFAULT_LICENSE_LIST_URL = "https://spdx.org/licenses/licenses.json";
+
+    /**
+     * Default connect and read timeout in milliseconds for requests for the license list
+     */
+    public static final int DEFAULT_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Incremented whenever the format of the cache file changes
+     */
+    static final int CACHE_FORMAT_VERSION = 1;
+
+    static final String CACHE_FILE_NAME = "licenses-cache.json";
+
+    private final File cacheFile;
+    private final URL licenseListUrl;
+    private final long timeToLiveMillis;
+    private final int timeoutMillis;
+    private final boolean backgroundRefresh;
+
+    /**
+     * Revalidation of a stale license list running in the background - null if no revalidation was started
+     */
+    private Future<?> backgroundRevalidation = null;
+
+    /**
+     * Cache file content as persisted in JSON
+     */
+    private static class CacheEntry
+    {
+        int version;
+        String url;
+        String etag;
+        String lastModified;
+        long fetched;
+        String licenseList;
+    }
+
+    /**
+     * @param cacheDirectory    directory containing the cache file
+     * @param licenseListUrl    URL for the license list JSON file
+     * @param timeToLiveMillis  time in milliseconds a fetched license list is used without revalidation
+     * @param timeoutMillis     connect and read timeout in milliseconds for requests for the license list
+     * @param backgroundRefresh if true, a stale license list is used while it is revalidated in the background,
+     *                          otherwise the license list is revalidated before it is returned
+     */
+    public LicenseListCache( File cacheDirectory, URL licenseListUrl, long timeToLiveMillis, int timeoutMillis,
+                             boolean backgroundRefresh )
+    {
+        this.cacheFile = new File( cacheDirectory, CACHE_FILE_NAME );
+        this.licenseListUrl = licenseListUrl;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.backgroundRefresh = backgroundRefresh;
+    }
+
+    /**
+     * Create a cache for the SPDX license list at spdx.org which is revalidated in the background
+     *
+     * @param cacheDirectory   directory containing the cache file
+     * @param timeToLiveMillis time in milliseconds a fetched license list is used without revalidation
+     * @param timeoutMillis    connect and read timeout in milliseconds for requests for the license list
+     */
+    public LicenseListCache( File cacheDirectory, long timeToLiveMillis, int timeoutMillis )
+    {
+        this( cacheDirectory, defaultLicenseListUrl(), timeToLiveMillis, timeoutMillis, true );
+    }
+
+    private static URL defaultLicenseListUrl()
+    {
+        try
+        {
+            return new URL( DEFAULT_LICENSE_LIST_URL );
+        }
+        catch ( MalformedURLException e )
+        {
+            throw new IllegalStateException( "Invalid license list URL " + DEFAULT_LICENSE_LIST_URL, e );
+        }
+    }
+
+    /**
+     * @return file containing the cached license list
+     */
+    public File getCacheFile()
+    {
+        return cacheFile;
+    }
+
+    /**
+     * Get the license list JSON file content, fetching the license list if it is not cached and revalidating a
+     * stale license list
+     *
+     * @return content of the license list JSON file or null if no license list is cached and the license list could
+     *         not be fetched
+     */
+    public @Nullable byte[] getLicenseList()
+    {
+        CacheEntry entry = readCache();
+        if ( Objects.isNull( entry ) )
+        {
+            CacheEntry fetched = revalidate( null );
+            return Objects.isNull( fetched ) ? null : fetched.licenseList.getBytes( StandardCharsets.UTF_8 );
+        }
+        long age = System.currentTimeMillis() - entry.fetched;
+        if ( age >= 0 && age < timeToLiveMillis )
+        {
+            LOG.debug( "Using cached license list {}", cacheFile );
+        }
+        else if ( backgroundRefresh )
+        {
+            startBackgroundRevalidation( entry );
+        }
+        else
+        {
+            CacheEntry revalidated = revalidate( entry );
+            if ( Objects.nonNull( revalidated ) )
+            {
+                entry = revalidated;
+            }
+        }
+        return entry.licenseList.getBytes( StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * @return the revalidation running in the background or null if no background revalidation was started
+     */
+    synchronized @Nullable Future<?> getBackgroundRevalidation()
+    {
+        return backgroundRevalidation;
+    }
+
+    private synchronized void startBackgroundRevalidation( CacheEntry stale )
+    {
+        if ( Objects.nonNull( backgroundRevalidation ) && !backgroundRevalidation.isDone() )
+        {
+            return;
+        }
+        LOG.debug( "Using stale license list {} while revalidating", cacheFile );
+        FutureTask<CacheEntry> task = new FutureTask<>( () -> revalidate( stale ) );
+        Thread thread = new Thread( task, "spdx-license-list-refresh" );
+        // the revalidation must not keep the JVM running - the atomic cache update keeps the cache consistent
+        thread.setDaemon( true );
+        thread.start();
+        backgroundRevalidation = task;
+    }
+
+    /**
+     * Fetch the license list if it has changed since the cached entry was fetched and update the cache
+     *
+     * @param cached cached entry or null if there is no cached license list
+     * @return the up-to-date entry or null if the license list could not be fetched
+     */
+    private @Nullable CacheEntry revalidate( @Nullable CacheEntry cached )
+    {
+        try
+        {
+            URLConnection connection = licenseListUrl.openConnection();
+            connection.setConnectTimeout( timeoutMillis );
+            connection.setReadTimeout( timeoutMillis );
+            connection.setUseCaches( false );
+            if ( Objects.nonNull( cached ) && Objects.nonNull( cached.etag ) )
+            {
+                connection.setRequestProperty( "If-None-Match", cached.etag );
+            }
+            if ( Objects.nonNull( cached ) && Objects.nonNull( cached.lastModified ) )
+            {
+                connection.setRequestProperty( "If-Modified-Since", cached.lastModified );
+            }
+            if ( connection instanceof HttpURLConnection )
+            {
+                HttpURLConnection httpConnection = (HttpURLConnection) connection;
+                int status = httpConnection.getResponseCode();
+                if ( status == HttpURLConnection.HTTP_NOT_MODIFIED && Objects.nonNull( cached ) )
+                {
+                    LOG.debug( "License list {} has not changed", licenseListUrl );
+                    cached.fetched = System.currentTimeMillis();
+                    writeCache( cached );
+                    return cached;
+                }
+                if ( status != HttpURLConnection.HTTP_OK )
+                {
+                    LOG.warn( "Unexpected response {} fetching the license list {}", status, licenseListUrl );
+                    return null;
+                }
+            }
+            String licenseList;
+            try ( InputStream is = connection.getInputStream() )
+            {
+                licenseList = new String( is.readAllBytes(), StandardCharsets.UTF_8 );
+            }
+            if ( !isLicenseList( licenseList ) )
+            {
+                LOG.warn( "Invalid license list JSON content fetched from {}", licenseListUrl );
+                return null;
+            }
+            CacheEntry entry = new CacheEntry();
+            entry.version = CACHE_FORMAT_VERSION;
+            entry.url = licenseListUrl.toString();
+            entry.etag = connection.getHeaderField( "ETag" );
+            entry.lastModified = connection.getHeaderField( "Last-Modified" );
+            entry.fetched = System.currentTimeMillis();
+            entry.licenseList = licenseList;
+            writeCache( entry );
+            return entry;
+        }
+        catch ( IOException e )
+        {
+            LOG.warn( "Unable to fetch the license list {}: {}", licenseListUrl, e.getMessage() );
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the content is a license list JSON file containing at least one license
+     */
+    private static boolean isLicenseList( String content )
+    {
+        try
+        {
+            LicenseJsonTOC toc = new Gson().fromJson( content, LicenseJsonTOC.class );
+            return Objects.nonNull( toc ) && Objects.nonNull( toc.getLicenses() ) && !toc.getLicenses().isEmpty();
+        }
+        catch ( JsonParseException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @return the cached entry for the license list URL or null if there is no usable cached entry
+     */
+    private @Nullable CacheEntry readCache()
+    {
+        Path cachePath = cacheFile.toPath();
+        if ( !Files.isRegularFile( cachePath ) )
+        {
+            return null;
+        }
+        CacheEntry entry;
+        try ( Reader reader = Files.newBufferedReader( cachePath, StandardCharsets.UTF_8 ) )
+        {
+            entry = new Gson().fromJson( reader, CacheEntry.class );
+        }
+        catch ( IOException | JsonParseException e )
+        {
+            LOG.debug( "Ignoring unreadable license list cache {}", cachePath );
+            return null;
+        }
+        if ( Objects.isNull( entry ) || entry.version != CACHE_FORMAT_VERSION ||
+                !licenseListUrl.toString().equals( entry.url ) || Objects.isNull( entry.licenseList ) )
+        {
+            return null;
+        }
+        return entry;
+    }
+
+    private void writeCache( CacheEntry entry )
+    {
+        Path cachePath = cacheFile.toPath();
+        Path tempPath = null;
+        try
+        {
+            Path parent = cachePath.toAbsolutePath().getParent();
+            Files.createDirectories( parent );
+            tempPath = Files.createTempFile( parent, CACHE_FILE_NAME, ".tmp" );
+            Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+            try ( Writer writer = Files.newBufferedWriter( tempPath, StandardCharsets.UTF_8 ) )
+            {
+                gson.toJson( entry, writer );
+            }
+            Files.move( tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+            tempPath = null;
+        }
+        catch ( IOException e )
+        {
+            LOG.warn( "Unable to save the license list cache {}: {}", cachePath, e.getMessage() );
+        }
+        finally
+        {
+            if ( Objects.nonNull( tempPath ) )
+            {
+                try
+                {
+                    Files.deleteIfExists( tempPath );
+                }
+                catch ( IOException e )
+                {
+                    LOG.debug( "Unable to delete temporary license list cache {}", tempPath );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.maven.project.MavenProject;
+import org.spdx.maven.LicenseOverwrite;
+
+/**
+ * Index of the configured license overwrites by the groupId and artifactId of the dependency they apply to.
+ * <p>
+ * An overwrite without a version applies to any version of the dependency.  Overwrites which would both match the
+ * same dependency version and target, including an overwrite with a version and an overwrite without a version, are
+ * rejected when they are added, so at most one overwrite matches and finding it is a map lookup regardless of the
+ * number of overwrites.
+ *
+ * @param <T> type of the parsed license - differs between the SPDX spec versions
+ */
+class LicenseOverwriteIndex<T>
+{
+    private static class IndexedOverwrite<T>
+    {
+        private final LicenseOverwrite overwrite;
+        private final T license;
+
+        private IndexedOverwrite( LicenseOverwrite overwrite, T license )
+        {
+            this.overwrite = overwrite;
+            this.license = license;
+        }
+
+        private boolean appliesTo( String target )
+        {
+            return "both".equals( overwrite.getTarget() ) || target.equals( overwrite.getTarget() );
+        }
+    }
+
+    /**
+     * Overwrites for a single groupId and artifactId
+     */
+    private static class ArtifactOverwrites<T>
+    {
+        private final Map<String, List<IndexedOverwrite<T>>> byVersion = new HashMap<>();
+        private final List<IndexedOverwrite<T>> anyVersion = new ArrayList<>();
+    }
+
+    private final Map<String, ArtifactOverwrites<T>> overwrites = new HashMap<>();
+
+    private static String key( String groupId, String artifactId )
+    {
+        return groupId + ":" + artifactId;
+    }
+
+    /**
+     * @param overwrite license overwrite
+     * @param license   parsed license string of the overwrite
+     * @throws IllegalArgumentException if another overwrite would match the same dependency version and target
+     */
+    void add( LicenseOverwrite overwrite, T license )
+    {
+        if ( Objects.isNull( overwrite.getGroupId() ) || Objects.isNull( overwrite.getArtifactId() ) ||
+                Objects.isNull( overwrite.getTarget() ) )
+        {
+            // can never apply to a dependency
+            return;
+        }
+        ArtifactOverwrites<T> artifactOverwrites = overwrites.computeIfAbsent(
+                key( overwrite.getGroupId(), overwrite.getArtifactId() ), k -> new ArtifactOverwrites<>() );
+        List<IndexedOverwrite<T>> candidates;
+        if ( Objects.isNull( overwrite.getVersion() ) )
+        {
+            // matches the same dependencies as the overwrites for any specific version
+            for ( List<IndexedOverwrite<T>> versionOverwrites : artifactOverwrites.byVersion.values() )
+            {
+                checkConflicts( versionOverwrites, overwrite );
+            }
+            candidates = artifactOverwrites.anyVersion;
+        }
+        else
+        {
+            checkConflicts( artifactOverwrites.anyVersion, overwrite );
+            candidates = artifactOverwrites.byVersion.computeIfAbsent( overwrite.getVersion(), v -> new ArrayList<>() );
+        }
+        checkConflicts( candidates, overwrite );
+        candidates.add( new IndexedOverwrite<>( overwrite, license ) );
+    }
+
+    /**
+     * @param existingOverwrites overwrites which match the same dependency versions as the overwrite
+     * @param overwrite          overwrite to be added
+     * @throws IllegalArgumentException if any of the existing overwrites applies to the same target
+     */
+    private static <T> void checkConflicts( List<IndexedOverwrite<T>> existingOverwrites, LicenseOverwrite overwrite )
+    {
+        for ( IndexedOverwrite<T> existing : existingOverwrites )
+        {
+            if ( "both".equals( overwrite.getTarget() ) || existing.appliesTo( overwrite.getTarget() ) )
+            {
+                throw new IllegalArgumentException( "multiple matching license overwrites: " + existing.overwrite + " vs. " + overwrite );
+            }
+        }
+    }
+
+    /**
+     * @param mavenProject dependency project
+     * @param target       either concluded or declared
+     * @return the license of the overwrite matching the dependency and target if any
+     */
+    Optional<T> find( MavenProject mavenProject, String target )
+    {
+        if ( !target.equals( "concluded" ) && !target.equals( "declared" ) )
+        {
+            throw new IllegalArgumentException( "license overwrite target is none of: concluded, declared" );
+        }
+        ArtifactOverwrites<T> artifactOverwrites = overwrites.get( key( mavenProject.getGroupId(), mavenProject.getArtifactId() ) );
+        if ( Objects.isNull( artifactOverwrites ) )
+        {
+            return Optional.empty();
+        }
+        List<IndexedOverwrite<T>> versionOverwrites = artifactOverwrites.byVersion.get( mavenProject.getVersion() );
+        if ( Objects.nonNull( versionOverwrites ) )
+        {
+            for ( IndexedOverwrite<T> overwrite : versionOverwrites )
+            {
+                if ( overwrite.appliesTo( target ) )
+                {
+                    return Optional.of( overwrite.license );
+                }
+            }
+        }
+        for ( IndexedOverwrite<T> overwrite : artifactOverwrites.anyVersion )
+        {
+            if ( overwrite.appliesTo( target ) )
+            {
+                return Optional.of( overwrite.license );
+            }
+        }
+        return Optional.empty();
+    }
+}
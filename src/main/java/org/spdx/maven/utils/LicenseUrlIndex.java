@@ -0,0 +1,256 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.spdx.storage.listedlicense.LicenseJsonTOC;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Compact binary index of license URLs to SPDX listed license IDs precomputed from the bundled license list.
+ * <p>
+ * Loading the index is a single sequential read which avoids parsing the license list JSON file when the bundled
+ * license list is used.  The index is generated from the bundled license list during the {@code process-classes}
+ * phase of the build by running the main method with the license list JSON file and the index file as arguments.
+ * <p>
+ * The format is a magic number, the format version, the license list version, the license IDs and then the URLs
+ * each followed by the position of its license ID.
+ */
+public final class LicenseUrlIndex
+{
+    /**
+     * Resource path of the index for the bundled license list
+     */
+    static final String INDEX_PATH = "resources/license-url-index.bin";
+
+    private static final int MAGIC = 0x53505855;   // SPXU
+
+    /**
+     * Incremented whenever the format of the index or the normalization of the URLs changes
+     */
+    static final int FORMAT_VERSION = 1;
+
+    static final String SPDX_LICENSE_URL_PREFIX = "https://spdx.org/licenses/";
+
+    private LicenseUrlIndex()
+    {
+        // static methods only
+    }
+
+    /**
+     * Create the map of URLs to license IDs for the license list.  The SPDX license page URL and the seeAlso URLs
+     * with https replaced by http are mapped to the license ID.  URLs used by more than one license are not mapped.
+     *
+     * @param licenseList table of contents of the license list JSON file
+     * @return map of normalized URLs to SPDX license IDs
+     */
+    static Map<String, String> buildUrlMap( LicenseJsonTOC licenseList )
+    {
+        Map<String, String> urlStringToSpdxLicenseId = new HashMap<>();
+        List<String> urlsWithMultipleIds = new ArrayList<>();
+        for ( LicenseJsonTOC.LicenseJson licenseJson : licenseList.getLicenses() )
+        {
+            String licenseId = licenseJson.getLicenseId();
+            urlStringToSpdxLicenseId.put( SPDX_LICENSE_URL_PREFIX + licenseId, licenseId );
+            if ( licenseJson.getSeeAlso() != null )
+            {
+                for ( String url : licenseJson.getSeeAlso() )
+                {
+                    url = url.replace( "https", "http" );
+                    if ( urlStringToSpdxLicenseId.containsKey( url ) )
+                    {
+                        urlsWithMultipleIds.add( url );
+                    }
+                    else
+                    {
+                        urlStringToSpdxLicenseId.put( url, licenseId );
+                    }
+                }
+            }
+        }
+        // Remove any mappings which have ambiguous URL mappings
+        for ( String redundantUrl : urlsWithMultipleIds )
+        {
+            urlStringToSpdxLicenseId.remove( redundantUrl );
+        }
+        return urlStringToSpdxLicenseId;
+    }
+
+    /**
+     * Write the index
+     *
+     * @param urlMap             map of normalized URLs to SPDX license IDs
+     * @param licenseListVersion version of the license list the map was created from
+     * @param out                output for the index - not closed
+     * @throws IOException on errors writing the index
+     */
+    static void write( Map<String, String> urlMap, String licenseListVersion, OutputStream out ) throws IOException
+    {
+        // sorted so the index only changes when the mappings change
+        Map<String, String> sorted = new TreeMap<>( urlMap );
+        Map<String, Integer> idPositions = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        for ( String id : new TreeMap<>( invert( sorted ) ).keySet() )
+        {
+            idPositions.put( id, ids.size() );
+            ids.add( id );
+        }
+        DataOutputStream data = new DataOutputStream( new BufferedOutputStream( out ) );
+        data.writeInt( MAGIC );
+        data.writeInt( FORMAT_VERSION );
+        data.writeUTF( licenseListVersion );
+        data.writeInt( ids.size() );
+        for ( String id : ids )
+        {
+            data.writeUTF( id );
+        }
+        data.writeInt( sorted.size() );
+        for ( Map.Entry<String, String> entry : sorted.entrySet() )
+        {
+            data.writeUTF( entry.getKey() );
+            data.writeShort( idPositions.get( entry.getValue() ) );
+        }
+        data.flush();
+    }
+
+    private static Map<String, String> invert( Map<String, String> map )
+    {
+        Map<String, String> retval = new HashMap<>();
+        for ( Map.Entry<String, String> entry : map.entrySet() )
+        {
+            retval.put( entry.getValue(), entry.getKey() );
+        }
+        return retval;
+    }
+
+    /**
+     * Read an index
+     *
+     * @param in input for the index - not closed
+     * @return map of normalized URLs to SPDX license IDs
+     * @throws IOException on errors reading the index or if the input is not an index in the current format
+     */
+    static Map<String, String> read( InputStream in ) throws IOException
+    {
+        DataInputStream data = new DataInputStream( new BufferedInputStream( in ) );
+        if ( data.readInt() != MAGIC )
+        {
+            throw new IOException( "Not a license URL index" );
+        }
+        int version = data.readInt();
+        if ( version != FORMAT_VERSION )
+        {
+            throw new IOException( "Unsupported license URL index format version " + version );
+        }
+        data.readUTF();     // license list version
+        String[] ids = new String[data.readInt()];
+        for ( int i = 0; i < ids.length; i++ )
+        {
+            ids[i] = data.readUTF();
+        }
+        int numUrls = data.readInt();
+        Map<String, String> retval = new HashMap<>( numUrls * 4 / 3 + 1 );
+        for ( int i = 0; i < numUrls; i++ )
+        {
+            String url = data.readUTF();
+            retval.put( url, ids[data.readUnsignedShort()] );
+        }
+        return retval;
+    }
+
+    /**
+     * @return the map of normalized URLs to SPDX license IDs for the bundled license list or null if the index is not
+     *         available
+     * @throws IOException on errors reading the index
+     */
+    static Map<String, String> readBundledIndex() throws IOException
+    {
+        try ( InputStream is = LicenseUrlIndex.class.getClassLoader().getResourceAsStream( INDEX_PATH ) )
+        {
+            return Objects.isNull( is ) ? null : read( is );
+        }
+    }
+
+    /**
+     * Parse a license list JSON file
+     *
+     * @param reader reader for the license list JSON
+     * @return table of contents of the license list
+     * @throws LicenseMapperException on parsing errors
+     */
+    static LicenseJsonTOC parseLicenseList( Reader reader ) throws LicenseMapperException
+    {
+        try
+        {
+            LicenseJsonTOC toc = new Gson().fromJson( reader, LicenseJsonTOC.class );
+            if ( Objects.isNull( toc ) || Objects.isNull( toc.getLicenses() ) )
+            {
+                throw new LicenseMapperException( "Missing licenses in the listed licenses" );
+            }
+            return toc;
+        }
+        catch ( JsonParseException e )
+        {
+            throw new LicenseMapperException( "Error parsing listed licenses", e );
+        }
+    }
+
+    /**
+     * Generate the index for a license list JSON file
+     *
+     * @param licenseListPath license list JSON file
+     * @param indexPath       index file to write
+     * @throws IOException on errors reading the license list or writing the index
+     * @throws LicenseMapperException on errors parsing the license list
+     */
+    static void generate( Path licenseListPath, Path indexPath ) throws IOException, LicenseMapperException
+    {
+        LicenseJsonTOC toc;
+        try ( Reader reader = Files.newBufferedReader( licenseListPath, StandardCharsets.UTF_8 ) )
+        {
+            toc = parseLicenseList( reader );
+        }
+        Files.createDirectories( indexPath.toAbsolutePath().getParent() );
+        try ( OutputStream out = Files.newOutputStream( indexPath ) )
+        {
+            write( buildUrlMap( toc ), toc.getLicenseListVersion(), out );
+        }
+    }
+
+    /**
+     * Generate the index for a license list JSON file - run by the build
+     *
+     * @param args license list JSON file and index file
+     * @throws Exception on any error generating the index
+     */
+    public static void main( String[] args ) throws Exception
+    {
+        if ( args.length != 2 )
+        {
+            throw new IllegalArgumentException( "Usage: LicenseUrlIndex licenses.json license-url-index.bin" );
+        }
+        generate( Paths.get( args[0] ), Paths.get( args[1] ) );
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.maven.model.License;
+import org.spdx.core.InvalidSPDXAnalysisException;
+
+/**
+ * Cache of the SPDX licenses converted from the Maven license lists of the dependencies of a single SPDX document.
+ * <p>
+ * Most dependencies declare one of a handful of license name and URL combinations, so each distinct Maven license
+ * list is converted once and the resulting license is reused for every dependency with the same license list.  The
+ * license list is identified by the name and URL of each license in order since those are the only license
+ * properties used for the conversion.
+ *
+ * @param <T> type of the SPDX license - differs between the SPDX spec versions
+ */
+class MavenLicenseListCache<T>
+{
+    /**
+     * Converts a Maven license list into an SPDX license stored in the document
+     */
+    interface LicenseConverter<T>
+    {
+        T convert( List<License> mavenLicenses ) throws LicenseMapperException, InvalidSPDXAnalysisException;
+    }
+
+    private final Map<List<String>, T> convertedLicenses = new HashMap<>();
+    private final DependencyGraphStatistics statistics;
+
+    /**
+     * @param statistics statistics the cache hits and misses are recorded in
+     */
+    MavenLicenseListCache( DependencyGraphStatistics statistics )
+    {
+        this.statistics = statistics;
+    }
+
+    /**
+     * @param mavenLicenses Maven license list to convert
+     * @param converter     converter used if the license list has not already been converted
+     * @return SPDX license equivalent to the Maven license list
+     * @throws LicenseMapperException       on errors accessing the SPDX listed or extracted licenses
+     * @throws InvalidSPDXAnalysisException on SPDX errors creating the license
+     */
+    T convert( List<License> mavenLicenses, LicenseConverter<T> converter ) throws LicenseMapperException, InvalidSPDXAnalysisException
+    {
+        if ( mavenLicenses == null )
+        {
+            return converter.convert( null );
+        }
+        List<String> key = new ArrayList<>( mavenLicenses.size() * 2 );
+        for ( License license : mavenLicenses )
+        {
+            key.add( license == null ? null : Objects.toString( license.getName(), "" ) );
+            key.add( license == null ? null : Objects.toString( license.getUrl(), "" ) );
+        }
+        T license = convertedLicenses.get( key );
+        if ( license == null )
+        {
+            statistics.licenseCacheMiss();
+            license = converter.convert( mavenLicenses );
+            convertedLicenses.put( key, license );
+        }
+        else
+        {
+            statistics.licenseCacheHit();
+        }
+        return license;
+    }
+
+    /**
+     * @return number of distinct Maven license lists converted
+     */
+    int size()
+    {
+        return convertedLicenses.size();
+    }
+}
@@ -16,18 +16,22 @@
 package org.spdx.maven.utils;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
 import org.apache.maven.model.License;
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.library.LicenseInfoFactory;
@@ -39,19 +43,20 @@ import org.spdx.library.model.v3_0_1.core.Element;
 import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicense;
 import org.spdx.library.model.v3_0_1.expandedlicensing.NoAssertionLicense;
 import org.spdx.storage.IModelStore.IdType;
-import org.spdx.storage.listedlicense.LicenseJsonTOC;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.Gson;
-
 /**
  * Singleton class which maps Maven license objects to SPDX licenses.
  * <p>
  * The license mapping uses the JSON file from the spdx.org/licenses/licenses.json file
  * <p>
- * If the site spdx.org/licenses is not accessible, then static version of the file will be used
+ * If the site spdx.org/licenses is not accessible, then static version of the file will be used through an index of
+ * the license URLs precomputed from the static file
+ * <p>
+ * If a license list cache is set, the license list is read from the cache which is only refreshed from the site once
+ * the cached license list has expired
  * <p>
  * The seeAlso property of the SPDX file is matched to the Maven license URL.
  *
@@ -61,36 +66,70 @@ public class MavenToSpdxLicenseMapper
 {
     private static final Logger LOG = LoggerFactory.getLogger( MavenToSpdxLicenseMapper.class );
 
-    private static final String SPDX_LICENSE_URL_PREFIX = "https://spdx.org/licenses/";
-    private static final String LISTED_LICENSE_JSON_URL = SPDX_LICENSE_URL_PREFIX + "licenses.json";
+    private static final String LISTED_LICENSE_JSON_URL = LicenseUrlIndex.SPDX_LICENSE_URL_PREFIX + "licenses.json";
     private static final String LISTED_LICENSE_JSON_PATH = "resources/licenses.json";
 
     static volatile MavenToSpdxLicenseMapper instance;
     private static final Object instanceMutex = new Object();
     private Map<String, String> urlStringToSpdxLicenseId;
 
+    /**
+     * Local cache of the license list - null if the license list is fetched on every JVM start
+     */
+    private static volatile LicenseListCache licenseListCache = null;
+
     private MavenToSpdxLicenseMapper() throws LicenseMapperException
     {
         // Can not instantiate directly - singleton class
         InputStream is = null;
         if (!"true".equals(System.getProperty( "SPDXParser.OnlyUseLocalLicenses"))){
-            try
-            {
-                URL listedLicenseJsonUrl = new URL( LISTED_LICENSE_JSON_URL );
-                is = listedLicenseJsonUrl.openStream();
-            }
-            catch ( MalformedURLException e )
+            LicenseListCache cache = licenseListCache;
+            if ( cache != null )
             {
-                LOG.warn( "Invalid JSON URL for SPDX listed licenses.  Using cached version" );
+                byte[] licenseList = cache.getLicenseList();
+                if ( licenseList != null )
+                {
+                    is = new ByteArrayInputStream( licenseList );
+                }
             }
-            catch ( IOException e )
+            else
             {
-                LOG.warn( "IO Exception opening web page for JSON for SPDX listed licenses.  Using cached version" );
+                try
+                {
+                    URLConnection connection = new URL( LISTED_LICENSE_JSON_URL ).openConnection();
+                    connection.setConnectTimeout( LicenseListCache.DEFAULT_TIMEOUT_MILLIS );
+                    connection.setReadTimeout( LicenseListCache.DEFAULT_TIMEOUT_MILLIS );
+                    is = connection.getInputStream();
+                }
+                catch ( MalformedURLException e )
+                {
+                    LOG.warn( "Invalid JSON URL for SPDX listed licenses.  Using cached version" );
+                }
+                catch ( IOException e )
+                {
+                    LOG.warn( "IO Exception opening web page for JSON for SPDX listed licenses.  Using cached version" );
+                }
             }
         }
         if ( is == null )
         {
-            // use the cached version
+            // use the index precomputed from the bundled license list
+            try
+            {
+                Map<String, String> index = LicenseUrlIndex.readBundledIndex();
+                if ( index != null )
+                {
+                    urlStringToSpdxLicenseId = index;
+                    addManualMappings();
+                    urlStringToSpdxLicenseId = Collections.unmodifiableMap( urlStringToSpdxLicenseId );
+                    return;
+                }
+                LOG.warn( "Missing license URL index {}.  Using the bundled license list", LicenseUrlIndex.INDEX_PATH );
+            }
+            catch ( IOException e )
+            {
+                LOG.warn( "Unable to read the license URL index {}.  Using the bundled license list", LicenseUrlIndex.INDEX_PATH, e );
+            }
             is = SpdxV2LicenseManager.class.getClassLoader().getResourceAsStream( LISTED_LICENSE_JSON_PATH );
         }
 
@@ -108,6 +147,17 @@ public class MavenToSpdxLicenseMapper
         {
             LOG.warn( "IO error closing listed license reader", e );
         }
+        urlStringToSpdxLicenseId = Collections.unmodifiableMap( urlStringToSpdxLicenseId );
+    }
+
+    /**
+     * Set the local cache used for the license list.  Only used if set before the first call to getInstance.
+     *
+     * @param cache local cache of the license list or null to fetch the license list without caching
+     */
+    public static void setLicenseListCache( @Nullable LicenseListCache cache )
+    {
+        licenseListCache = cache;
     }
 
     public static MavenToSpdxLicenseMapper getInstance() throws LicenseMapperException
@@ -144,49 +194,7 @@ public class MavenToSpdxLicenseMapper
      */
     private void initializeUrlMap( BufferedReader jsonReader ) throws LicenseMapperException
     {
-        LicenseJsonTOC jsonToc;
-        try
-        {
-            Gson gson = new Gson();
-            StringBuilder tocJsonStr = new StringBuilder();
-            String line;
-            while((line = jsonReader.readLine()) != null) {
-                tocJsonStr.append(line);
-            }
-            jsonToc = gson.fromJson(tocJsonStr.toString(), LicenseJsonTOC.class);
-        }
-        catch ( IOException e1 )
-        {
-            throw new LicenseMapperException( "I/O Error parsing listed licenses", e1 );
-        }
-
-        urlStringToSpdxLicenseId = new HashMap<>();
-        List<String> urlsWithMultipleIds = new ArrayList<>();
-        for ( LicenseJsonTOC.LicenseJson licenseJson:jsonToc.getLicenses() )
-        {
-            String licenseId = licenseJson.getLicenseId();
-            this.urlStringToSpdxLicenseId.put( SPDX_LICENSE_URL_PREFIX + licenseId, licenseId );
-            if ( licenseJson.getSeeAlso() != null )
-            {
-                for ( String url:licenseJson.getSeeAlso() )
-                {
-                    url = url.replaceAll( "https", "http" );
-                    if ( this.urlStringToSpdxLicenseId.containsKey( url ) )
-                    {
-                        urlsWithMultipleIds.add( url );
-                    }
-                    else
-                    {
-                        this.urlStringToSpdxLicenseId.put( url, licenseId );
-                    }
-                }
-            }
-        }
-        // Remove any mappings which have ambiguous URL mappings
-        for ( String redundantUrl : urlsWithMultipleIds )
-        {
-            this.urlStringToSpdxLicenseId.remove( redundantUrl );
-        }
+        urlStringToSpdxLicenseId = LicenseUrlIndex.buildUrlMap( LicenseUrlIndex.parseLicenseList( jsonReader ) );
         addManualMappings();
     }
 
@@ -259,7 +267,7 @@ public class MavenToSpdxLicenseMapper
         {
             return null;
         }
-        String spdxId = this.urlStringToSpdxLicenseId.get( license.getUrl().replaceAll( "https", "http" ) );
+        String spdxId = this.urlStringToSpdxLicenseId.get( license.getUrl().replace( "https", "http" ) );
         if ( spdxId == null )
         {
             return null;
@@ -330,7 +338,7 @@ public class MavenToSpdxLicenseMapper
         {
             return null;
         }
-        String spdxId = this.urlStringToSpdxLicenseId.get( license.getUrl().replaceAll( "https", "http" ) );
+        String spdxId = this.urlStringToSpdxLicenseId.get( license.getUrl().replace( "https", "http" ) );
         if ( spdxId == null )
         {
             return null;
@@ -346,7 +354,7 @@ public class MavenToSpdxLicenseMapper
     }
 
     /**
-     * @return Map of URL's to listed license ID's
+     * @return unmodifiable map of URL's to listed license ID's shared by all users of the mapper
      */
     public Map<String, String> getMap()
     {
@@ -0,0 +1,114 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.Nullable;
+
+/**
+ * Resolves the path specific file information which applies to a file.
+ * <p>
+ * The configured paths are compiled into a character trie so a file path is resolved in a single pass over its
+ * characters without creating any strings for the parent directories.  A file matches the information configured
+ * for its exact path, otherwise the information configured for the closest parent directory.
+ */
+public class PathSpecificInfoResolver
+{
+    /**
+     * Trie node for the path consisting of all characters from the root to this node
+     */
+    private static class Node
+    {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private SpdxDefaultFileInformation info;
+
+        @Nullable
+        Node child( char key )
+        {
+            for ( int i = 0; i < keys.length; i++ )
+            {
+                if ( keys[i] == key )
+                {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node addChild( char key )
+        {
+            Node child = child( key );
+            if ( child == null )
+            {
+                child = new Node();
+                keys = Arrays.copyOf( keys, keys.length + 1 );
+                children = Arrays.copyOf( children, children.length + 1 );
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+
+    private final Node root = new Node();
+    private final boolean empty;
+
+    /**
+     * @param pathSpecificInformation Map of path to file information used to override the default file information
+     */
+    public PathSpecificInfoResolver( Map<String, SpdxDefaultFileInformation> pathSpecificInformation )
+    {
+        boolean anyPath = false;
+        for ( Entry<String, SpdxDefaultFileInformation> entry : pathSpecificInformation.entrySet() )
+        {
+            if ( entry.getKey() == null || entry.getKey().isEmpty() || entry.getValue() == null )
+            {
+                continue;
+            }
+            Node node = root;
+            for ( int i = 0; i < entry.getKey().length(); i++ )
+            {
+                node = node.addChild( entry.getKey().charAt( i ) );
+            }
+            node.info = entry.getValue();
+            anyPath = true;
+        }
+        this.empty = !anyPath;
+    }
+
+    /**
+     * Find the most appropriate file information based on the lowest level match (closest to the file)
+     *
+     * @param filePath file path relative to the project base directory using '/' as a separator
+     * @return default SPDX parameters for the file path or null if package level defaults are to be used
+     */
+    public @Nullable SpdxDefaultFileInformation resolve( String filePath )
+    {
+        if ( empty )
+        {
+            return null;
+        }
+        SpdxDefaultFileInformation closestParent = null;
+        Node node = root;
+        for ( int i = 0; i < filePath.length(); i++ )
+        {
+            char ch = filePath.charAt( i );
+            if ( ch == '/' && i > 0 && node.info != null )
+            {
+                closestParent = node.info;
+            }
+            node = node.child( ch );
+            if ( node == null )
+            {
+                return closestParent;
+            }
+        }
+        return node.info != null ? node.info : closestParent;
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+/**
+ * Persistent cache of dependency metadata shared between builds and between Maven processes.
+ * <p>
+ * Each dependency is stored in its own file under the cache directory.  An entry is only used if the SHA1 of the
+ * dependency POM file is unchanged.  For SNAPSHOT dependencies the last modified time of the POM file must also be
+ * unchanged.  Entries are written to a temporary file which atomically replaces the entry so that concurrent Maven
+ * processes never read a partially written entry.
+ * <p>
+ * Note that a change to a parent POM without a change to the dependency POM is not detected, so the dependency
+ * builder does not use the cache for SNAPSHOT dependencies or dependencies on projects in the reactor.
+ * <p>
+ * This class is thread safe.
+ */
+public class PersistentDependencyMetadataCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger( PersistentDependencyMetadataCache.class );
+
+    /**
+     * Incremented whenever the format of the cache entries or the meaning of the cached values change
+     */
+    static final int CACHE_FORMAT_VERSION = 1;
+
+    private final File cacheDirectory;
+
+    /**
+     * Cache entry as persisted in JSON
+     */
+    private static class CacheEntry
+    {
+        int version;
+        String gav;
+        String pomSha1;
+        long pomLastModified;
+        DependencyMetadata metadata;
+    }
+
+    /**
+     * @param cacheDirectory directory containing the cache entries
+     */
+    public PersistentDependencyMetadataCache( File cacheDirectory )
+    {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * @return directory containing the cache entries
+     */
+    public File getCacheDirectory()
+    {
+        return cacheDirectory;
+    }
+
+    /**
+     * Get the cached metadata for a dependency
+     *
+     * @param groupId    group ID of the dependency
+     * @param artifactId artifact ID of the dependency
+     * @param version    version of the dependency
+     * @param pomFile    POM file for the dependency in the local repository
+     * @return the cached metadata or null if the dependency is not cached or the POM file has changed
+     */
+    public @Nullable DependencyMetadata get( String groupId, String artifactId, String version, File pomFile )
+    {
+        Path entryPath = entryFile( groupId, artifactId, version ).toPath();
+        if ( !pomFile.isFile() || !Files.isRegularFile( entryPath ) )
+        {
+            return null;
+        }
+        CacheEntry entry;
+        try ( Reader reader = Files.newBufferedReader( entryPath, StandardCharsets.UTF_8 ) )
+        {
+            entry = new Gson().fromJson( reader, CacheEntry.class );
+        }
+        catch ( IOException | JsonParseException e )
+        {
+            LOG.debug( "Ignoring unreadable dependency metadata cache entry {}", entryPath );
+            return null;
+        }
+        String gav = gav( groupId, artifactId, version );
+        if ( Objects.isNull( entry ) || entry.version != CACHE_FORMAT_VERSION || !gav.equals( entry.gav ) ||
+                Objects.isNull( entry.metadata ) || entry.metadata.isFailure() )
+        {
+            return null;
+        }
+        if ( isSnapshot( version ) && entry.pomLastModified != pomFile.lastModified() )
+        {
+            return null;
+        }
+        if ( !Objects.equals( entry.pomSha1, sha1( pomFile ) ) )
+        {
+            return null;
+        }
+        return entry.metadata;
+    }
+
+    /**
+     * Store the metadata for a dependency.  Failed metadata is not stored since the failure may be caused by the
+     * environment.  Errors are logged and otherwise ignored since the cache only affects performance.
+     *
+     * @param groupId    group ID of the dependency
+     * @param artifactId artifact ID of the dependency
+     * @param version    version of the dependency
+     * @param pomFile    POM file for the dependency in the local repository
+     * @param metadata   metadata for the dependency
+     */
+    public void put( String groupId, String artifactId, String version, File pomFile, DependencyMetadata metadata )
+    {
+        if ( metadata.isFailure() || !pomFile.isFile() )
+        {
+            return;
+        }
+        String pomSha1 = sha1( pomFile );
+        if ( Objects.isNull( pomSha1 ) )
+        {
+            return;
+        }
+        CacheEntry entry = new CacheEntry();
+        entry.version = CACHE_FORMAT_VERSION;
+        entry.gav = gav( groupId, artifactId, version );
+        entry.pomSha1 = pomSha1;
+        entry.pomLastModified = pomFile.lastModified();
+        entry.metadata = metadata;
+        Path entryPath = entryFile( groupId, artifactId, version ).toPath();
+        Path tempPath = null;
+        try
+        {
+            Path parent = entryPath.toAbsolutePath().getParent();
+            Files.createDirectories( parent );
+            tempPath = Files.createTempFile( parent, entryPath.getFileName().toString(), ".tmp" );
+            Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+            try ( Writer writer = Files.newBufferedWriter( tempPath, StandardCharsets.UTF_8 ) )
+            {
+                gson.toJson( entry, writer );
+            }
+            Files.move( tempPath, entryPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+            tempPath = null;
+        }
+        catch ( IOException e )
+        {
+            LOG.warn( "Unable to save the dependency metadata cache entry {}: {}", entryPath, e.getMessage() );
+        }
+        finally
+        {
+            if ( Objects.nonNull( tempPath ) )
+            {
+                try
+                {
+                    Files.deleteIfExists( tempPath );
+                }
+                catch ( IOException e )
+                {
+                    LOG.debug( "Unable to delete temporary dependency metadata cache entry {}", tempPath );
+                }
+            }
+        }
+    }
+
+    /**
+     * @return file for the cache entry following the layout of a Maven repository
+     */
+    File entryFile( String groupId, String artifactId, String version )
+    {
+        File artifactDirectory = new File( new File( cacheDirectory, groupId.replace( '.', File.separatorChar ) ),
+                artifactId );
+        return new File( artifactDirectory, version + ".json" );
+    }
+
+    private static String gav( String groupId, String artifactId, String version )
+    {
+        return groupId + ":" + artifactId + ":" + version;
+    }
+
+    private static boolean isSnapshot( String version )
+    {
+        return version.endsWith( "SNAPSHOT" );
+    }
+
+    /**
+     * @param file file to digest
+     * @return SHA1 of the file content or null if the file can not be read
+     */
+    static @Nullable String sha1( File file )
+    {
+        try ( InputStream in = Files.newInputStream( file.toPath() ) )
+        {
+            MessageDigest digest = MessageDigest.getInstance( "SHA-1" );
+            byte[] buffer = new byte[8192];
+            int read;
+            while ( ( read = in.read( buffer ) ) >= 0 )
+            {
+                digest.update( buffer, 0, read );
+            }
+            return AbstractFileCollector.convertChecksumToString( digest.digest() );
+        }
+        catch ( IOException | NoSuchAlgorithmException e )
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.spdx.maven.Checksum;
+
+/**
+ * Results of reading a single file during file collection.
+ * <p>
+ * Holds everything which can be computed from the file content without access to the SPDX model store so that
+ * the file can be scanned on any thread and converted to SPDX elements later.
+ */
+class ScannedFile
+{
+    private final Path path;
+    private final long size;
+    private final long lastModified;
+    private final String relativePath;
+    private final String outputFileName;
+    private final SpdxDefaultFileInformation fileInfo;
+    private Set<Checksum> checksums;
+    private List<String> spdxLicenses;
+
+    /**
+     * @param path           file to be scanned
+     * @param attributes     attributes of the file read when the file was found
+     * @param relativePath   path of the file relative to the project base directory
+     * @param outputFileName path to the output file name relative to the root of the output archive file
+     * @param fileInfo       default SPDX information which applies to the file
+     */
+    ScannedFile( Path path, BasicFileAttributes attributes, String relativePath, String outputFileName,
+                 SpdxDefaultFileInformation fileInfo )
+    {
+        this.path = path;
+        this.size = attributes.size();
+        this.lastModified = attributes.lastModifiedTime().toMillis();
+        this.relativePath = relativePath;
+        this.outputFileName = outputFileName;
+        this.fileInfo = fileInfo;
+    }
+
+    /**
+     * @return the file scanned
+     */
+    Path getPath()
+    {
+        return path;
+    }
+
+    /**
+     * @return size of the file in bytes when it was found
+     */
+    long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * @return last modified time of the file in milliseconds since the epoch when it was found
+     */
+    long getLastModified()
+    {
+        return lastModified;
+    }
+
+    /**
+     * @return path of the file relative to the project base directory
+     */
+    String getRelativePath()
+    {
+        return relativePath;
+    }
+
+    /**
+     * @return path to the output file name relative to the root of the output archive file
+     */
+    String getOutputFileName()
+    {
+        return outputFileName;
+    }
+
+    /**
+     * @return default SPDX information which applies to the file
+     */
+    SpdxDefaultFileInformation getFileInfo()
+    {
+        return fileInfo;
+    }
+
+    /**
+     * @return checksums calculated for the file content
+     */
+    Set<Checksum> getChecksums()
+    {
+        return checksums;
+    }
+
+    /**
+     * @param checksums checksums calculated for the file content
+     */
+    void setChecksums( Set<Checksum> checksums )
+    {
+        this.checksums = checksums;
+    }
+
+    /**
+     * @return license expressions found in SPDX-License-Identifier tags or null if the file was not parsed
+     */
+    @Nullable
+    List<String> getSpdxLicenses()
+    {
+        return spdxLicenses;
+    }
+
+    /**
+     * @param spdxLicenses license expressions found in SPDX-License-Identifier tags
+     */
+    void setSpdxLicenses( @Nullable List<String> spdxLicenses )
+    {
+        this.spdxLicenses = spdxLicenses;
+    }
+}
@@ -15,25 +15,75 @@
  */
 package org.spdx.maven.utils;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.apache.commons.io.FileUtils;
 
 /**
  * Helper class with static methods to parse SPDX source files
+ * <p>
+ * Files are scanned as a stream of bytes for the ASCII tag {@code SPDX-License-Identifier:} (ignoring case).  Only
+ * the license expressions following the tag are decoded, so the memory used does not depend on the file size.
  *
  * @author Gary O'Neall
  */
 public class SpdxSourceFileParser
 {
-    public static final long MAXIMUM_SOURCE_FILE_LENGTH = 300000; // anything over this will not be parsed for SPDX license IDs
-    protected static final Pattern SPDX_LICENSE_PATTERN = Pattern.compile(
-            "SPDX-License-Identifier:\\s*([^\\n^\\r]+)(\\n|\\r|$)", Pattern.DOTALL | Pattern.CASE_INSENSITIVE );
+    /**
+     * @deprecated files of any size are now scanned - use a header line limit to restrict how much of a file is read
+     */
+    @Deprecated
+    public static final long MAXIMUM_SOURCE_FILE_LENGTH = 300000;
+
+    private static final byte[] SPDX_LICENSE_TAG = "spdx-license-identifier:".getBytes( StandardCharsets.US_ASCII );
+
+    /**
+     * Knuth-Morris-Pratt failure function for the tag - length of the longest proper prefix of the tag which is also
+     * a suffix of the first n + 1 bytes of the tag
+     */
+    private static final int[] SPDX_LICENSE_TAG_FAILURE = new int[SPDX_LICENSE_TAG.length];
+
+    static
+    {
+        int k = 0;
+        for ( int i = 1; i < SPDX_LICENSE_TAG.length; i++ )
+        {
+            while ( k > 0 && SPDX_LICENSE_TAG[i] != SPDX_LICENSE_TAG[k] )
+            {
+                k = SPDX_LICENSE_TAG_FAILURE[k - 1];
+            }
+            if ( SPDX_LICENSE_TAG[i] == SPDX_LICENSE_TAG[k] )
+            {
+                k++;
+            }
+            SPDX_LICENSE_TAG_FAILURE[i] = k;
+        }
+    }
+
+    static final int READ_BUFFER_SIZE = 8192;
+
+    /**
+     * Read buffer reused by all scans on the same thread
+     */
+    private static final ThreadLocal<byte[]> READ_BUFFER = ThreadLocal.withInitial( () -> new byte[READ_BUFFER_SIZE] );
+
+    /**
+     * Maximum length in bytes of a license expression - longer values are not license expressions, e.g. a tag in a
+     * minified file or a parenthesis which is never closed
+     */
+    static final int MAXIMUM_EXPRESSION_LENGTH = 4096;
+
+    private static final int SEARCHING = 0;
+    private static final int SKIPPING_WHITESPACE = 1;
+    private static final int IN_LINE = 2;
+    private static final int IN_EXPRESSION = 3;
 
     /**
      * Parses a text file for matches to SPDX-License-Identifier:
@@ -43,68 +93,198 @@ public class SpdxSourceFileParser
      */
     public static List<String> parseFileForSpdxLicenses( File file ) throws SpdxSourceParserException
     {
-        try
+        return parseFileForSpdxLicenses( file, 0 );
+    }
+
+    /**
+     * Parses the start of a text file for matches to SPDX-License-Identifier:
+     *
+     * @param file        Text file to parse
+     * @param headerLines number of lines at the start of the file to search for identifiers - zero or a negative
+     *                    value searches the entire file
+     * @return list of all license expressions found following SPDX-License-Identifier:
+     */
+    public static List<String> parseFileForSpdxLicenses( File file, int headerLines ) throws SpdxSourceParserException
+    {
+        return parseFileForSpdxLicenses( file.toPath(), headerLines );
+    }
+
+    /**
+     * Parses the start of a text file for matches to SPDX-License-Identifier:
+     *
+     * @param file        Text file to parse
+     * @param headerLines number of lines at the start of the file to search for identifiers - zero or a negative
+     *                    value searches the entire file
+     * @return list of all license expressions found following SPDX-License-Identifier:
+     */
+    public static List<String> parseFileForSpdxLicenses( Path file, int headerLines ) throws SpdxSourceParserException
+    {
+        try ( InputStream is = Files.newInputStream( file ) )
         {
-            return parseTextForSpdxLicenses( FileUtils.readFileToString( file, "utf-8" ) );
+            return parseStreamForSpdxLicenses( is, headerLines );
         }
         catch ( IOException e )
         {
-            throw new SpdxSourceParserException( "I/O error reading text for source file " + file.getName(), e );
+            throw new SpdxSourceParserException( "I/O error reading text for source file " + file.getFileName(), e );
         }
         catch ( SpdxSourceParserException e )
         {
-            throw new SpdxSourceParserException( "Error parsing license text for file " + file.getName(), e );
+            throw new SpdxSourceParserException( "Error parsing license text for file " + file.getFileName(), e );
         }
     }
 
     public static List<String> parseTextForSpdxLicenses( String text ) throws SpdxSourceParserException
+    {
+        try
+        {
+            return parseStreamForSpdxLicenses( new ByteArrayInputStream( text.getBytes( StandardCharsets.UTF_8 ) ), 0 );
+        }
+        catch ( IOException e )
+        {
+            throw new SpdxSourceParserException( "Unexpected I/O error parsing text", e );
+        }
+    }
+
+    /**
+     * Scans a UTF-8 (or any ASCII compatible encoding) stream for matches to SPDX-License-Identifier:
+     * <p>
+     * The expression following the tag extends to the end of the line unless it starts with a parenthesis, in which
+     * case it extends to the matching closing parenthesis and may span several lines.
+     *
+     * @param is          stream to scan - the stream is not closed
+     * @param headerLines number of lines at the start of the stream to search for identifiers - zero or a negative
+     *                    value searches the entire stream
+     * @return list of all license expressions found following SPDX-License-Identifier:
+     * @throws IOException on errors reading the stream
+     * @throws SpdxSourceParserException if a parenthesized expression is not closed or an expression is longer than
+     *                                   MAXIMUM_EXPRESSION_LENGTH bytes
+     */
+    public static List<String> parseStreamForSpdxLicenses( InputStream is, int headerLines ) throws IOException, SpdxSourceParserException
     {
         List<String> retval = new ArrayList<>();
-        Matcher match = SPDX_LICENSE_PATTERN.matcher( text );
-        int pos = 0;
-        while ( pos < text.length() && match.find( pos ) )
+        byte[] buffer = READ_BUFFER.get();
+        byte[] value = new byte[128];
+        int valueLength = 0;
+        int state = SEARCHING;
+        int matched = 0;
+        int parenCount = 0;
+        int lines = 0;
+        byte previous = 0;
+        int bytesRead;
+        scan:
+        while ( ( bytesRead = is.read( buffer ) ) != -1 )
         {
-            String matchingLine = match.group( 1 ).trim();
-            if ( matchingLine.startsWith( "(" ) )
+            for ( int i = 0; i < bytesRead; i++ )
             {
-                // This could be a multi-line expression, so we need to parse until we get to the last ")"
-                int parenCount = 1;
-                StringBuilder sb = new StringBuilder( "(" );
-                pos = match.start( 1 ) + 1;
-                while ( parenCount > 0 && pos < text.length() )
+                byte ch = buffer[i];
+                switch ( state )
                 {
-                    char ch = text.charAt( pos );
-                    if ( ch == '(' )
-                    {
-                        parenCount++;
-                    }
-                    else if ( ch == ')' )
-                    {
-                        parenCount--;
-                    }
-                    if ( ch == '\n' || ch == '\r' )
-                    {
-                        sb.append( ' ' );
-                    }
-                    else
-                    {
-                        sb.append( ch );
-                    }
-                    pos++;
+                    case SEARCHING:
+                        byte lower = ch >= 'A' && ch <= 'Z' ? (byte) ( ch + ( 'a' - 'A' ) ) : ch;
+                        while ( matched > 0 && lower != SPDX_LICENSE_TAG[matched] )
+                        {
+                            matched = SPDX_LICENSE_TAG_FAILURE[matched - 1];
+                        }
+                        if ( lower == SPDX_LICENSE_TAG[matched] )
+                        {
+                            matched++;
+                        }
+                        if ( matched == SPDX_LICENSE_TAG.length )
+                        {
+                            matched = 0;
+                            state = SKIPPING_WHITESPACE;
+                        }
+                        break;
+                    case SKIPPING_WHITESPACE:
+                        if ( !Character.isWhitespace( ch ) )
+                        {
+                            valueLength = 0;
+                            value[valueLength++] = ch;
+                            if ( ch == '(' )
+                            {
+                                parenCount = 1;
+                                state = IN_EXPRESSION;
+                            }
+                            else
+                            {
+                                state = IN_LINE;
+                            }
+                        }
+                        break;
+                    case IN_LINE:
+                        if ( ch == '\n' || ch == '\r' )
+                        {
+                            retval.add( new String( value, 0, valueLength, StandardCharsets.UTF_8 ).trim() );
+                            state = SEARCHING;
+                        }
+                        else
+                        {
+                            if ( valueLength == value.length )
+                            {
+                                value = grow( value );
+                            }
+                            value[valueLength++] = ch;
+                        }
+                        break;
+                    case IN_EXPRESSION:
+                        if ( ch == '(' )
+                        {
+                            parenCount++;
+                        }
+                        else if ( ch == ')' )
+                        {
+                            parenCount--;
+                        }
+                        if ( valueLength == value.length )
+                        {
+                            value = grow( value );
+                        }
+                        value[valueLength++] = ch == '\n' || ch == '\r' ? (byte) ' ' : ch;
+                        if ( parenCount == 0 )
+                        {
+                            retval.add( new String( value, 0, valueLength, StandardCharsets.UTF_8 ) );
+                            state = SEARCHING;
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException( "Unknown scanner state " + state );
                 }
-                if ( parenCount > 0 )
+                // CR, LF and CRLF each end one line
+                boolean lineEnd = ch == '\r' || ( ch == '\n' && previous != '\r' );
+                previous = ch;
+                if ( lineEnd )
                 {
-                    throw new SpdxSourceParserException( "Miss-matched parenthesis for expression" );
+                    lines++;
+                    if ( headerLines > 0 && lines >= headerLines && state == SEARCHING )
+                    {
+                        break scan;
+                    }
                 }
-                matchingLine = sb.toString();
             }
-            else
-            {
-                pos = match.end() + 1;
-            }
-            retval.add( matchingLine );
+        }
+        if ( state == IN_LINE )
+        {
+            retval.add( new String( value, 0, valueLength, StandardCharsets.UTF_8 ).trim() );
+        }
+        else if ( state == IN_EXPRESSION )
+        {
+            throw new SpdxSourceParserException( "Miss-matched parenthesis for expression" );
         }
         return retval;
     }
 
+    /**
+     * @param value buffer for the license expression
+     * @return buffer of twice the size with the content of value
+     * @throws SpdxSourceParserException if the license expression would exceed MAXIMUM_EXPRESSION_LENGTH bytes
+     */
+    private static byte[] grow( byte[] value ) throws SpdxSourceParserException
+    {
+        if ( value.length >= MAXIMUM_EXPRESSION_LENGTH )
+        {
+            throw new SpdxSourceParserException( "License expression longer than " + MAXIMUM_EXPRESSION_LENGTH + " bytes" );
+        }
+        return Arrays.copyOf( value, Math.min( value.length * 2, MAXIMUM_EXPRESSION_LENGTH ) );
+    }
+
 }
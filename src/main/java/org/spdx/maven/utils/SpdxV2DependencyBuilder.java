@@ -4,34 +4,41 @@
  */
 package org.spdx.maven.utils;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
 import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Contributor;
 import org.apache.maven.model.License;
-import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuilder;
 import org.apache.maven.project.ProjectBuildingException;
-import org.apache.maven.project.ProjectBuildingRequest;
-import org.apache.maven.project.ProjectBuildingResult;
-import org.apache.maven.shared.dependency.graph.DependencyNode;
 import org.spdx.core.CoreModelObject;
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.core.SpdxCoreConstants.SpdxMajorVersion;
@@ -39,12 +46,16 @@ import org.spdx.core.SpdxInvalidIdException;
 import org.spdx.jacksonstore.MultiFormatStore;
 import org.spdx.jacksonstore.MultiFormatStore.Format;
 import org.spdx.jacksonstore.MultiFormatStore.Verbose;
+import org.spdx.library.ModelCopyManager;
 import org.spdx.library.model.v2.Checksum;
 import org.spdx.library.model.v2.ExternalDocumentRef;
+import org.spdx.library.model.v2.ExternalRef;
 import org.spdx.library.model.v2.ExternalSpdxElement;
+import org.spdx.library.model.v2.Relationship;
 import org.spdx.library.model.v2.SpdxConstantsCompatV2;
 import org.spdx.library.model.v2.SpdxDocument;
 import org.spdx.library.model.v2.SpdxElement;
+import org.spdx.library.model.v2.SpdxModelFactoryCompatV2;
 import org.spdx.library.model.v2.SpdxPackage;
 import org.spdx.library.model.v2.enumerations.AnnotationType;
 import org.spdx.library.model.v2.enumerations.ChecksumAlgorithm;
@@ -66,7 +77,57 @@ import org.spdx.storage.simple.InMemSpdxStore;
 public class SpdxV2DependencyBuilder
     extends AbstractDependencyBuilder
 {
-    
+
+    /**
+     * Name of the session wide cache of the packages described by the SPDX files of dependencies
+     */
+    private static final String EXTERNAL_SPDX_DOCUMENTS = "v2";
+
+    /**
+     * Maven dependency scopes
+     */
+    private static final List<String> ALL_SCOPES = Arrays.asList( "compile", "provided", "runtime", "system", "test" );
+
+    /**
+     * Gets the packages previously extracted from an SPDX file in the session if the file is unchanged, otherwise
+     * parses the file
+     * @param session Maven session
+     * @param spdxFile SPDX file
+     * @return SPDX document containing only the packages described by the SPDX file
+     * @throws IOException on IO Error
+     * @throws InvalidSPDXAnalysisException on invalid SPDX file
+     */
+    static ExternalSpdxDocumentCache.ExternalDocument<SpdxDocument> externalDocumentFromFile( MavenSession session, File spdxFile ) throws IOException, InvalidSPDXAnalysisException
+    {
+        return ExternalSpdxDocumentCache.<SpdxDocument>forSession( session, EXTERNAL_SPDX_DOCUMENTS ).get( spdxFile,
+                ( file, content ) -> extractDescribedPackages( spdxDocumentFromStream( file, content ) ) );
+    }
+
+    /**
+     * Copies the packages described by an SPDX document without their files and relationships to a new document
+     * with the same namespace, so that the rest of the parsed SPDX file is not kept in memory
+     * @param externalSpdxDoc SPDX document parsed from a dependency SPDX file
+     * @return SPDX document describing only the copied packages
+     * @throws InvalidSPDXAnalysisException on SPDX errors copying the packages
+     */
+    static SpdxDocument extractDescribedPackages( SpdxDocument externalSpdxDoc ) throws InvalidSPDXAnalysisException
+    {
+        SpdxDocument extracted = SpdxModelFactoryCompatV2.createSpdxDocumentV2( new InMemSpdxStore(),
+                externalSpdxDoc.getDocumentUri(), new ModelCopyManager() );
+        for ( SpdxElement described : new ArrayList<>( externalSpdxDoc.getDocumentDescribes() ) )
+        {
+            if ( described instanceof SpdxPackage )
+            {
+                // the parsed document is discarded, so the package is changed to only copy its own properties
+                SpdxPackage pkg = (SpdxPackage) described;
+                pkg.getRelationships().clear();
+                pkg.getFiles().clear();
+                extracted.getDocumentDescribes().add( pkg );
+            }
+        }
+        return extracted;
+    }
+
     /**
      * Creates an SPDX document from a file
      * @param path Path to the SPDX file
@@ -76,14 +137,31 @@ public class SpdxV2DependencyBuilder
      * @throws InvalidSPDXAnalysisException on invalid SPDX file
      */
     protected static SpdxDocument spdxDocumentFromFile( String path ) throws FileNotFoundException, IOException, InvalidSPDXAnalysisException
+    {
+        try ( InputStream inputStream = new FileInputStream( path ) )
+        {
+            return spdxDocumentFromStream( new File( path ), inputStream );
+        }
+    }
+
+    /**
+     * Creates an SPDX document from the content of a file
+     * @param file SPDX file - used to determine the format of the content
+     * @param content content of the SPDX file - not closed
+     * @return an SPDX Spec version 2 document
+     * @throws IOException on IO Error
+     * @throws InvalidSPDXAnalysisException on invalid SPDX file
+     */
+    static SpdxDocument spdxDocumentFromStream( File file, InputStream content ) throws IOException, InvalidSPDXAnalysisException
     {
         ISerializableModelStore modelStore;
-        OutputFormat of = OutputFormat.getOutputFormat( null, new File( path ) );
+        OutputFormat of = OutputFormat.getOutputFormat( null, file );
         
         if (!SpdxMajorVersion.VERSION_2.equals( of.getSpecVersion() )) {
             throw new InvalidSPDXAnalysisException( String.format( "Unsupported file type for SPDX Version 2 SPDX documents: %s", of.getSpecVersion().toString() ));
         }
-        if ( of.getArtifactType().equals( "spdx.json" ) ) 
+        boolean json = of.getArtifactType().equals( "spdx.json" );
+        if ( json ) 
         {
             modelStore = new MultiFormatStore(new InMemSpdxStore(), Format.JSON_PRETTY, Verbose.COMPACT);
         }
@@ -91,8 +169,10 @@ public class SpdxV2DependencyBuilder
         {
             modelStore = new RdfStore();
         }
-        try ( InputStream inputStream = new FileInputStream( path ) ) 
+        try
         {
+            // only the described packages are used - the files and snippets are not deserialized
+            InputStream inputStream = json ? new ByteArrayInputStream( ExternalSpdxJsonFilter.filterSpdxV2Json( content ) ) : content;
             return (SpdxDocument)modelStore.deSerialize( inputStream, false );
         } 
         finally
@@ -149,7 +229,11 @@ public class SpdxV2DependencyBuilder
     private final Map<String, ExternalDocumentRef> externalDocuments = new HashMap<>();
     private final SpdxDocument spdxDoc;
     private final SpdxV2LicenseManager licenseManager;
-    private final Map<LicenseOverwrite, AnyLicenseInfo> licenseOverwrites = new HashMap<>();
+    /**
+     * SPDX licenses converted from the Maven license lists of the dependencies
+     */
+    private final MavenLicenseListCache<AnyLicenseInfo> licenseCache;
+    private final LicenseOverwriteIndex<AnyLicenseInfo> licenseOverwrites = new LicenseOverwriteIndex<>();
 
     /**
      * Construct an SpdxV2DependencyBuilder
@@ -167,20 +251,26 @@ public class SpdxV2DependencyBuilder
         super( createExternalRefs, generatePurls, useArtifactID, includeTransitiveDependencies );
         this.spdxDoc = builder.getSpdxDoc();
         this.licenseManager = builder.getLicenseManager();
+        this.licenseCache = new MavenLicenseListCache<>( getGraphStatistics() );
     }
 
     @Override
-    protected void addMavenDependency( CoreModelObject parentPackage, DependencyNode dependencyNode, 
-                                       ProjectBuilder mavenProjectBuilder,
-                                       MavenSession session, MavenProject mavenProject )
+    CoreModelObject createDependencyElement( Artifact dependency, ProjectBuilder mavenProjectBuilder,
+                                             MavenSession session, MavenProject mavenProject )
          throws LicenseMapperException, InvalidSPDXAnalysisException
+    {
+        return createSpdxPackage( dependency, mavenProjectBuilder, session, mavenProject, useArtifactID );
+    }
+
+    @Override
+    void addDependencyRelationship( CoreModelObject parentPackage, CoreModelObject dependencyElement,
+                                    Artifact dependency ) throws InvalidSPDXAnalysisException
      {
          if ( !(parentPackage instanceof SpdxPackage) )
          {
              LOG.error( "Invalid type for parent package.  Expected 'SpdxPackage', found {}", parentPackage.getClass().getName() );
              return;
          }
-         Artifact dependency = dependencyNode.getArtifact();
          String scope = dependency.getScope();
          RelationshipType relType = scopeToRelationshipType( scope, dependency.isOptional() );
          if ( relType == RelationshipType.OTHER )
@@ -188,8 +278,7 @@ public class SpdxV2DependencyBuilder
              LOG.warn( "Could not determine the SPDX relationship type for dependency artifact ID {} scope {}", dependency.getArtifactId(), scope );
          }
 
-         SpdxElement dependencyPackage = createSpdxPackage( dependency, mavenProjectBuilder, session, 
-                                                            mavenProject, useArtifactID );
+         SpdxElement dependencyPackage = (SpdxElement) dependencyElement;
 
          if ( relType.toString().endsWith( "_OF" ) )
          {
@@ -212,12 +301,272 @@ public class SpdxV2DependencyBuilder
              ((SpdxPackage)parentPackage).addRelationship( spdxDoc.createRelationship( dependencyPackage, relType,
                              "Relationship based on Maven POM file dependency information" ) );
          }
-
-         if ( includeTransitiveDependencies ) {
-             addMavenDependencies( mavenProjectBuilder, session, mavenProject, dependencyNode, dependencyPackage );
-         }
      }
+
+    @Override
+    boolean canHaveDependencies( CoreModelObject dependencyElement )
+    {
+        return dependencyElement instanceof SpdxPackage;
+    }
     
+    /**
+     * Adds the packages and relationships reachable from the package described by the SPDX file of the module.
+     * Packages are identified by the Maven group:artifact:version from their Package URL or by their name and version
+     * so that packages already added for other modules or Maven dependencies are reused.
+     * <p>
+     * Modules whose SPDX documents reference external SPDX documents are not supported since the references are
+     * only valid within the module document.
+     * <p>
+     * The Maven scope of a dependency is only recorded as the relationship type (see scopeToRelationshipType).
+     * Relationships whose scopes are all excluded by the artifact filter are skipped.  Modules with a relationship
+     * which may come from both included and excluded scopes use the Maven dependency graph for the module.
+     */
+    @Override
+    public boolean addModuleDependencies( MavenProject module, File moduleSpdxFile, CoreModelObject pkg,
+                                          @Nullable ArtifactFilter artifactFilter ) throws InvalidSPDXAnalysisException
+    {
+        if ( !( pkg instanceof SpdxPackage ) )
+        {
+            return false;
+        }
+        SpdxDocument moduleDoc;
+        SpdxPackage modulePackage;
+        try
+        {
+            // the relationships between the packages are needed, so the module document is not cached
+            moduleDoc = spdxDocumentFromFile( moduleSpdxFile.getPath() );
+            if ( !moduleDoc.getExternalDocumentRefs().isEmpty() )
+            {
+                LOG.info( "SPDX file {} for module {} references external SPDX documents.  Using the Maven dependency graph for the module.",
+                        moduleSpdxFile.getPath(), module.getArtifactId() );
+                return false;
+            }
+            String name = module.getName();
+            if ( name == null || name.isEmpty() || useArtifactID )
+            {
+                name = module.getGroupId() + ":" + module.getArtifactId();
+            }
+            modulePackage = findMatchingDescribedPackage( moduleDoc, name );
+            if ( artifactFilter != null && hasPartiallyIncludedScope( modulePackage, artifactFilter ) )
+            {
+                LOG.info( "The scopes of the dependencies in SPDX file {} for module {} can not be matched to the included scopes.  Using the Maven dependency graph for the module.",
+                        moduleSpdxFile.getPath(), module.getArtifactId() );
+                return false;
+            }
+        }
+        catch ( IOException | InvalidSPDXAnalysisException e )
+        {
+            LOG.warn( "Error reading SPDX file {} for module {}:{}.  Using the Maven dependency graph for the module.",
+                    moduleSpdxFile.getPath(), module.getArtifactId(), e.getMessage() );
+            return false;
+        }
+        String comment = "Relationship copied from the SPDX document for module " + module.getArtifactId();
+        Deque<ModulePackage> pending = new ArrayDeque<>();
+        pending.push( new ModulePackage( modulePackage, (SpdxPackage) pkg, 0 ) );
+        while ( !pending.isEmpty() )
+        {
+            ModulePackage parent = pending.pop();
+            int depth = parent.depth + 1;
+            List<ModulePackage> children = new ArrayList<>();
+            for ( Relationship relationship : parent.source.getRelationships() )
+            {
+                Optional<SpdxElement> related = relationship.getRelatedSpdxElement();
+                if ( !related.isPresent() || !( related.get() instanceof SpdxPackage ) ||
+                        related.get().getId().equals( parent.source.getId() ) )
+                {
+                    continue;
+                }
+                if ( artifactFilter != null &&
+                        includedScopeCount( relationship.getRelationshipType(), artifactFilter ) == 0 )
+                {
+                    continue;
+                }
+                SpdxPackage source = (SpdxPackage) related.get();
+                String key = packageKey( source );
+                CoreModelObject element = visitDependency( key, depth );
+                if ( element == null )
+                {
+                    element = copyPackageInfo( moduleDoc, source );
+                    dependencyElementCreated( key, element );
+                }
+                if ( isNewDependencyRelationship( parent.copy, key ) )
+                {
+                    parent.copy.addRelationship( spdxDoc.createRelationship( (SpdxElement) element,
+                            relationship.getRelationshipType(), relationship.getComment().orElse( comment ) ) );
+                }
+                if ( includeTransitiveDependencies && element instanceof SpdxPackage &&
+                        !source.getRelationships().isEmpty() && expandDependency( key, depth ) )
+                {
+                    children.add( new ModulePackage( source, (SpdxPackage) element, depth ) );
+                }
+            }
+            // pushed in reverse so the packages are added in the order of the module document
+            for ( int i = children.size() - 1; i >= 0; i-- )
+            {
+                pending.push( children.get( i ) );
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param modulePackage package described by the SPDX document of a module
+     * @param artifactFilter scope filter for the dependencies
+     * @return true if a relationship reachable from the module package may come from both included and excluded
+     *         scopes
+     * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+     */
+    private static boolean hasPartiallyIncludedScope( SpdxPackage modulePackage, ArtifactFilter artifactFilter )
+            throws InvalidSPDXAnalysisException
+    {
+        Set<String> visited = new HashSet<>();
+        visited.add( modulePackage.getId() );
+        Deque<SpdxPackage> pending = new ArrayDeque<>();
+        pending.push( modulePackage );
+        while ( !pending.isEmpty() )
+        {
+            for ( Relationship relationship : pending.pop().getRelationships() )
+            {
+                Optional<SpdxElement> related = relationship.getRelatedSpdxElement();
+                if ( !related.isPresent() || !( related.get() instanceof SpdxPackage ) )
+                {
+                    continue;
+                }
+                int included = includedScopeCount( relationship.getRelationshipType(), artifactFilter );
+                if ( included > 0 && included < relationshipTypeToScopes( relationship.getRelationshipType() ).size() )
+                {
+                    return true;
+                }
+                if ( included > 0 && visited.add( related.get().getId() ) )
+                {
+                    pending.push( (SpdxPackage) related.get() );
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param relationshipType type of a relationship between packages
+     * @param artifactFilter scope filter for the dependencies
+     * @return number of the scopes translated to the relationship type which are included by the filter
+     */
+    private static int includedScopeCount( RelationshipType relationshipType, ArtifactFilter artifactFilter )
+    {
+        List<String> scopes = relationshipTypeToScopes( relationshipType );
+        int included = 0;
+        for ( String scope : scopes )
+        {
+            if ( artifactFilter.include( new DefaultArtifact( "scope", "scope", "1", scope, "jar", null,
+                    new DefaultArtifactHandler( "jar" ) ) ) )
+            {
+                included++;
+            }
+        }
+        return included;
+    }
+
+    /**
+     * Translate the SPDX relationship type to the Maven scopes it is created for by scopeToRelationshipType
+     *
+     * @param relationshipType type of a relationship between packages
+     * @return Maven scopes translated to the relationship type, all the scopes for relationship types not created
+     *         from Maven scopes
+     */
+    private static List<String> relationshipTypeToScopes( RelationshipType relationshipType )
+    {
+        switch ( relationshipType )
+        {
+            case DYNAMIC_LINK:
+                return Arrays.asList( "compile", "runtime" );
+            case TEST_DEPENDENCY_OF:
+                return Collections.singletonList( "test" );
+            case OTHER:
+                return Arrays.asList( "provided", "system" );
+            default:
+                // optional dependencies of any scope and relationships added by other tools
+                return ALL_SCOPES;
+        }
+    }
+
+    /**
+     * @param pkg SPDX package
+     * @return group:artifact:version from the Maven Package URL of the package if present, otherwise the name and
+     *         version of the package
+     * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+     */
+    private static String packageKey( SpdxPackage pkg ) throws InvalidSPDXAnalysisException
+    {
+        for ( ExternalRef externalRef : pkg.getExternalRefs() )
+        {
+            if ( externalRef.getReferenceType().getIndividualURI().endsWith( "/purl" ) )
+            {
+                String gav = purlToGav( externalRef.getReferenceLocator() );
+                if ( gav != null )
+                {
+                    return gav;
+                }
+            }
+        }
+        return pkg.getName().orElse( pkg.getId() ) + ":" + pkg.getVersionInfo().orElse( "" );
+    }
+
+    /**
+     * @param purl Package URL
+     * @return group:artifact:version for a Maven Package URL or null if the purl is not a Maven Package URL
+     */
+    static @Nullable String purlToGav( String purl )
+    {
+        String prefix = "pkg:maven/";
+        if ( !purl.startsWith( prefix ) )
+        {
+            return null;
+        }
+        String path = purl.substring( prefix.length() );
+        int end = path.length();
+        for ( char separator : new char[] { '?', '#' } )
+        {
+            int index = path.indexOf( separator );
+            if ( index >= 0 && index < end )
+            {
+                end = index;
+            }
+        }
+        path = path.substring( 0, end );
+        int slash = path.lastIndexOf( '/' );
+        int at = path.indexOf( '@', slash + 1 );
+        if ( slash <= 0 || at < 0 )
+        {
+            return null;
+        }
+        return URLDecoder.decode( path.substring( 0, slash ), StandardCharsets.UTF_8 ) + ":" +
+                URLDecoder.decode( path.substring( slash + 1, at ), StandardCharsets.UTF_8 ) + ":" +
+                URLDecoder.decode( path.substring( at + 1 ), StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * Package in a module SPDX document waiting to have its dependencies added
+     */
+    private static class ModulePackage
+    {
+        private final SpdxPackage source;
+        private final SpdxPackage copy;
+        private final int depth;
+
+        private ModulePackage( SpdxPackage source, SpdxPackage copy, int depth )
+        {
+            this.source = source;
+            this.copy = copy;
+            this.depth = depth;
+        }
+    }
+
+    @Override
+    boolean hasSpdxDocument( Artifact artifact )
+    {
+        return artifactFileToSpdxFile( artifact.getFile(), SpdxMajorVersion.VERSION_2 ) != null;
+    }
+
     /**
      * Translate the scope to the SPDX relationship type
      *
@@ -384,15 +733,15 @@ public class SpdxV2DependencyBuilder
                 LOG.debug( "Dependency {}Dependency information collected from SPDX file {}",
                         artifact.getArtifactId(), spdxFile.getAbsolutePath() );
                 
-                SpdxDocument externalSpdxDoc = spdxDocumentFromFile( spdxFile.getPath() );
+                ExternalSpdxDocumentCache.ExternalDocument<SpdxDocument> externalDocument = externalDocumentFromFile( session, spdxFile );
                 if ( createExternalRefs )
                 {
-                    return createExternalSpdxPackageReference( externalSpdxDoc, spdxFile, artifact.getGroupId(), 
+                    return createExternalSpdxPackageReference( externalDocument, artifact.getGroupId(), 
                                                                artifact.getArtifactId(), artifact.getVersion() );
                 } 
                 else
                 {
-                    return copyPackageInfoFromExternalDoc( externalSpdxDoc, artifact.getArtifactId() );
+                    return copyPackageInfoFromExternalDoc( externalDocument.getDocument(), artifact.getArtifactId() );
                 }
             }
             catch ( IOException e )
@@ -410,11 +759,6 @@ public class SpdxV2DependencyBuilder
                 LOG.warn( "Invalid SPDX analysis exception reading SPDX document for dependency artifact ID {}:{}.  Using POM file information for creating SPDX package data.",
                         artifact.getArtifactId(), e.getMessage() );
             }
-            catch ( SpdxCollectionException e )
-            {
-                LOG.warn( "Unable to create file checksum for external SPDX document for dependency artifact ID {}:{}.  Using POM file information for creating SPDX package data.",
-                        artifact.getArtifactId(), e.getMessage() );
-            }
             catch ( Exception e )
             {
                 LOG.warn( "Unknown error processing SPDX document for dependency artifact ID {}:{}.  Using POM file information for creating SPDX package data.",
@@ -423,17 +767,7 @@ public class SpdxV2DependencyBuilder
         }
         try
         {
-            ProjectBuildingRequest request = new DefaultProjectBuildingRequest( session.getProjectBuildingRequest() );
-            request.setProcessPlugins( false );
-            request.setRemoteRepositories( mavenProject.getRemoteArtifactRepositories() );
-            for ( ArtifactRepository ar : request.getRemoteRepositories() ) {
-                LOG.debug( "request Remote repository ID: {}", ar.getId() );
-            }
-            for ( ArtifactRepository ar : mavenProject.getRemoteArtifactRepositories() ) {
-                LOG.debug( "Project Remote repository ID: {}", ar.getId() );
-            }
-            ProjectBuildingResult build = mavenProjectBuilder.build( artifact, request );
-            MavenProject depProject = build.getProject();
+            MavenProject depProject = getDependencyProject( artifact, mavenProjectBuilder, session, mavenProject );
             LOG.debug( "Dependency {}Collecting information from project metadata for {}", artifact.getArtifactId(),
                     depProject.getArtifactId() );
             return createSpdxPackage( depProject, useArtifactID );
@@ -473,21 +807,19 @@ public class SpdxV2DependencyBuilder
     /**
      * Create and return an external document reference for an existing package in an SPDX document
      *
-     * @param externalSpdxDoc       SPDX Document containing the package to be referenced.
-     * @param spdxFile      SPDX file containing the SPDX document
+     * @param externalDocument      SPDX Document containing the package to be referenced parsed from the SPDX file
      * @param groupId Group ID for the external artifact
      * @param artifactId Artifact ID for the external artifact
      * @param version version for the external artifact
      * @return created SPDX element
-     * @throws SpdxCollectionException on incompatible types for collections
      * @throws InvalidSPDXAnalysisException on SPDX parsing errors
      */
-    private SpdxElement createExternalSpdxPackageReference( SpdxDocument externalSpdxDoc, 
-                                                            File spdxFile, 
+    private SpdxElement createExternalSpdxPackageReference( ExternalSpdxDocumentCache.ExternalDocument<SpdxDocument> externalDocument, 
                                                             String groupId,
                                                             String artifactId,
-                                                            @Nullable String version ) throws SpdxCollectionException, InvalidSPDXAnalysisException
+                                                            @Nullable String version ) throws InvalidSPDXAnalysisException
     {
+        SpdxDocument externalSpdxDoc = externalDocument.getDocument();
         String externalDocNamespace = externalSpdxDoc.getDocumentUri();
         ExternalDocumentRef externalRef = this.externalDocuments.get( externalDocNamespace );
         StringBuilder sb = new StringBuilder( groupId ).append( artifactId );
@@ -499,7 +831,7 @@ public class SpdxV2DependencyBuilder
         {
             String externalRefDocId = SpdxConstantsCompatV2.EXTERNAL_DOC_REF_PRENUM + fixExternalRefId( fullArtifactId );
             LOG.debug( "Creating external document ref {}", externalDocNamespace );
-            org.spdx.maven.Checksum mavenChecksum = AbstractFileCollector.generateSha1( spdxFile );
+            org.spdx.maven.Checksum mavenChecksum = externalDocument.getSha1();
             Checksum cksum = spdxDoc.createChecksum( ChecksumAlgorithm.valueOf( mavenChecksum.getAlgorithm() ),
                                                      mavenChecksum.getValue() );
             externalRef = spdxDoc.createExternalDocumentRef( externalRefDocId, externalSpdxDoc.getDocumentUri(), cksum );
@@ -526,7 +858,18 @@ public class SpdxV2DependencyBuilder
      */
     private SpdxPackage copyPackageInfoFromExternalDoc( SpdxDocument externalSpdxDoc, String artifactId ) throws InvalidSPDXAnalysisException
     {
-        SpdxPackage source = findMatchingDescribedPackage( externalSpdxDoc, artifactId );
+        return copyPackageInfo( externalSpdxDoc, findMatchingDescribedPackage( externalSpdxDoc, artifactId ) );
+    }
+
+    /**
+     * Copies a package in the externalSpdxDoc to the returned element without its files and relationships
+     * @param externalSpdxDoc SPDX document to copy from
+     * @param source package to copy
+     * @return SPDX Package with values copied from the source package
+     * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+     */
+    private SpdxPackage copyPackageInfo( SpdxDocument externalSpdxDoc, SpdxPackage source ) throws InvalidSPDXAnalysisException
+    {
         Optional<String> downloadLocation = source.getDownloadLocation();
         Optional<String> name = source.getName();
         SpdxPackage dest = spdxDoc.createPackage( IdGenerator.getIdGenerator().generateId( externalSpdxDoc.getId() + source.getName() ),
@@ -614,7 +957,7 @@ public class SpdxV2DependencyBuilder
     }
     
     /**
-     * Convert a list of Maven licenses to an SPDX License
+     * Convert a list of Maven licenses to an SPDX License reusing the license converted for an identical list
      *
      * @param mavenLicenses List of maven licenses to map
      * @return SPDX license equivalent to the list of Maven licenses
@@ -622,6 +965,11 @@ public class SpdxV2DependencyBuilder
      * @throws InvalidSPDXAnalysisException on SPDX parsing errors
      */
     private AnyLicenseInfo mavenLicensesToSpdxLicense( List<License> mavenLicenses ) throws LicenseMapperException, InvalidSPDXAnalysisException
+    {
+        return licenseCache.convert( mavenLicenses, this::convertMavenLicenses );
+    }
+
+    private AnyLicenseInfo convertMavenLicenses( List<License> mavenLicenses ) throws LicenseMapperException, InvalidSPDXAnalysisException
     {
         try
         {
@@ -641,18 +989,15 @@ public class SpdxV2DependencyBuilder
     /**
      * @param licenseOverwrite the configured license overwrite
      * @param parsedLicense the the parsed licenseString of the licenseOverwrite
+     * @throws IllegalArgumentException if an overwrite for the same dependency versions and target was already added
      */
     public void addLicenseOverwrite( LicenseOverwrite licenseOverwrite, AnyLicenseInfo parsedLicense )
     {
-        this.licenseOverwrites.put( licenseOverwrite, parsedLicense );
+        this.licenseOverwrites.add( licenseOverwrite, parsedLicense );
     }
 
     Optional<AnyLicenseInfo> applyLicenseOverwrites( MavenProject mavenProject, String target )
     {
-        return licenseOverwrites.entrySet().stream()
-                .filter( (overwrite) -> overwrite.getKey().appliesTo( mavenProject, target ) )
-                .reduce( (a, b) -> {
-            throw new IllegalStateException( "multiple matching license overwrites: " + a.getKey() + " vs. " + b.getKey() );
-        } ).map( Map.Entry::getValue );
+        return licenseOverwrites.find( mavenProject, target );
     }
 }
@@ -4,10 +4,12 @@
  */
 package org.spdx.maven.utils;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
@@ -65,6 +67,7 @@ public class SpdxV2DocumentBuilder
     protected SpdxDocument spdxDoc;
     protected SpdxV2LicenseManager licenseManager;
     protected SpdxPackage projectPackage;
+    protected boolean streamingOutput = false;
     
     /**
      * @param mavenProject             Maven project
@@ -98,6 +101,15 @@ public class SpdxV2DocumentBuilder
         licenseManager = new SpdxV2LicenseManager( spdxDoc);
     }
 
+    /**
+     * @param streamingOutput if true, SPDX JSON documents are written a chunk of packages, files and snippets at a
+     *                        time rather than from a JSON tree of the complete document
+     */
+    public void setStreamingOutput( boolean streamingOutput )
+    {
+        this.streamingOutput = streamingOutput;
+    }
+
     /**
      * @return the SPDX Document
      */
@@ -370,6 +382,7 @@ public class SpdxV2DocumentBuilder
                                             Set<String> checksumAlgorithms ) throws SpdxBuilderException
     {
         SpdxV2FileCollector fileCollector = new SpdxV2FileCollector();
+        configureFileCollector( fileCollector );
         try
         {
             fileCollector.collectFiles( sources, baseDir, defaultFileInformation,
@@ -400,9 +413,17 @@ public class SpdxV2DocumentBuilder
     @Override
     public void saveSpdxDocumentToFile() throws SpdxBuilderException
     {
-        try ( FileOutputStream spdxOut = new FileOutputStream( spdxFile ) )
+        try ( OutputStream spdxOut = new BufferedOutputStream( new FileOutputStream( spdxFile ), OUTPUT_BUFFER_SIZE ) )
         {
-            modelStore.serialize( spdxOut );
+            if ( streamingOutput && outputFormatEnum == OutputFormat.JSON )
+            {
+                new StreamingSpdxV2JsonWriter( modelStore, StreamingSpdxV2JsonWriter.DEFAULT_CHUNK_SIZE )
+                        .write( spdxDoc.getDocumentUri(), spdxOut );
+            }
+            else
+            {
+                modelStore.serialize( spdxOut );
+            }
         }
         catch ( FileNotFoundException e )
         {
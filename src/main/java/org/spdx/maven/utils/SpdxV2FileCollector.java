@@ -15,14 +15,11 @@
  */
 package org.spdx.maven.utils;
 
-import java.io.File;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 import org.apache.maven.shared.model.fileset.FileSet;
-import org.apache.maven.shared.model.fileset.util.FileSetManager;
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.library.LicenseInfoFactory;
 import org.spdx.library.model.v2.Relationship;
@@ -39,8 +36,6 @@ import org.spdx.library.model.v2.license.InvalidLicenseStringException;
 import org.spdx.maven.Checksum;
 import org.spdx.maven.SnippetInfo;
 
-import javax.annotation.Nullable;
-
 
 /**
  * Collects SPDX file information from directories in SPDX Spec version 2 format
@@ -57,10 +52,16 @@ public class SpdxV2FileCollector extends AbstractFileCollector
     /**
      * Map of fileName, SPDXFile for all files in the SPDX document
      */
-    Map<String, SpdxFile> spdxFiles = new HashMap<>();
+    Map<String, SpdxFile> spdxFiles = new LinkedHashMap<>();
     List<SpdxSnippet> spdxSnippets = new ArrayList<>();
-
-    FileSetManager fileSetManager = new FileSetManager();
+    /**
+     * License expressions already parsed for the SPDX document
+     */
+    private final LicenseExpressionCache<AnyLicenseInfo> licenseCache = new LicenseExpressionCache<>();
+    /**
+     * SHA1 checksums of the collected files used for the package verification code
+     */
+    private final VerificationCodeAccumulator verificationCode = new VerificationCodeAccumulator();
 
     /**
      * SpdxFileCollector collects SPDX file information for files
@@ -83,90 +84,36 @@ public class SpdxV2FileCollector extends AbstractFileCollector
      *
      * @throws SpdxCollectionException on incompatible types in an SPDX collection
      */
-    @SuppressWarnings("DuplicateExpressions")
     public void collectFiles(List<FileSet> fileSets, String baseDir,
                              SpdxDefaultFileInformation defaultFileInformation,
                              Map<String, SpdxDefaultFileInformation> pathSpecificInformation,
                              SpdxPackage projectPackage, RelationshipType relationshipType,
                              SpdxDocument spdxDoc, Set<String> algorithms ) throws SpdxCollectionException
     {
-        for ( FileSet fileSet : fileSets )
-        {
-            String[] includedFiles = fileSetManager.getIncludedFiles( fileSet );
-            for ( String includedFile : includedFiles )
-            {
-                String filePath = fileSet.getDirectory() + File.separator + includedFile;
-                File file = new File( filePath );
-                String relativeFilePath = toRelativeFilePath( file, baseDir );
-                SpdxDefaultFileInformation fileInfo = findDefaultFileInformation( relativeFilePath,
-                        pathSpecificInformation );
-                if ( fileInfo == null )
-                {
-                    fileInfo = defaultFileInformation;
-                }
-                String outputFileName = Objects.nonNull( fileSet.getOutputDirectory() ) ?
-                        fileSet.getOutputDirectory() + File.separator + includedFile : relativeFilePath;
-                collectFile( file, outputFileName, fileInfo, relationshipType, projectPackage, spdxDoc, algorithms );
-            }
-        }
-    }
-
-    /**
-     * Find the most appropriate file information based on the lowest level match (closed to file)
-     *
-     * @param filePath                file path for possible file path specific information
-     * @param pathSpecificInformation information to be applied to the file path
-     * @return                        default SPDX parameters for a given file path or null if package level defaults are to be used
-     */
-    private @Nullable SpdxDefaultFileInformation findDefaultFileInformation(String filePath, Map<String, SpdxDefaultFileInformation> pathSpecificInformation )
-    {
-        LOG.debug( "Checking for file path {}", filePath );
-        SpdxDefaultFileInformation retval = pathSpecificInformation.get( filePath );
-        if ( retval != null )
-        {
-            LOG.debug( "Found filepath" );
-            return retval;
-        }
-        // see if any of the parent directories contain default information which should be used
-        String parentPath = filePath;
-        int parentPathIndex;
-        do
-        {
-            parentPathIndex = parentPath.lastIndexOf( "/" );
-            if ( parentPathIndex > 0 )
-            {
-                parentPath = parentPath.substring( 0, parentPathIndex );
-                retval = pathSpecificInformation.get( parentPath );
-            }
-        } while ( retval == null && parentPathIndex > 0 );
-        if ( retval != null )
-        {
-            LOG.debug( "Found directory containing file path for path specific information.  File path: {}",
-                    parentPath );
-        }
-        return retval;
+        collectFileSets( fileSets, baseDir, defaultFileInformation, pathSpecificInformation, algorithms,
+                scannedFile -> collectFile( scannedFile, relationshipType, projectPackage, spdxDoc ) );
     }
 
     /**
      * Collect SPDX information for a specific file
      *
-     * @param file             File to collect SPDX information about
-     * @param outputFileName   Path to the output file name relative to the root of the output archive file
+     * @param scannedFile      File to collect SPDX information about including the results of the file scan
      * @param relationshipType Type of relationship to the project package
      * @param projectPackage   Package to which the files belong
      * @param spdxDoc          SPDX Document which will contain the files
-     * @param algorithms       algorithms to use to generate checksums
      * @throws SpdxCollectionException on incompatible type errors in an SPDX collection
      */
-    private void collectFile( File file, String outputFileName, SpdxDefaultFileInformation fileInfo, 
-                              RelationshipType relationshipType, SpdxPackage projectPackage, 
-                              SpdxDocument spdxDoc, Set<String> algorithms ) throws SpdxCollectionException
+    private void collectFile( ScannedFile scannedFile, RelationshipType relationshipType,
+                              SpdxPackage projectPackage, SpdxDocument spdxDoc ) throws SpdxCollectionException
     {
-        if ( spdxFiles.containsKey( file.getPath() ) )
+        Path file = scannedFile.getPath();
+        SpdxDefaultFileInformation fileInfo = scannedFile.getFileInfo();
+        if ( spdxFiles.containsKey( file.toString() ) )
         {
             return; // already added from a previous scan
         }
-        SpdxFile spdxFile = convertToSpdxFile( file, outputFileName, fileInfo, algorithms, spdxDoc );
+        String sha1Value = getSha1( scannedFile );
+        SpdxFile spdxFile = convertToSpdxFile( scannedFile, sha1Value, spdxDoc );
         try
         {
             Relationship relationship = spdxDoc.createRelationship( projectPackage, relationshipType, "" );
@@ -204,7 +151,8 @@ public class SpdxV2FileCollector extends AbstractFileCollector
                 spdxSnippets.add( spdxSnippet );
             }
         }
-        spdxFiles.put( file.getPath(), spdxFile );
+        spdxFiles.put( file.toString(), spdxFile );
+        verificationCode.add( convertFilePathToSpdxFileName( scannedFile.getOutputFileName() ), sha1Value );
         Collection<AnyLicenseInfo> licenseInfoFromFiles;
         try
         {
@@ -229,13 +177,9 @@ public class SpdxV2FileCollector extends AbstractFileCollector
     private SpdxSnippet convertToSpdxSnippet( SnippetInfo snippet, SpdxFile spdxFile, SpdxDocument spdxDoc ) throws SpdxBuilderException, InvalidSPDXAnalysisException
     {
         //TODO: Add annotations to snippet
-        AnyLicenseInfo concludedLicense = LicenseInfoFactory.parseSPDXLicenseStringCompatV2(  snippet.getLicenseConcluded(), spdxDoc.getModelStore(), 
-                                                                                             spdxDoc.getDocumentUri(), spdxDoc.getCopyManager() );
+        AnyLicenseInfo concludedLicense = parseLicense( snippet.getLicenseConcluded(), spdxDoc );
         List<AnyLicenseInfo> licenseInfoInSnippet = new ArrayList<>();
-        licenseInfoInSnippet.add( LicenseInfoFactory.parseSPDXLicenseStringCompatV2( snippet.getLicenseInfoInSnippet(), 
-                                                                                     spdxDoc.getModelStore(), 
-                                                                                     spdxDoc.getDocumentUri(), 
-                                                                                     spdxDoc.getCopyManager() ) );
+        licenseInfoInSnippet.add( parseLicense( snippet.getLicenseInfoInSnippet(), spdxDoc ) );
         return spdxDoc.createSpdxSnippet( IdGenerator.getIdGenerator().generateId( spdxFile.getId() + snippet.getByteRangeStart() ),
                                                         snippet.getName(), concludedLicense,
                                                         licenseInfoInSnippet,
@@ -248,45 +192,58 @@ public class SpdxV2FileCollector extends AbstractFileCollector
     }
 
     /**
-     * @param file                   File to be to convert to SPDX file metadata
-     * @param outputFileName         Path to the output file name relative to the root of the output archive file
-     * @param defaultFileInformation Information on default SPDX field data for the files
-     * @param algorithms             algorithms to use to generate checksums
+     * Parse a license expression reusing any license already parsed for the same expression in the document
+     *
+     * @param expression license expression
+     * @param spdxDoc    SPDX document which will contain the license
+     * @return the parsed license
+     * @throws InvalidSPDXAnalysisException on errors parsing the expression
+     */
+    private AnyLicenseInfo parseLicense( String expression, SpdxDocument spdxDoc ) throws InvalidSPDXAnalysisException
+    {
+        return licenseCache.parse( spdxDoc, expression,
+                expr -> LicenseInfoFactory.parseSPDXLicenseStringCompatV2( expr, spdxDoc.getModelStore(),
+                        spdxDoc.getDocumentUri(), spdxDoc.getCopyManager() ) );
+    }
+
+    /**
+     * @param scannedFile scanned file
+     * @return the SHA1 checksum value for the file
+     */
+    private String getSha1( ScannedFile scannedFile )
+    {
+        for ( Checksum checksum : scannedFile.getChecksums() )
+        {
+            if ( ChecksumAlgorithm.SHA1.toString().equals( checksum.getAlgorithm() ) )
+            {
+                return checksum.getValue();
+            }
+        }
+        LOG.error( "No SHA1 checksum was found for file {}", scannedFile.getPath().getFileName() );
+        return DEFAULT_SHA1_VALUE;
+    }
+
+    /**
+     * @param scannedFile            File to be converted to SPDX file metadata including the results of the file scan
+     * @param sha1Value              SHA1 checksum value of the file
      * @param spdxDoc                SPDX document which will contain the SPDX file
      * @return                       SPDX file based on file and default file information
      * @throws SpdxCollectionException on incompatible class types in an SPDX collection
      */
-    private SpdxFile convertToSpdxFile( File file, String outputFileName, 
-                                        SpdxDefaultFileInformation defaultFileInformation, 
-                                        Set<String> algorithms,
-                                        SpdxDocument spdxDoc ) throws SpdxCollectionException
+    private SpdxFile convertToSpdxFile( ScannedFile scannedFile, String sha1Value, SpdxDocument spdxDoc ) throws SpdxCollectionException
     {
+        Path file = scannedFile.getPath();
+        String outputFileName = scannedFile.getOutputFileName();
+        SpdxDefaultFileInformation defaultFileInformation = scannedFile.getFileInfo();
         String relativePath = convertFilePathToSpdxFileName( outputFileName );
         ArrayList<FileType> fileTypes = new ArrayList<>();
         fileTypes.add( extensionToFileType( getExtension( file ) ) );
-        Set<Checksum> checksums;
-        try
-        {
-            checksums = generateChecksum( file, algorithms );
-        }
-        catch ( SpdxCollectionException | InvalidSPDXAnalysisException e1 )
-        {
-            throw new SpdxCollectionException( "Unable to generate checksum for file "+file.getName() );
-        }
         AnyLicenseInfo concludedLicense;
         AnyLicenseInfo license = null;
         String licenseComment = defaultFileInformation.getLicenseComment();
-        if ( isSourceFile( fileTypes ) && file.length() < SpdxSourceFileParser.MAXIMUM_SOURCE_FILE_LENGTH )
+        if ( isSourceFile( fileTypes ) )
         {
-            List<String> fileSpdxLicenses = null;
-            try
-            {
-                fileSpdxLicenses = SpdxSourceFileParser.parseFileForSpdxLicenses( file );
-            }
-            catch ( SpdxSourceParserException ex )
-            {
-                LOG.error( "Error parsing for SPDX license ID's", ex );
-            }
+            List<String> fileSpdxLicenses = scannedFile.getSpdxLicenses();
             if ( fileSpdxLicenses != null && !fileSpdxLicenses.isEmpty())
             {
                 // The file has declared licenses of the form SPDX-License-Identifier: licenseId
@@ -294,27 +251,21 @@ public class SpdxV2FileCollector extends AbstractFileCollector
                 {
                     if ( fileSpdxLicenses.size() == 1 )
                     {
-                        license = LicenseInfoFactory.parseSPDXLicenseStringCompatV2( fileSpdxLicenses.get( 0 ),
-                                spdxDoc.getModelStore(),
-                                spdxDoc.getDocumentUri(),
-                                spdxDoc.getCopyManager() );
+                        license = parseLicense( fileSpdxLicenses.get( 0 ), spdxDoc );
                     }
                     else
                     {
                         Set<AnyLicenseInfo> licenseSet = new HashSet<>();
                         for ( String licenseExpression : fileSpdxLicenses )
                         {
-                            licenseSet.add( LicenseInfoFactory.parseSPDXLicenseStringCompatV2( licenseExpression,
-                                    spdxDoc.getModelStore(),
-                                    spdxDoc.getDocumentUri(),
-                                    spdxDoc.getCopyManager() ) );
+                            licenseSet.add( parseLicense( licenseExpression, spdxDoc ) );
                         }
                         license = spdxDoc.createConjunctiveLicenseSet( licenseSet );
                     }
                 }
                 catch ( InvalidSPDXAnalysisException e )
                 {
-                    LOG.error( "Invalid license expressions found in source file {}", file.getName(), e );
+                    LOG.error( "Invalid license expressions found in source file {}", file.getFileName(), e );
                 }
                 if ( licenseComment == null )
                 {
@@ -335,14 +286,8 @@ public class SpdxV2FileCollector extends AbstractFileCollector
         {
             try
             {
-                license = LicenseInfoFactory.parseSPDXLicenseStringCompatV2( defaultFileInformation.getDeclaredLicense(),
-                        spdxDoc.getModelStore(),
-                        spdxDoc.getDocumentUri(),
-                        spdxDoc.getCopyManager() );
-                concludedLicense = LicenseInfoFactory.parseSPDXLicenseStringCompatV2( defaultFileInformation.getConcludedLicense(),
-                        spdxDoc.getModelStore(),
-                        spdxDoc.getDocumentUri(),
-                        spdxDoc.getCopyManager() );
+                license = parseLicense( defaultFileInformation.getDeclaredLicense(), spdxDoc );
+                concludedLicense = parseLicense( defaultFileInformation.getConcludedLicense(), spdxDoc );
             }
             catch ( InvalidSPDXAnalysisException e )
             {
@@ -371,19 +316,6 @@ public class SpdxV2FileCollector extends AbstractFileCollector
         {
             List<AnyLicenseInfo> seenLicenses = new ArrayList<>();
             seenLicenses.add( license );
-            String sha1Value = null;
-            for ( Checksum checksum:checksums )
-            {
-                if (ChecksumAlgorithm.SHA1.toString().equals( checksum.getAlgorithm() )) {
-                    sha1Value = checksum.getValue();
-                    break;
-                }
-            }
-            if ( sha1Value == null )
-            {
-                LOG.error( "No SHA1 checksum was found for file {}", file.getName() );
-                sha1Value = DEFAULT_SHA1_VALUE;
-            }
             retval = spdxDoc.createSpdxFile( IdGenerator.getIdGenerator().generateId( relativePath ),
                                              relativePath, concludedLicense, seenLicenses, 
                                              copyright, 
@@ -448,55 +380,7 @@ public class SpdxV2FileCollector extends AbstractFileCollector
             Optional<String> excludedFileName = spdxFiles.get( spdxFilePath ).getName();
             excludedFileName.ifPresent(excludedFileNamesFromVerificationCode::add);
         }
-        SpdxPackageVerificationCode verificationCode;
-        verificationCode = calculatePackageVerificationCode( spdxFiles.values(),
-                excludedFileNamesFromVerificationCode, spdxDoc );
-        return verificationCode;
-    }
-
-    /**
-     * Calculate the package verification code for a collection of SPDX files
-     *
-     * @param spdxFiles                             Files used to calculate the verification code
-     * @param excludedFileNamesFromVerificationCode List of file names to exclude
-     * @param spdxDoc SPDX document which will contain the Package Verification Code
-     * @return Generated SPDX Package Verification Code
-     * @throws NoSuchAlgorithmException in the unlikely event the encryption algorithm could not be found
-     * @throws InvalidSPDXAnalysisException on SPDX parsing errors
-     */
-    private SpdxPackageVerificationCode calculatePackageVerificationCode( Collection<SpdxFile> spdxFiles, 
-                                                                          List<String> excludedFileNamesFromVerificationCode,
-                                                                          SpdxDocument spdxDoc ) throws NoSuchAlgorithmException, InvalidSPDXAnalysisException
-    {
-        List<String> fileChecksums = new ArrayList<>();
-        for ( SpdxFile file : spdxFiles )
-        {
-            Optional<String> filename = file.getName();
-            if ( filename.isPresent() && includeInVerificationCode( filename.get(), excludedFileNamesFromVerificationCode ) )
-            {
-                fileChecksums.add( file.getSha1() );
-            }
-        }
-        Collections.sort( fileChecksums );
-        MessageDigest verificationCodeDigest = MessageDigest.getInstance( "SHA-1" );
-        for ( String fileChecksum : fileChecksums )
-        {
-            byte[] hashInput = fileChecksum.getBytes( StandardCharsets.UTF_8 );
-            verificationCodeDigest.update( hashInput );
-        }
-        String value = convertChecksumToString( verificationCodeDigest.digest() );
+        String value = verificationCode.getValue( new HashSet<>( excludedFileNamesFromVerificationCode ) );
         return spdxDoc.createPackageVerificationCode( value, excludedFileNamesFromVerificationCode );
     }
-
-    private boolean includeInVerificationCode( String name, List<String> excludedFileNamesFromVerificationCode )
-    {
-        for ( String s : excludedFileNamesFromVerificationCode )
-        {
-            if ( s.equals( name ) )
-            {
-                return false;
-            }
-        }
-        return true;
-    }
 }
@@ -54,7 +54,7 @@ public class SpdxV2LicenseManager
     /**
      * Maps URLs to SPDX license ID's.  The SPDX licenses could be an SPDX listed license or an extracted license.
      */
-    Map<String, String> urlStringToSpdxLicenseId = new HashMap<>();
+    LayeredLicenseUrlMap urlStringToSpdxLicenseId;
 
     /**
      * Map of extracted license ID's to the SPDX license
@@ -81,7 +81,7 @@ public class SpdxV2LicenseManager
      */
     private void initializeUrlMap() throws LicenseMapperException
     {
-        this.urlStringToSpdxLicenseId.putAll( MavenToSpdxLicenseMapper.getInstance().getMap() );
+        this.urlStringToSpdxLicenseId = new LayeredLicenseUrlMap( MavenToSpdxLicenseMapper.getInstance().getMap() );
     }
 
     /**
@@ -4,16 +4,14 @@
  */
 package org.spdx.maven.utils;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -21,21 +19,17 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Contributor;
 import org.apache.maven.model.License;
-import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuilder;
 import org.apache.maven.project.ProjectBuildingException;
-import org.apache.maven.project.ProjectBuildingRequest;
-import org.apache.maven.project.ProjectBuildingResult;
-import org.apache.maven.shared.dependency.graph.DependencyNode;
 import org.spdx.core.CoreModelObject;
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.core.SpdxInvalidIdException;
 import org.spdx.core.SpdxCoreConstants.SpdxMajorVersion;
+import org.spdx.library.ModelCopyManager;
 import org.spdx.library.SpdxModelFactory;
 import org.spdx.library.conversion.Spdx2to3Converter;
 import org.spdx.library.model.v2.Checksum;
@@ -53,6 +47,7 @@ import org.spdx.library.model.v3_0_1.software.SpdxFile;
 import org.spdx.library.model.v3_0_1.software.SpdxPackage;
 import org.spdx.maven.LicenseOverwrite;
 import org.spdx.maven.OutputFormat;
+import org.spdx.storage.IModelStore;
 import org.spdx.storage.ISerializableModelStore;
 import org.spdx.storage.IModelStore.IdType;
 import org.spdx.storage.simple.InMemSpdxStore;
@@ -67,9 +62,18 @@ import org.spdx.v3jsonldstore.JsonLDStore;
 public class SpdxV3DependencyBuilder
     extends AbstractDependencyBuilder
 {   
+    /**
+     * Name of the session wide cache of the packages described by the SPDX files of dependencies
+     */
+    private static final String EXTERNAL_SPDX_DOCUMENTS = "v3";
+
     private final SpdxDocument spdxDoc;
     private final SpdxV3LicenseManager licenseManager;
-    private final Map<LicenseOverwrite, AnyLicenseInfo> licenseOverwrites = new HashMap<>();
+    /**
+     * SPDX licenses converted from the Maven license lists of the dependencies
+     */
+    private final MavenLicenseListCache<AnyLicenseInfo> licenseCache;
+    private final LicenseOverwriteIndex<AnyLicenseInfo> licenseOverwrites = new LicenseOverwriteIndex<>();
     
     /**
      * @param builder The document builder
@@ -85,13 +89,20 @@ public class SpdxV3DependencyBuilder
         super( createExternalRefs, generatePurls, useArtifactID, includeTransitiveDependencies );
         this.spdxDoc = builder.getSpdxDoc();
         this.licenseManager = builder.getLicenseManager();
+        this.licenseCache = new MavenLicenseListCache<>( getGraphStatistics() );
     }
 
     @Override
-    protected void addMavenDependency( CoreModelObject parentPackage, DependencyNode dependencyNode, 
-                                       ProjectBuilder mavenProjectBuilder,
-                                       MavenSession session, MavenProject mavenProject )
+    CoreModelObject createDependencyElement( Artifact dependency, ProjectBuilder mavenProjectBuilder,
+                                             MavenSession session, MavenProject mavenProject )
          throws LicenseMapperException, InvalidSPDXAnalysisException
+    {
+        return createSpdxPackage( dependency, mavenProjectBuilder, session, mavenProject, useArtifactID );
+    }
+
+    @Override
+    void addDependencyRelationship( CoreModelObject parentPackage, CoreModelObject dependencyElement,
+                                    Artifact dependency ) throws InvalidSPDXAnalysisException
      {
          if ( !(parentPackage instanceof SpdxPackage) )
          {
@@ -99,7 +110,6 @@ public class SpdxV3DependencyBuilder
                      parentPackage.getClass().getName() );
              return;
          }
-         Artifact dependency = dependencyNode.getArtifact();
          String scope = dependency.getScope();
          RelationshipType relType = scopeToRelationshipType( scope, dependency.isOptional() );
          if ( relType == RelationshipType.OTHER )
@@ -107,8 +117,7 @@ public class SpdxV3DependencyBuilder
              LOG.warn( "Could not determine the SPDX relationship type for dependency artifact ID {} scope {}", dependency.getArtifactId(), scope );
          }
 
-         Element dependencyPackage = createSpdxPackage( dependency, mavenProjectBuilder, session, 
-                                                            mavenProject, useArtifactID );
+         Element dependencyPackage = (Element) dependencyElement;
          
          spdxDoc.createLifecycleScopedRelationship(spdxDoc.getIdPrefix() +
                  IdGenerator.getIdGenerator().generateId( dependencyPackage.getId() + parentPackage.getId() + relType ) )
@@ -120,12 +129,20 @@ public class SpdxV3DependencyBuilder
                    .setComment( "Relationship created based on Maven POM information" )
                    .build();
          LOG.debug( "Added relationship of type {} for {}", relType, dependencyPackage.getName() );
-         
-         if ( includeTransitiveDependencies ) {
-             addMavenDependencies( mavenProjectBuilder, session, mavenProject, dependencyNode, dependencyPackage );
-         }
      }
+
+    @Override
+    boolean canHaveDependencies( CoreModelObject dependencyElement )
+    {
+        return dependencyElement instanceof SpdxPackage;
+    }
     
+    @Override
+    boolean hasSpdxDocument( Artifact artifact )
+    {
+        return artifactFileToSpdxFile( artifact.getFile(), null ) != null;
+    }
+
     /**
      * Translate the scope to the SPDX relationship type
      *
@@ -339,15 +356,17 @@ public class SpdxV3DependencyBuilder
             {
                 LOG.debug( "Dependency {}Dependency information collected from SPDX spec version 3 file {}", artifact.getArtifactId(), spdxFile.getAbsolutePath() );
                 
-                SpdxDocument externalSpdxDoc = spdxDocumentFromFile( spdxFile.getPath() );
+                ExternalSpdxDocumentCache.ExternalDocument<SpdxDocument> externalDocument =
+                        ExternalSpdxDocumentCache.<SpdxDocument>forSession( session, EXTERNAL_SPDX_DOCUMENTS ).get( spdxFile,
+                                ( file, content ) -> extractDescribedPackages( spdxDocumentFromStream( file, content ) ) );
                 if ( createExternalRefs )
                 {
-                    retval = createExternalSpdxPackage( externalSpdxDoc, spdxFile, artifact.getGroupId(), 
+                    retval = createExternalSpdxPackage( externalDocument, artifact.getGroupId(), 
                                                       artifact.getArtifactId(), artifact.getVersion() );
                 } 
                 else
                 {
-                    retval = copyPackageInfoFromExternalDoc( externalSpdxDoc, artifact.getArtifactId() );
+                    retval = copyPackageInfoFromExternalDoc( withCopyManager( externalDocument.getDocument() ), artifact.getArtifactId() );
                 }
             }
             catch ( IOException e )
@@ -362,10 +381,6 @@ public class SpdxV3DependencyBuilder
             {
                 LOG.warn( "Invalid SPDX analysis exception reading SPDX document for dependency artifact ID {}:{}.  Using POM file information for creating SPDX package data.", artifact.getArtifactId(), e.getMessage() );
             }
-            catch ( SpdxCollectionException e )
-            {
-                LOG.warn( "Unable to create file checksum for external SPDX document for dependency artifact ID {}:{}.  Using POM file information for creating SPDX package data.", artifact.getArtifactId(), e.getMessage() );
-            }
             catch ( Exception e )
             {
                 LOG.warn( "Unknown error processing SPDX document for dependency artifact ID {}:{}.  Using POM file information for creating SPDX package data.", artifact.getArtifactId(), e.getMessage() );
@@ -384,7 +399,7 @@ public class SpdxV3DependencyBuilder
             {
                 LOG.debug( "Dependency {}Dependency information collected from SPDX spec version 2 file {}", artifact.getArtifactId(), spdxFile.getAbsolutePath() );
                 
-                retval = copyPackageInfoFromV2File( spdxFile.getPath(), artifact.getArtifactId() );
+                retval = copyPackageInfoFromV2File( session, spdxFile.getPath(), artifact.getArtifactId() );
             }
             catch ( IOException e )
             {
@@ -409,17 +424,7 @@ public class SpdxV3DependencyBuilder
         }
         try
         {
-            ProjectBuildingRequest request = new DefaultProjectBuildingRequest( session.getProjectBuildingRequest() );
-            request.setProcessPlugins( false );
-            request.setRemoteRepositories( mavenProject.getRemoteArtifactRepositories() );
-            for ( ArtifactRepository ar : request.getRemoteRepositories() ) {
-                LOG.debug( "request Remote repository ID: {}", ar.getId() );
-            }
-            for ( ArtifactRepository ar : mavenProject.getRemoteArtifactRepositories() ) {
-                LOG.debug( "Project Remote repository ID: {}", ar.getId() );
-            }
-            ProjectBuildingResult build = mavenProjectBuilder.build( artifact, request );
-            MavenProject depProject = build.getProject();
+            MavenProject depProject = getDependencyProject( artifact, mavenProjectBuilder, session, mavenProject );
             LOG.debug( "Dependency {}Collecting information from project metadata for {}", artifact.getArtifactId(), depProject.getArtifactId() );
             retval = createSpdxPackage( depProject, useArtifactID );
         }
@@ -469,6 +474,7 @@ public class SpdxV3DependencyBuilder
     
     /**
      * Creates a copy from an SPDX version 2 file
+     * @param session     Maven session
      * @param path        Path to the SPDX spec version 2 file
      * @param artifactId  Maven artifact ID for the file
      * @return SPDX V3 compliant element for the SPDX package represented by the artifactId in the SPDX file
@@ -476,9 +482,9 @@ public class SpdxV3DependencyBuilder
      * @throws IOException on errors reading from the SPDX V2 document file
      * @throws FileNotFoundException on the SPDX V2 document file not being found
      */
-    private Element copyPackageInfoFromV2File( String path, String artifactId ) throws FileNotFoundException, IOException, InvalidSPDXAnalysisException
+    private Element copyPackageInfoFromV2File( MavenSession session, String path, String artifactId ) throws FileNotFoundException, IOException, InvalidSPDXAnalysisException
     {
-        org.spdx.library.model.v2.SpdxDocument v2Doc = SpdxV2DependencyBuilder.spdxDocumentFromFile( path );
+        org.spdx.library.model.v2.SpdxDocument v2Doc = SpdxV2DependencyBuilder.externalDocumentFromFile( session, new File( path ) ).getDocument();
         org.spdx.library.model.v2.SpdxPackage source = SpdxV2DependencyBuilder.findMatchingDescribedPackage( v2Doc, artifactId );
         
         Optional<String> downloadLocation = source.getDownloadLocation();
@@ -663,21 +669,19 @@ public class SpdxV3DependencyBuilder
     /**
      * Create and return an external element for the root document or root of an SBOM
      *
-     * @param externalSpdxDoc       SPDX Document containing the package to be referenced.
-     * @param spdxFile              SPDX file containing the SPDX document
+     * @param externalDocument      SPDX Document containing the package to be referenced parsed from the SPDX file
      * @param groupId               Group ID for the external artifact
      * @param artifactId            Artifact ID for the external artifact
      * @param version               version for the external artifact
      * @return                      package described in the externalSpdxDoc, otherwise null if no package found
      * @throws InvalidSPDXAnalysisException on errors creating the external element
-     * @throws SpdxCollectionException      on errors creating the SHA1 has for the file
      */
-    private @Nullable ExternalElement createExternalSpdxPackage( SpdxDocument externalSpdxDoc, 
-                                                                 File spdxFile, 
+    private @Nullable ExternalElement createExternalSpdxPackage( ExternalSpdxDocumentCache.ExternalDocument<SpdxDocument> externalDocument, 
                                                                  String groupId,
                                                                  String artifactId,
-                                                                 @Nullable String version ) throws InvalidSPDXAnalysisException, SpdxCollectionException
+                                                                 @Nullable String version ) throws InvalidSPDXAnalysisException
     {
+        SpdxDocument externalSpdxDoc = externalDocument.getDocument();
         SpdxPackage describedPackage = null;
         for ( Element root : externalSpdxDoc.getRootElements() )
         {
@@ -717,7 +721,7 @@ public class SpdxV3DependencyBuilder
                 return retval; // No need to create the external map
             }
         }
-        org.spdx.maven.Checksum checksum = AbstractFileCollector.generateSha1( spdxFile );
+        org.spdx.maven.Checksum checksum = externalDocument.getSha1();
         final HashAlgorithm algorithm = Spdx2to3Converter.HASH_ALGORITH_MAP.get( ChecksumAlgorithm.valueOf( checksum.getAlgorithm() ) );
         Hash hash = spdxDoc.createHash( spdxDoc.getModelStore().getNextId( IdType.Anonymous ) )
                         .setAlgorithm( algorithm )
@@ -731,7 +735,7 @@ public class SpdxV3DependencyBuilder
         String fullArtifactId = sb.toString();
         SpdxFile fileArtifact = spdxDoc.createSpdxFile( spdxDoc.getIdPrefix() +
                         IdGenerator.getIdGenerator().generateId( fullArtifactId ) )
-                        .setName( spdxFile.getName() )
+                        .setName( externalDocument.getFile().getName() )
                         .setDescription( String.format( "SPDX File for %s", fullArtifactId ) )
                         .addVerifiedUsing( hash )
                         .build();
@@ -745,34 +749,36 @@ public class SpdxV3DependencyBuilder
     
     
     /**
-     * Creates an SPDX document from a file
-     * @param path Path to the SPDX file
-     * @return an SPDX Spec version 2 document
+     * Creates an SPDX document from the content of a file.  The document is shared between builders and does not
+     * use the copy manager for this builder's document.
+     * @param file SPDX file - used to determine the format of the content
+     * @param content content of the SPDX file - not closed
+     * @return an SPDX Spec version 3 document
      * @throws IOException on IO Error
-     * @throws FileNotFoundException if the file does not exist
      * @throws InvalidSPDXAnalysisException on invalid SPDX file
      */
-    private SpdxDocument spdxDocumentFromFile( String path ) throws FileNotFoundException, IOException, InvalidSPDXAnalysisException
+    static SpdxDocument spdxDocumentFromStream( File file, InputStream content ) throws IOException, InvalidSPDXAnalysisException
     {
         ISerializableModelStore modelStore;
-        OutputFormat of = OutputFormat.getOutputFormat( null, new File( path ) );
+        OutputFormat of = OutputFormat.getOutputFormat( null, file );
         if (!SpdxMajorVersion.VERSION_3.equals( of.getSpecVersion() )) {
             throw new InvalidSPDXAnalysisException( String.format( "Unsupported file type for SPDX Version 2 SPDX documents: %s", of.getSpecVersion().toString() ));
         }
         modelStore = new JsonLDStore( new InMemSpdxStore() );
         
-        try ( InputStream inputStream = new FileInputStream( path ) ) 
+        try
         {
+            // only the described packages are used - the files and snippets are not deserialized
+            InputStream inputStream = new ByteArrayInputStream( ExternalSpdxJsonFilter.filterSpdxV3JsonLd( content ) );
             CoreModelObject root = modelStore.deSerialize( inputStream, false );
             if ( root != null )
             {
-                root.setCopyManager( spdxDoc.getCopyManager() );
                 return (SpdxDocument)root;
             }
             else
             {
                 throw new InvalidSPDXAnalysisException( String.format( "Could not find an SPDX document for SPDX file name %s", 
-                                                                       path ) );
+                                                                       file.getPath() ) );
             }
         } 
         finally
@@ -785,6 +791,81 @@ public class SpdxV3DependencyBuilder
         }
     }
     
+    /**
+     * Copies the packages and SBOMs at the root of an SPDX document, together with the relationships from the
+     * packages, to a new document with the same ID so that the rest of the parsed SPDX file is not kept in memory.
+     * Only the root elements of the SBOMs are copied.
+     * @param externalSpdxDoc SPDX document parsed from a dependency SPDX file
+     * @return SPDX document containing only the copied root elements
+     * @throws InvalidSPDXAnalysisException on SPDX errors copying the elements
+     */
+    static SpdxDocument extractDescribedPackages( SpdxDocument externalSpdxDoc ) throws InvalidSPDXAnalysisException
+    {
+        ModelCopyManager copyManager = new ModelCopyManager();
+        IModelStore store = new InMemSpdxStore();
+        SpdxDocument extracted = new SpdxDocument( store, externalSpdxDoc.getObjectUri(), copyManager, true,
+                                                   externalSpdxDoc.getIdPrefix() );
+        List<Element> packages = new ArrayList<>();
+        for ( Element root : new ArrayList<>( externalSpdxDoc.getRootElements() ) )
+        {
+            if ( root instanceof SpdxPackage )
+            {
+                packages.add( root );
+            }
+            else if ( root instanceof Sbom )
+            {
+                // the parsed document is discarded, so the SBOM is changed to only copy its root elements
+                ( (Sbom) root ).getElements().clear();
+                for ( Element sbomRoot : ( (Sbom) root ).getRootElements() )
+                {
+                    if ( sbomRoot instanceof SpdxPackage )
+                    {
+                        packages.add( sbomRoot );
+                    }
+                }
+            }
+            else
+            {
+                continue;
+            }
+            extracted.getRootElements().add( root );
+        }
+        IModelStore externalStore = externalSpdxDoc.getModelStore();
+        List<String> relationshipUris = SpdxModelFactory.getSpdxObjects( externalStore, externalSpdxDoc.getCopyManager(),
+                        SpdxConstantsV3.CORE_RELATIONSHIP, null, null )
+                .filter( spdxObj -> {
+                    try
+                    {
+                        return packages.contains( ( (Relationship) spdxObj ).getFrom() );
+                    }
+                    catch ( InvalidSPDXAnalysisException e )
+                    {
+                        LOG.warn( "Error reading relationship {} from SPDX document {}",
+                                ( (Relationship) spdxObj ).getObjectUri(), externalSpdxDoc.getObjectUri() );
+                        return false;
+                    }
+                } )
+                .map( spdxObj -> ( (Relationship) spdxObj ).getObjectUri() )
+                .collect( Collectors.toList() );
+        for ( String relationshipUri : relationshipUris )
+        {
+            copyManager.copy( store, externalStore, relationshipUri, SpdxConstantsV3.MODEL_SPEC_VERSION,
+                              externalSpdxDoc.getIdPrefix() );
+        }
+        return extracted;
+    }
+
+    /**
+     * @param externalSpdxDoc SPDX document parsed from a dependency SPDX file
+     * @return the same document using the copy manager for this builder's document so that elements can be copied
+     * @throws InvalidSPDXAnalysisException on errors accessing the document
+     */
+    private SpdxDocument withCopyManager( SpdxDocument externalSpdxDoc ) throws InvalidSPDXAnalysisException
+    {
+        return new SpdxDocument( externalSpdxDoc.getModelStore(), externalSpdxDoc.getObjectUri(),
+                                 spdxDoc.getCopyManager(), false, externalSpdxDoc.getIdPrefix() );
+    }
+
     /**
      * Copies the closest matching described package in the externalSpdxDoc to the returned element
      * @param externalSpdxDoc                SPDX document containing the described package
@@ -956,7 +1037,7 @@ public class SpdxV3DependencyBuilder
     }
 
     /**
-     * Convert a list of Maven licenses to an SPDX License
+     * Convert a list of Maven licenses to an SPDX License reusing the license converted for an identical list
      *
      * @param mavenLicenses List of maven licenses to map
      * @return SPDX license represented by the maven license
@@ -964,6 +1045,11 @@ public class SpdxV3DependencyBuilder
      * @throws InvalidSPDXAnalysisException on SPDX parsing errors
      */
     private AnyLicenseInfo mavenLicensesToSpdxLicense( List<License> mavenLicenses ) throws LicenseMapperException, InvalidSPDXAnalysisException
+    {
+        return licenseCache.convert( mavenLicenses, this::convertMavenLicenses );
+    }
+
+    private AnyLicenseInfo convertMavenLicenses( List<License> mavenLicenses ) throws LicenseMapperException, InvalidSPDXAnalysisException
     {
         try
         {
@@ -983,18 +1069,15 @@ public class SpdxV3DependencyBuilder
     /**
      * @param licenseOverwrite the configured license overwrite
      * @param parsedLicense the the parsed licenseString of the licenseOverwrite
+     * @throws IllegalArgumentException if an overwrite for the same dependency versions and target was already added
      */
     public void addLicenseOverwrite( LicenseOverwrite licenseOverwrite, AnyLicenseInfo parsedLicense )
     {
-        this.licenseOverwrites.put( licenseOverwrite, parsedLicense );
+        this.licenseOverwrites.add( licenseOverwrite, parsedLicense );
     }
 
     Optional<AnyLicenseInfo> applyLicenseOverwrites( MavenProject mavenProject, String target )
     {
-        return licenseOverwrites.entrySet().stream()
-                .filter( (overwrite) -> overwrite.getKey().appliesTo( mavenProject, target ) )
-                .reduce( (a, b) -> {
-            throw new IllegalStateException( "multiple matching license overwrites: " + a.getKey() + " vs. " + b.getKey() );
-        } ).map( Map.Entry::getValue );
+        return licenseOverwrites.find( mavenProject, target );
     }
 }
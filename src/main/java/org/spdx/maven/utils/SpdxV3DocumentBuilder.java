@@ -4,10 +4,12 @@
  */
 package org.spdx.maven.utils;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -489,6 +491,7 @@ public class SpdxV3DocumentBuilder
                                             Set<String> checksumAlgorithms) throws SpdxBuilderException
     {
         SpdxV3FileCollector fileCollector = new SpdxV3FileCollector( customIdToUri );
+        configureFileCollector( fileCollector );
         try
         {
             fileCollector.collectFiles( sources, baseDir, defaultFileInformation,
@@ -513,7 +516,7 @@ public class SpdxV3DocumentBuilder
     @Override
     public void saveSpdxDocumentToFile() throws SpdxBuilderException
     {
-        try ( FileOutputStream spdxOut = new FileOutputStream( spdxFile ) )
+        try ( OutputStream spdxOut = new BufferedOutputStream( new FileOutputStream( spdxFile ), OUTPUT_BUFFER_SIZE ) )
         {
             modelStore.serialize( spdxOut );
         }
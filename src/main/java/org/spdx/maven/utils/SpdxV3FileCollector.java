@@ -15,12 +15,11 @@
  */
 package org.spdx.maven.utils;
 
-import java.io.File;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
 
 import org.apache.maven.shared.model.fileset.FileSet;
-import org.apache.maven.shared.model.fileset.util.FileSetManager;
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.library.LicenseInfoFactory;
 import org.spdx.library.conversion.Spdx2to3Converter;
@@ -28,6 +27,7 @@ import org.spdx.library.model.v2.enumerations.ChecksumAlgorithm;
 import org.spdx.library.model.v2.enumerations.FileType;
 import org.spdx.library.model.v3_0_1.core.Agent;
 import org.spdx.library.model.v3_0_1.core.DictionaryEntry;
+import org.spdx.library.model.v3_0_1.core.Element;
 import org.spdx.library.model.v3_0_1.core.HashAlgorithm;
 import org.spdx.library.model.v3_0_1.core.IntegrityMethod;
 import org.spdx.library.model.v3_0_1.core.PositiveIntegerRange;
@@ -86,13 +86,22 @@ public class SpdxV3FileCollector extends AbstractFileCollector
     /**
      * Map of fileName, SPDXFile for all files in the SPDX document
      */
-    Map<String, SpdxFile> spdxFiles = new HashMap<>();
+    Map<String, SpdxFile> spdxFiles = new LinkedHashMap<>();
     List<Snippet> spdxSnippets = new ArrayList<>();
 
-    FileSetManager fileSetManager = new FileSetManager();
-
     private final List<DictionaryEntry> customIdToUri;
 
+    /**
+     * License expressions already parsed for the SPDX document
+     */
+    private final LicenseExpressionCache<AnyLicenseInfo> licenseCache = new LicenseExpressionCache<>();
+
+    /**
+     * Map of contributor name to the agent created for that contributor in contributorDocument
+     */
+    private final Map<String, Agent> contributorAgents = new HashMap<>();
+    private SpdxDocument contributorDocument;
+
     /**
      * SpdxFileCollector collects SPDX file information for files
      * @param customIdToUri Holds a mapping of IDs to URIs for any custom licenses defined outside the spdxDoc
@@ -123,82 +132,29 @@ public class SpdxV3FileCollector extends AbstractFileCollector
                               SpdxPackage projectPackage, RelationshipType relationshipType, 
                               SpdxDocument spdxDoc, Set<String> algorithms ) throws SpdxCollectionException
     {
-        for ( FileSet fileSet : fileSets )
-        {
-            String[] includedFiles = fileSetManager.getIncludedFiles( fileSet );
-            for ( String includedFile : includedFiles )
-            {
-                String filePath = fileSet.getDirectory() + File.separator + includedFile;
-                File file = new File( filePath );
-                String relativeFilePath = toRelativeFilePath( file, baseDir );
-                SpdxDefaultFileInformation fileInfo = findDefaultFileInformation( relativeFilePath,
-                        pathSpecificInformation );
-                if ( fileInfo == null )
-                {
-                    fileInfo = defaultFileInformation;
-                }
-                String outputFileName = Objects.nonNull( fileSet.getOutputDirectory() ) ?
-                        fileSet.getOutputDirectory() + File.separator + includedFile : relativeFilePath;
-                collectFile( file, outputFileName, fileInfo, relationshipType, projectPackage, spdxDoc, algorithms );
-            }
-        }
-    }
-
-    /**
-     * Find the most appropriate file information based on the lowest level match (closed to file)
-     *
-     * @param filePath                file path for possible file path specific information
-     * @param pathSpecificInformation information to be applied to the file path
-     * @return                        default SPDX parameters for a given file path or null if package level defaults are to be used
-     */
-    private SpdxDefaultFileInformation findDefaultFileInformation( String filePath, Map<String, SpdxDefaultFileInformation> pathSpecificInformation )
-    {
-        LOG.debug( "Checking for file path {}", filePath );
-        SpdxDefaultFileInformation retval = pathSpecificInformation.get( filePath );
-        if ( retval != null )
-        {
-            LOG.debug( "Found filepath" );
-            return retval;
-        }
-        // see if any of the parent directories contain default information which should be used
-        String parentPath = filePath;
-        int parentPathIndex;
-        do
-        {
-            parentPathIndex = parentPath.lastIndexOf( "/" );
-            if ( parentPathIndex > 0 )
-            {
-                parentPath = parentPath.substring( 0, parentPathIndex );
-                retval = pathSpecificInformation.get( parentPath );
-            }
-        } while ( retval == null && parentPathIndex > 0 );
-        if ( retval != null )
-        {
-            LOG.debug( "Found directory containing file path for path specific information.  File path: {}", parentPath );
-        }
-        return retval;
+        collectFileSets( fileSets, baseDir, defaultFileInformation, pathSpecificInformation, algorithms,
+                scannedFile -> collectFile( scannedFile, relationshipType, projectPackage, spdxDoc ) );
     }
 
     /**
      * Collect SPDX information for a specific file
      *
-     * @param file             File to collect SPDX information for
-     * @param outputFileName   Path to the output file name relative to the root of the output archive file
+     * @param scannedFile      File to collect SPDX information for including the results of the file scan
      * @param relationshipType Type of relationship to the project package
      * @param projectPackage   Package to which the files belong
      * @param spdxDoc          SPDX Document which will contain the files
-     * @param algorithms       algorithms to use to generate checksums
      * @throws SpdxCollectionException on incompatible types in an SPDX collection
      */
-    private void collectFile( File file, String outputFileName, SpdxDefaultFileInformation fileInfo, 
-                              RelationshipType relationshipType, SpdxPackage projectPackage, 
-                              SpdxDocument spdxDoc, Set<String> algorithms ) throws SpdxCollectionException
+    private void collectFile( ScannedFile scannedFile, RelationshipType relationshipType,
+                              SpdxPackage projectPackage, SpdxDocument spdxDoc ) throws SpdxCollectionException
     {
-        if ( spdxFiles.containsKey( file.getPath() ) )
+        Path file = scannedFile.getPath();
+        SpdxDefaultFileInformation fileInfo = scannedFile.getFileInfo();
+        if ( spdxFiles.containsKey( file.toString() ) )
         {
             return; // already added from a previous scan
         }
-        SpdxFile spdxFile = convertToSpdxFile( file, outputFileName, fileInfo, algorithms, spdxDoc );
+        SpdxFile spdxFile = convertToSpdxFile( scannedFile, spdxDoc );
         try
         {
             spdxDoc.createRelationship( spdxDoc.getIdPrefix() + IdGenerator.getIdGenerator().generateId( spdxFile.getId() + relationshipType + projectPackage.getId() ) )
@@ -233,7 +189,7 @@ public class SpdxV3FileCollector extends AbstractFileCollector
                 spdxSnippets.add( spdxSnippet );
             }
         }
-        spdxFiles.put( file.getPath(), spdxFile );
+        spdxFiles.put( file.toString(), spdxFile );
     }
 
     /**
@@ -277,9 +233,7 @@ public class SpdxV3FileCollector extends AbstractFileCollector
             comment = comment + "; License: " + licenseComment;
         }
         retval.setComment( comment );
-        final AnyLicenseInfo concludedLicense = LicenseInfoFactory
-                        .parseSPDXLicenseString( snippet.getConcludedLicense(), spdxFile.getModelStore(), 
-                                                 spdxFile.getIdPrefix(), spdxFile.getCopyManager(), customIdToUri );
+        final AnyLicenseInfo concludedLicense = parseLicense( snippet.getConcludedLicense(), spdxFile );
         retval.createRelationship( retval.getIdPrefix() +
                         IdGenerator.getIdGenerator().generateId( retval.getId() + concludedLicense.getId() + RelationshipType.HAS_CONCLUDED_LICENSE ) )
                         .setCompleteness( RelationshipCompleteness.COMPLETE )
@@ -288,9 +242,7 @@ public class SpdxV3FileCollector extends AbstractFileCollector
                         .setRelationshipType( RelationshipType.HAS_CONCLUDED_LICENSE )
                         .build();
         
-        final AnyLicenseInfo declaredLicense = LicenseInfoFactory
-                        .parseSPDXLicenseString( snippet.getLicenseInfoInSnippet(), spdxFile.getModelStore(), 
-                                                 spdxFile.getIdPrefix(), spdxFile.getCopyManager(), customIdToUri );
+        final AnyLicenseInfo declaredLicense = parseLicense( snippet.getLicenseInfoInSnippet(), spdxFile );
         retval.createRelationship( retval.getIdPrefix() +
                 IdGenerator.getIdGenerator().generateId( retval.getId() + declaredLicense.getId() + RelationshipType.HAS_DECLARED_LICENSE ) )
                         .setCompleteness( RelationshipCompleteness.COMPLETE )
@@ -302,32 +254,72 @@ public class SpdxV3FileCollector extends AbstractFileCollector
     }
 
     /**
-     * @param file                   File to convert to an SPDX file from
-     * @param outputFileName         Path to the output file name relative to the root of the output archive file
-     * @param defaultFileInformation Information on default SPDX field data for the files
-     * @param algorithms             algorithms to use to generate checksums
+     * Parse a license expression reusing any license already parsed for the same expression in the document
+     *
+     * @param expression license expression
+     * @param element    element whose model store, ID prefix and copy manager will be used to store the license
+     * @return the parsed license
+     * @throws InvalidSPDXAnalysisException on errors parsing the expression
+     */
+    private AnyLicenseInfo parseLicense( String expression, Element element ) throws InvalidSPDXAnalysisException
+    {
+        return licenseCache.parse( Arrays.asList( element.getModelStore(), element.getIdPrefix() ), expression,
+                expr -> LicenseInfoFactory.parseSPDXLicenseString( expr, element.getModelStore(),
+                        element.getIdPrefix(), element.getCopyManager(), customIdToUri ) );
+    }
+
+    /**
+     * Get the agent for a file contributor - a single agent is created per contributor name in each document and
+     * shared by all files with that contributor
+     *
+     * @param name    name of the contributor
+     * @param spdxDoc SPDX document which will contain the agent
+     * @return the agent for the contributor
+     * @throws InvalidSPDXAnalysisException on errors creating the agent
+     */
+    private Agent getContributor( String name, SpdxDocument spdxDoc ) throws InvalidSPDXAnalysisException
+    {
+        if ( !spdxDoc.equals( contributorDocument ) )
+        {
+            contributorAgents.clear();
+            contributorDocument = spdxDoc;
+        }
+        Agent contributor = contributorAgents.get( name );
+        if ( contributor == null )
+        {
+            contributor = spdxDoc.createPerson( spdxDoc.getIdPrefix() +
+                    IdGenerator.getIdGenerator().generateId( "CONTRIBUTOR: " + name ) )
+                                 .setName( name )
+                                 .setDescription( "Contributor" )
+                                 .build();
+            contributorAgents.put( name, contributor );
+        }
+        return contributor;
+    }
+
+    /**
+     * @param scannedFile            File to be converted to SPDX file metadata including the results of the file scan
      * @param spdxDoc                SPDX document which will contain the SPDX file
      * @return                       SPDX file based on file and default file information
      * @throws SpdxCollectionException on incompatible class types in an SPDX collection
      */
-    private SpdxFile convertToSpdxFile( File file, String outputFileName, 
-                                        SpdxDefaultFileInformation defaultFileInformation, 
-                                        Set<String> algorithms,
-                                        SpdxDocument spdxDoc ) throws SpdxCollectionException
+    private SpdxFile convertToSpdxFile( ScannedFile scannedFile, SpdxDocument spdxDoc ) throws SpdxCollectionException
     {
+        Path file = scannedFile.getPath();
+        String outputFileName = scannedFile.getOutputFileName();
+        SpdxDefaultFileInformation defaultFileInformation = scannedFile.getFileInfo();
         String relativePath = convertFilePathToSpdxFileName( outputFileName );
         String extension = getExtension( file ).trim().toUpperCase();
         SoftwarePurpose purpose = EXT_TO_PURPOSE.getOrDefault( extension, SoftwarePurpose.OTHER );
         Collection<IntegrityMethod> hashes = new ArrayList<>();
         try
         {
-            Set<Checksum> checksums = generateChecksum( file, algorithms );
-            for ( Checksum checksum : checksums )
+            for ( Checksum checksum : scannedFile.getChecksums() )
             {
                 final HashAlgorithm algorithm = Spdx2to3Converter.HASH_ALGORITH_MAP.get( ChecksumAlgorithm.valueOf( checksum.getAlgorithm() ) );
                 if ( Objects.isNull( algorithm ) )
                 {
-                    throw new SpdxCollectionException( "Invalid checksum algorithm for file "+file.getName() );
+                    throw new SpdxCollectionException( "Invalid checksum algorithm for file "+file.getFileName() );
                 }
                 hashes.add( spdxDoc.createHash( spdxDoc.getModelStore().getNextId( IdType.Anonymous ) )
                             .setAlgorithm( algorithm )
@@ -336,24 +328,16 @@ public class SpdxV3FileCollector extends AbstractFileCollector
             }
             
         }
-        catch ( SpdxCollectionException | InvalidSPDXAnalysisException e1 )
+        catch ( InvalidSPDXAnalysisException e1 )
         {
-            throw new SpdxCollectionException( "Unable to generate checksum for file "+file.getName() );
+            throw new SpdxCollectionException( "Unable to generate checksum for file "+file.getFileName() );
         }
         AnyLicenseInfo concludedLicense;
         AnyLicenseInfo license = null;
         String licenseComment = defaultFileInformation.getLicenseComment();
-        if ( SoftwarePurpose.SOURCE.equals( purpose ) && file.length() < SpdxSourceFileParser.MAXIMUM_SOURCE_FILE_LENGTH )
+        if ( SoftwarePurpose.SOURCE.equals( purpose ) )
         {
-            List<String> fileSpdxLicenses = null;
-            try
-            {
-                fileSpdxLicenses = SpdxSourceFileParser.parseFileForSpdxLicenses( file );
-            }
-            catch ( SpdxSourceParserException ex )
-            {
-                LOG.error( "Error parsing for SPDX license ID's", ex );
-            }
+            List<String> fileSpdxLicenses = scannedFile.getSpdxLicenses();
             if ( fileSpdxLicenses != null && !fileSpdxLicenses.isEmpty() )
             {
                 // The file has declared licenses of the form SPDX-License-Identifier: licenseId
@@ -361,8 +345,7 @@ public class SpdxV3FileCollector extends AbstractFileCollector
                 {
                     if ( fileSpdxLicenses.size() == 1 )
                     {
-                        license = LicenseInfoFactory.parseSPDXLicenseString( fileSpdxLicenses.get( 0 ),
-                                spdxDoc.getModelStore(), spdxDoc.getIdPrefix(), spdxDoc.getCopyManager(), customIdToUri );
+                        license = parseLicense( fileSpdxLicenses.get( 0 ), spdxDoc );
                     }
                     else
                     {
@@ -374,8 +357,7 @@ public class SpdxV3FileCollector extends AbstractFileCollector
                         } );
                         for ( String licenseExpression : fileSpdxLicenses )
                         {
-                            licenseSet.add( LicenseInfoFactory.parseSPDXLicenseString( licenseExpression,
-                                    spdxDoc.getModelStore(), spdxDoc.getIdPrefix(), spdxDoc.getCopyManager(), customIdToUri ) );
+                            licenseSet.add( parseLicense( licenseExpression, spdxDoc ) );
                         }
                         StringBuilder reproducible = new StringBuilder( "AND" );
                         licenseSet.forEach( lic -> reproducible.append( lic.getId() ) );
@@ -387,7 +369,7 @@ public class SpdxV3FileCollector extends AbstractFileCollector
                 }
                 catch ( InvalidSPDXAnalysisException e )
                 {
-                    LOG.error( "Invalid license expressions found in source file {}", file.getName(), e );
+                    LOG.error( "Invalid license expressions found in source file {}", file.getFileName(), e );
                 }
                 if ( licenseComment == null )
                 {
@@ -408,10 +390,8 @@ public class SpdxV3FileCollector extends AbstractFileCollector
         {
             try
             {
-                license = LicenseInfoFactory.parseSPDXLicenseString( defaultFileInformation.getDeclaredLicense(),
-                        spdxDoc.getModelStore(), spdxDoc.getIdPrefix(), spdxDoc.getCopyManager(), customIdToUri );
-                concludedLicense = LicenseInfoFactory.parseSPDXLicenseString( defaultFileInformation.getConcludedLicense(),
-                        spdxDoc.getModelStore(), spdxDoc.getIdPrefix(), spdxDoc.getCopyManager(), customIdToUri );
+                license = parseLicense( defaultFileInformation.getDeclaredLicense(), spdxDoc );
+                concludedLicense = parseLicense( defaultFileInformation.getConcludedLicense(), spdxDoc );
             }
             catch ( InvalidSPDXAnalysisException e )
             {
@@ -443,10 +423,7 @@ public class SpdxV3FileCollector extends AbstractFileCollector
                 {
                     try
                     {
-                        contributors.add( spdxDoc.createPerson( spdxDoc.getModelStore().getNextId( IdType.Anonymous ) )
-                                          .setName( contributor )
-                                          .setDescription( "Contributor" )
-                                          .build() );
+                        contributors.add( getContributor( contributor, spdxDoc ) );
                     }
                     catch ( InvalidSPDXAnalysisException e )
                     {
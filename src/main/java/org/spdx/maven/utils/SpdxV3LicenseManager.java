@@ -56,7 +56,7 @@ public class SpdxV3LicenseManager
     /**
      * Maps URLs to SPDX license ID's.  The SPDX licenses could be an SPDX listed license or an extracted license.
      */
-    Map<String, String> urlStringToSpdxLicenseId = new HashMap<>();
+    LayeredLicenseUrlMap urlStringToSpdxLicenseId;
 
     /**
      * Map of extracted license ID's to the SPDX license
@@ -83,7 +83,7 @@ public class SpdxV3LicenseManager
      */
     private void initializeUrlMap() throws LicenseMapperException
     {
-        this.urlStringToSpdxLicenseId.putAll( MavenToSpdxLicenseMapper.getInstance().getMap() );
+        this.urlStringToSpdxLicenseId = new LayeredLicenseUrlMap( MavenToSpdxLicenseMapper.getInstance().getMap() );
     }
 
     /**
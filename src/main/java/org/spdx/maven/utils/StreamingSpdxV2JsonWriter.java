@@ -0,0 +1,213 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.TypedValue;
+import org.spdx.jacksonstore.JacksonSerializer;
+import org.spdx.jacksonstore.MultiFormatStore.Format;
+import org.spdx.jacksonstore.MultiFormatStore.Verbose;
+import org.spdx.library.model.v2.SpdxConstantsCompatV2;
+import org.spdx.storage.IModelStore;
+import org.spdx.storage.compatv2.CompatibleModelStoreWrapper;
+import org.spdx.storage.simple.ExtendedSpdxStore;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Writes an SPDX spec version 2 document in the SPDX JSON format without creating a JSON tree of the complete
+ * document.
+ * <p>
+ * The packages, files and snippets are converted to JSON a chunk at a time by the same serializer used by the
+ * model store and each chunk is written to the output before the next chunk is converted, so only the JSON of the
+ * relationships, which are written last, is kept in memory in addition to the model store itself.  The output is
+ * identical to the output of the model store.
+ */
+class StreamingSpdxV2JsonWriter
+{
+    /**
+     * Default number of elements converted to JSON at a time
+     */
+    static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private static final String[] ELEMENT_TYPES = { SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE,
+            SpdxConstantsCompatV2.CLASS_SPDX_FILE, SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET };
+
+    private static final String[] ELEMENT_PROPERTIES = { SpdxConstantsCompatV2.PROP_DOCUMENT_PACKAGES.getName(),
+            SpdxConstantsCompatV2.PROP_DOCUMENT_FILES.getName(), SpdxConstantsCompatV2.PROP_DOCUMENT_SNIPPETS.getName() };
+
+    private static final String RELATIONSHIPS = SpdxConstantsCompatV2.PROP_DOCUMENT_RELATIONSHIPS.getName();
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+            .enable( SerializationFeature.INDENT_OUTPUT )
+            .disable( SerializationFeature.FLUSH_AFTER_WRITE_VALUE );
+
+    /**
+     * View of the model store which only includes the packages, files and snippets of the current chunk
+     */
+    private static class ChunkStore extends ExtendedSpdxStore
+    {
+        private final Set<String> elementUris;
+        private Set<String> chunkUris = Collections.emptySet();
+
+        private ChunkStore( IModelStore baseStore, Set<String> elementUris )
+        {
+            super( baseStore );
+            this.elementUris = elementUris;
+        }
+
+        @Override
+        public Stream<TypedValue> getAllItems( String nameSpace, String typeFilter ) throws InvalidSPDXAnalysisException
+        {
+            return super.getAllItems( nameSpace, typeFilter ).filter(
+                    item -> !elementUris.contains( item.getObjectUri() ) || chunkUris.contains( item.getObjectUri() ) );
+        }
+    }
+
+    /**
+     * Provides access to the sort order the serializer uses for arrays
+     */
+    private static class ChunkSerializer extends JacksonSerializer
+    {
+        private ChunkSerializer( IModelStore store )
+        {
+            super( JSON_MAPPER, Format.JSON_PRETTY, Verbose.COMPACT, store );
+        }
+
+        private static void sort( ArrayNode arrayNode )
+        {
+            sortArrayNode( arrayNode );
+        }
+    }
+
+    private final IModelStore modelStore;
+    private final int chunkSize;
+
+    /**
+     * @param modelStore model store containing the document
+     * @param chunkSize  number of elements converted to JSON at a time
+     */
+    StreamingSpdxV2JsonWriter( IModelStore modelStore, int chunkSize )
+    {
+        this.modelStore = modelStore;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param documentUri URI of the SPDX document to write
+     * @param out         output for the document - not closed
+     * @throws InvalidSPDXAnalysisException on errors reading the document from the model store
+     * @throws IOException                  on errors writing the output
+     */
+    void write( String documentUri, OutputStream out ) throws InvalidSPDXAnalysisException, IOException
+    {
+        CompatibleModelStoreWrapper compatibleStore = new CompatibleModelStoreWrapper( modelStore );
+        List<List<String>> elementUrisByType = new ArrayList<>();
+        Set<String> allElementUris = new HashSet<>();
+        for ( String type : ELEMENT_TYPES )
+        {
+            // sorted in the same order the serializer sorts the elements by SPDX ID
+            List<String> uris;
+            try ( Stream<TypedValue> items = compatibleStore.getAllItems( documentUri, type ) )
+            {
+                uris = items.map( TypedValue::getObjectUri ).sorted().collect( Collectors.toList() );
+            }
+            elementUrisByType.add( uris );
+            allElementUris.addAll( uris );
+        }
+        ChunkStore chunkStore = new ChunkStore( modelStore, allElementUris );
+        ChunkSerializer serializer = new ChunkSerializer( chunkStore );
+        ArrayNode relationships = JSON_MAPPER.createArrayNode();
+
+        ObjectNode documentNode = serializer.docToJsonNode( documentUri );
+        List<JsonNode> documentRelationships = new ArrayList<>();
+        addRelationships( documentNode.remove( RELATIONSHIPS ), relationships, Collections.emptyList() );
+        relationships.forEach( documentRelationships::add );
+
+        JsonGenerator generator = JSON_MAPPER.getFactory().createGenerator( out );
+        generator.disable( JsonGenerator.Feature.AUTO_CLOSE_TARGET );
+        generator.useDefaultPrettyPrinter();
+        generator.writeStartObject();
+        Iterator<Map.Entry<String, JsonNode>> documentFields = documentNode.fields();
+        while ( documentFields.hasNext() )
+        {
+            Map.Entry<String, JsonNode> field = documentFields.next();
+            generator.writeFieldName( field.getKey() );
+            JSON_MAPPER.writeTree( generator, field.getValue() );
+        }
+        for ( int i = 0; i < ELEMENT_TYPES.length; i++ )
+        {
+            List<String> elementUris = elementUrisByType.get( i );
+            if ( elementUris.isEmpty() )
+            {
+                continue;
+            }
+            generator.writeArrayFieldStart( ELEMENT_PROPERTIES[i] );
+            for ( int start = 0; start < elementUris.size(); start += chunkSize )
+            {
+                chunkStore.chunkUris = new HashSet<>( elementUris.subList( start, Math.min( start + chunkSize, elementUris.size() ) ) );
+                ObjectNode chunkNode = serializer.docToJsonNode( documentUri );
+                for ( JsonNode element : chunkNode.path( ELEMENT_PROPERTIES[i] ) )
+                {
+                    JSON_MAPPER.writeTree( generator, element );
+                }
+                addRelationships( chunkNode.get( RELATIONSHIPS ), relationships, documentRelationships );
+            }
+            generator.writeEndArray();
+            chunkStore.chunkUris = Collections.emptySet();
+        }
+        if ( !relationships.isEmpty() )
+        {
+            ChunkSerializer.sort( relationships );
+            generator.writeFieldName( RELATIONSHIPS );
+            JSON_MAPPER.writeTree( generator, relationships );
+        }
+        generator.writeEndObject();
+        generator.close();
+    }
+
+    /**
+     * Add the relationships of a chunk except for the relationships of the document, which are included in every
+     * chunk and have already been added
+     * @param chunkRelationships relationships serialized with the chunk
+     * @param relationships all relationships to be written
+     * @param documentRelationships relationships of the document
+     */
+    private static void addRelationships( JsonNode chunkRelationships, ArrayNode relationships,
+                                          List<JsonNode> documentRelationships )
+    {
+        if ( Objects.isNull( chunkRelationships ) )
+        {
+            return;
+        }
+        // a relationship of the document is removed once for every time it occurs in the document
+        List<JsonNode> remainingDocumentRelationships = new ArrayList<>( documentRelationships );
+        for ( JsonNode relationship : chunkRelationships )
+        {
+            if ( !remainingDocumentRelationships.remove( relationship ) )
+            {
+                relationships.add( relationship );
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * SPDX-License-Identifier: Apache-2.0
+ * SPDX-FileCopyrightText: 2026 spdx-maven-plugin contributors
+ */
+package org.spdx.maven.utils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Accumulates the SHA1 checksums of the files in a package as they are collected and calculates the SPDX package
+ * verification code from them.
+ * <p>
+ * The checksums are held as raw 20 byte records in a single array rather than as hex strings.  Sorting the records
+ * by unsigned byte value gives the same order as sorting the lower case hex strings required by the SPDX
+ * specification, so the hex representation is only produced, one record at a time, while calculating the digest.
+ */
+class VerificationCodeAccumulator
+{
+    static final int SHA1_LENGTH = 20;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] checksums = new byte[INITIAL_CAPACITY * SHA1_LENGTH];
+    private String[] fileNames = new String[INITIAL_CAPACITY];
+    private int count = 0;
+    private boolean sorted = true;
+
+    /**
+     * Add a file to the verification code
+     *
+     * @param fileName name of the file as it appears in the SPDX document
+     * @param sha1     lower case hex SHA1 checksum of the file
+     */
+    void add( String fileName, String sha1 )
+    {
+        if ( sha1.length() != SHA1_LENGTH * 2 )
+        {
+            throw new IllegalArgumentException( "Invalid SHA1 checksum " + sha1 + " for file " + fileName );
+        }
+        ensureCapacity( count + 1 );
+        int offset = count * SHA1_LENGTH;
+        for ( int i = 0; i < SHA1_LENGTH; i++ )
+        {
+            int high = Character.digit( sha1.charAt( i * 2 ), 16 );
+            int low = Character.digit( sha1.charAt( i * 2 + 1 ), 16 );
+            if ( high < 0 || low < 0 )
+            {
+                throw new IllegalArgumentException( "Invalid SHA1 checksum " + sha1 + " for file " + fileName );
+            }
+            checksums[offset + i] = (byte) ( ( high << 4 ) | low );
+        }
+        fileNames[count] = fileName;
+        count++;
+        sorted = false;
+    }
+
+    /**
+     * @return number of files added
+     */
+    int size()
+    {
+        return count;
+    }
+
+    /**
+     * Calculate the package verification code value
+     *
+     * @param excludedFileNames names of files to exclude from the verification code
+     * @return the lower case hex verification code value
+     * @throws NoSuchAlgorithmException if the SHA-1 algorithm is not available
+     */
+    String getValue( Set<String> excludedFileNames ) throws NoSuchAlgorithmException
+    {
+        if ( !sorted )
+        {
+            sort( 0, count - 1 );
+            sorted = true;
+        }
+        MessageDigest verificationCodeDigest = MessageDigest.getInstance( "SHA-1" );
+        byte[] hex = new byte[SHA1_LENGTH * 2];
+        for ( int record = 0; record < count; record++ )
+        {
+            if ( excludedFileNames.contains( fileNames[record] ) )
+            {
+                continue;
+            }
+            int offset = record * SHA1_LENGTH;
+            for ( int i = 0; i < SHA1_LENGTH; i++ )
+            {
+                int b = checksums[offset + i] & 0xff;
+                hex[i * 2] = HEX_DIGITS[b >>> 4];
+                hex[i * 2 + 1] = HEX_DIGITS[b & 0x0f];
+            }
+            verificationCodeDigest.update( hex );
+        }
+        return AbstractFileCollector.convertChecksumToString( verificationCodeDigest.digest() );
+    }
+
+    private void ensureCapacity( int records )
+    {
+        if ( records > fileNames.length )
+        {
+            int newCapacity = Math.max( records, fileNames.length * 2 );
+            checksums = Arrays.copyOf( checksums, newCapacity * SHA1_LENGTH );
+            fileNames = Arrays.copyOf( fileNames, newCapacity );
+        }
+    }
+
+    /**
+     * Sort the records between low and high inclusive by unsigned byte value of the checksum
+     */
+    private void sort( int low, int high )
+    {
+        while ( low < high )
+        {
+            if ( high - low < 16 )
+            {
+                for ( int i = low + 1; i <= high; i++ )
+                {
+                    for ( int j = i; j > low && compare( j - 1, j ) > 0; j-- )
+                    {
+                        swap( j - 1, j );
+                    }
+                }
+                return;
+            }
+            // three way partition around the middle record so that duplicate checksums (e.g. empty files)
+            // do not degrade the sort
+            swap( low, low + ( high - low ) / 2 );
+            int lessThan = low;
+            int greaterThan = high;
+            int i = low + 1;
+            while ( i <= greaterThan )
+            {
+                int cmp = compare( i, lessThan );
+                if ( cmp < 0 )
+                {
+                    swap( lessThan++, i++ );
+                }
+                else if ( cmp > 0 )
+                {
+                    swap( i, greaterThan-- );
+                }
+                else
+                {
+                    i++;
+                }
+            }
+            // recurse into the smaller partition to bound the stack depth
+            if ( lessThan - low < high - greaterThan )
+            {
+                sort( low, lessThan - 1 );
+                low = greaterThan + 1;
+            }
+            else
+            {
+                sort( greaterThan + 1, high );
+                high = lessThan - 1;
+            }
+        }
+    }
+
+    private int compare( int record1, int record2 )
+    {
+        int offset1 = record1 * SHA1_LENGTH;
+        int offset2 = record2 * SHA1_LENGTH;
+        return Arrays.compareUnsigned( checksums, offset1, offset1 + SHA1_LENGTH,
+                checksums, offset2, offset2 + SHA1_LENGTH );
+    }
+
+    private void swap( int record1, int record2 )
+    {
+        if ( record1 == record2 )
+        {
+            return;
+        }
+        int offset1 = record1 * SHA1_LENGTH;
+        int offset2 = record2 * SHA1_LENGTH;
+        for ( int i = 0; i < SHA1_LENGTH; i++ )
+        {
+            byte b = checksums[offset1 + i];
+            checksums[offset1 + i] = checksums[offset2 + i];
+            checksums[offset2 + i] = b;
+        }
+        String name = fileNames[record1];
+        fileNames[record1] = fileNames[record2];
+        fileNames[record2] = name;
+    }
+}
@@ -0,0 +1,20 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TestDaemonThreadFactory
+{
+    @Test
+    public void testNewThread()
+    {
+        DaemonThreadFactory factory = new DaemonThreadFactory( "spdx-test-" );
+        Thread first = factory.newThread( () -> { } );
+        Thread second = factory.newThread( () -> { } );
+        assertTrue( first.isDaemon() );
+        assertTrue( second.isDaemon() );
+        assertEquals( "spdx-test-1", first.getName() );
+        assertEquals( "spdx-test-2", second.getName() );
+    }
+}
@@ -0,0 +1,174 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Contributor;
+import org.apache.maven.model.License;
+import org.apache.maven.model.Organization;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingException;
+import org.junit.Test;
+
+public class TestDependencyMetadataCache
+{
+
+    private static MavenProject project()
+    {
+        MavenProject project = new MavenProject();
+        project.setGroupId( "org.spdx.test" );
+        project.setArtifactId( "dependency" );
+        project.setVersion( "1.0" );
+        project.setName( "Test dependency" );
+        project.setDescription( "Description" );
+        project.setUrl( "https://spdx.org" );
+        Organization organization = new Organization();
+        organization.setName( "SPDX" );
+        project.setOrganization( organization );
+        License license = new License();
+        license.setName( "Apache License, Version 2.0" );
+        license.setUrl( "https://www.apache.org/licenses/LICENSE-2.0" );
+        project.getModel().addLicense( license );
+        Contributor contributor = new Contributor();
+        contributor.setName( "Contributor" );
+        project.getModel().addContributor( contributor );
+        return project;
+    }
+
+    @Test
+    public void testToMavenProject()
+    {
+        MavenProject result = DependencyMetadata.fromProject( project() ).toMavenProject();
+        assertEquals( "org.spdx.test", result.getGroupId() );
+        assertEquals( "dependency", result.getArtifactId() );
+        assertEquals( "1.0", result.getVersion() );
+        assertEquals( "Test dependency", result.getName() );
+        assertEquals( "Description", result.getDescription() );
+        assertEquals( "https://spdx.org", result.getUrl() );
+        assertEquals( "SPDX", result.getOrganization().getName() );
+        assertEquals( 1, result.getLicenses().size() );
+        assertEquals( "Apache License, Version 2.0", result.getLicenses().get( 0 ).getName() );
+        assertEquals( "https://www.apache.org/licenses/LICENSE-2.0", result.getLicenses().get( 0 ).getUrl() );
+        assertEquals( 1, result.getContributors().size() );
+        assertEquals( "Contributor", result.getContributors().get( 0 ).getName() );
+    }
+
+    @Test
+    public void testConcurrentLoadsOnce() throws Exception
+    {
+        DependencyMetadataCache cache = new DependencyMetadataCache();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch( 1 );
+        ExecutorService executor = Executors.newFixedThreadPool( 8 );
+        try
+        {
+            List<Future<DependencyMetadata>> results = new ArrayList<>();
+            for ( int i = 0; i < 8; i++ )
+            {
+                results.add( executor.submit( () -> {
+                    start.await();
+                    return cache.get( "org.spdx.test:dependency:1.0", () -> {
+                        loads.incrementAndGet();
+                        try
+                        {
+                            Thread.sleep( 50 );
+                        }
+                        catch ( InterruptedException e )
+                        {
+                            Thread.currentThread().interrupt();
+                        }
+                        return DependencyMetadata.fromProject( project() );
+                    } );
+                } ) );
+            }
+            start.countDown();
+            DependencyMetadata first = results.get( 0 ).get( 10, TimeUnit.SECONDS );
+            for ( Future<DependencyMetadata> result : results )
+            {
+                assertSame( first, result.get( 10, TimeUnit.SECONDS ) );
+            }
+            assertEquals( 1, loads.get() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureCached()
+    {
+        DependencyMetadataCache cache = new DependencyMetadataCache();
+        AtomicInteger loads = new AtomicInteger();
+        DependencyMetadataCache.MetadataLoader failing = () -> {
+            loads.incrementAndGet();
+            throw new ProjectBuildingException( "org.spdx.test:missing:1.0", "POM not found", (Throwable) null );
+        };
+        DependencyMetadata result = cache.get( "org.spdx.test:missing:1.0", failing );
+        assertTrue( result.isFailure() );
+        assertTrue( result.getFailureMessage().contains( "POM not found" ) );
+        assertTrue( cache.get( "org.spdx.test:missing:1.0", failing ).isFailure() );
+        assertEquals( 1, loads.get() );
+    }
+
+    @Test
+    public void testInterruptedFailureNotCached()
+    {
+        DependencyMetadataCache cache = new DependencyMetadataCache();
+        AtomicInteger loads = new AtomicInteger();
+        DependencyMetadata result = cache.get( "org.spdx.test:dependency:1.0", () -> {
+            loads.incrementAndGet();
+            throw new ProjectBuildingException( "org.spdx.test:dependency:1.0", "Interrupted", new InterruptedException() );
+        } );
+        assertTrue( result.isFailure() );
+        assertEquals( 0, cache.size() );
+        assertFalse( cache.get( "org.spdx.test:dependency:1.0", () -> {
+            loads.incrementAndGet();
+            return DependencyMetadata.fromProject( project() );
+        } ).isFailure() );
+        assertEquals( 2, loads.get() );
+    }
+
+    @Test
+    public void testRuntimeExceptionNotCached()
+    {
+        DependencyMetadataCache cache = new DependencyMetadataCache();
+        try
+        {
+            cache.get( "org.spdx.test:dependency:1.0", () -> {
+                throw new IllegalStateException( "unexpected" );
+            } );
+            fail( "Expected exception" );
+        }
+        catch ( IllegalStateException e )
+        {
+            assertEquals( "unexpected", e.getMessage() );
+        }
+        assertFalse( cache.get( "org.spdx.test:dependency:1.0",
+                () -> DependencyMetadata.fromProject( project() ) ).isFailure() );
+    }
+
+    @Test
+    public void testForSession()
+    {
+        @SuppressWarnings( "deprecation" )
+        MavenSession session = new MavenSession( null, new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult(), new MavenProject() );
+        @SuppressWarnings( "deprecation" )
+        MavenSession otherSession = new MavenSession( null, new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult(), new MavenProject() );
+        assertSame( DependencyMetadataCache.forSession( session ), DependencyMetadataCache.forSession( session ) );
+        assertNotSame( DependencyMetadataCache.forSession( session ), DependencyMetadataCache.forSession( otherSession ) );
+    }
+}
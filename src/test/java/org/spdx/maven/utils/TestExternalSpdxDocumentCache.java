@@ -0,0 +1,185 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestExternalSpdxDocumentCache
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger parses = new AtomicInteger();
+
+    private final ExternalSpdxDocumentCache.DocumentParser<String> parser = ( file, content ) -> {
+        parses.incrementAndGet();
+        return new String( content.readAllBytes(), StandardCharsets.UTF_8 );
+    };
+
+    private File spdxFile( String name, String content ) throws Exception
+    {
+        File file = new File( folder.getRoot(), name );
+        Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+        return file;
+    }
+
+    @Test
+    public void testParsedOnce() throws Exception
+    {
+        ExternalSpdxDocumentCache<String> cache = new ExternalSpdxDocumentCache<>( 4 );
+        File file = spdxFile( "dep.spdx.json", "document" );
+        ExternalSpdxDocumentCache.ExternalDocument<String> first = cache.get( file, parser );
+        assertEquals( "document", first.getDocument() );
+        assertSame( first, cache.get( file, parser ) );
+        assertEquals( 1, parses.get() );
+        assertEquals( AbstractFileCollector.generateSha1( file ).getValue(), first.getSha1().getValue() );
+    }
+
+    @Test
+    public void testPartiallyReadFile() throws Exception
+    {
+        ExternalSpdxDocumentCache<String> cache = new ExternalSpdxDocumentCache<>( 4 );
+        StringBuilder sb = new StringBuilder( "{}" );
+        for ( int i = 0; i < 10000; i++ )
+        {
+            sb.append( ' ' );
+        }
+        File file = spdxFile( "dep.spdx.json", sb.toString() );
+        ExternalSpdxDocumentCache.ExternalDocument<String> document = cache.get( file, ( f, content ) -> {
+            byte[] start = new byte[2];
+            assertEquals( 2, content.read( start ) );
+            content.close();
+            return new String( start, StandardCharsets.UTF_8 );
+        } );
+        assertEquals( "{}", document.getDocument() );
+        assertEquals( AbstractFileCollector.generateSha1( file ).getValue(), document.getSha1().getValue() );
+    }
+
+    @Test
+    public void testChangedFile() throws Exception
+    {
+        ExternalSpdxDocumentCache<String> cache = new ExternalSpdxDocumentCache<>( 4 );
+        File file = spdxFile( "dep.spdx.json", "document" );
+        cache.get( file, parser );
+        spdxFile( "dep.spdx.json", "changed document" );
+        assertEquals( "changed document", cache.get( file, parser ).getDocument() );
+        assertEquals( 2, parses.get() );
+        assertEquals( 1, cache.size() );
+    }
+
+    @Test
+    public void testBounded() throws Exception
+    {
+        ExternalSpdxDocumentCache<String> cache = new ExternalSpdxDocumentCache<>( 2 );
+        File first = spdxFile( "first.spdx.json", "first" );
+        File second = spdxFile( "second.spdx.json", "second" );
+        File third = spdxFile( "third.spdx.json", "third" );
+        cache.get( first, parser );
+        cache.get( second, parser );
+        cache.get( first, parser );
+        cache.get( third, parser );
+        assertEquals( 2, cache.size() );
+        assertEquals( 3, parses.get() );
+        // second was the least recently used
+        cache.get( first, parser );
+        assertEquals( 3, parses.get() );
+        cache.get( second, parser );
+        assertEquals( 4, parses.get() );
+    }
+
+    @Test
+    public void testConcurrentParsedOnce() throws Exception
+    {
+        ExternalSpdxDocumentCache<String> cache = new ExternalSpdxDocumentCache<>( 4 );
+        File file = spdxFile( "dep.spdx.json", "document" );
+        CountDownLatch parsing = new CountDownLatch( 1 );
+        CountDownLatch release = new CountDownLatch( 1 );
+        ExternalSpdxDocumentCache.DocumentParser<String> slowParser = ( f, content ) -> {
+            parsing.countDown();
+            try
+            {
+                release.await();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            return parser.parse( f, content );
+        };
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try
+        {
+            List<Future<ExternalSpdxDocumentCache.ExternalDocument<String>>> results = new ArrayList<>();
+            results.add( executor.submit( () -> cache.get( file, slowParser ) ) );
+            assertTrue( parsing.await( 10, TimeUnit.SECONDS ) );
+            for ( int i = 0; i < 3; i++ )
+            {
+                results.add( executor.submit( () -> cache.get( file, slowParser ) ) );
+            }
+            release.countDown();
+            for ( Future<ExternalSpdxDocumentCache.ExternalDocument<String>> result : results )
+            {
+                assertSame( results.get( 0 ).get(), result.get() );
+            }
+            assertEquals( 1, parses.get() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureNotCached() throws Exception
+    {
+        ExternalSpdxDocumentCache<String> cache = new ExternalSpdxDocumentCache<>( 4 );
+        File file = spdxFile( "dep.spdx.json", "document" );
+        try
+        {
+            cache.get( file, ( f, content ) -> {
+                throw new IOException( "parse error" );
+            } );
+            fail( "Expected IOException" );
+        }
+        catch ( IOException e )
+        {
+            assertEquals( "parse error", e.getMessage() );
+        }
+        assertEquals( 0, cache.size() );
+        assertEquals( "document", cache.get( file, parser ).getDocument() );
+    }
+
+    @Test
+    public void testForSession()
+    {
+        MavenSession session = new MavenSession( null, new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult(), new MavenProject() );
+        MavenSession otherSession = new MavenSession( null, new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult(), new MavenProject() );
+        assertSame( ExternalSpdxDocumentCache.forSession( session, "v2" ),
+                    ExternalSpdxDocumentCache.forSession( session, "v2" ) );
+        assertNotSame( ExternalSpdxDocumentCache.forSession( session, "v2" ),
+                       ExternalSpdxDocumentCache.forSession( session, "v3" ) );
+        assertNotSame( ExternalSpdxDocumentCache.forSession( session, "v2" ),
+                       ExternalSpdxDocumentCache.forSession( otherSession, "v2" ) );
+    }
+}
@@ -0,0 +1,223 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.library.model.v2.SpdxPackage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TestExternalSpdxJsonFilter
+{
+    private static final String V2_DOCUMENT = "{\n" +
+            "  \"SPDXID\": \"SPDXRef-DOCUMENT\",\n" +
+            "  \"spdxVersion\": \"SPDX-2.3\",\n" +
+            "  \"name\": \"dependency\",\n" +
+            "  \"dataLicense\": \"CC0-1.0\",\n" +
+            "  \"documentNamespace\": \"http://spdx.org/spdxdocs/dependency\",\n" +
+            "  \"creationInfo\": { \"created\": \"2024-01-01T00:00:00Z\", \"creators\": [ \"Tool: test\" ] },\n" +
+            "  \"documentDescribes\": [ \"SPDXRef-package\" ],\n" +
+            "  \"files\": [ {\n" +
+            "    \"SPDXID\": \"SPDXRef-file\",\n" +
+            "    \"fileName\": \"./src/Main.java\",\n" +
+            "    \"checksums\": [ { \"algorithm\": \"SHA1\", \"checksumValue\": \"50cb03252153463010fd941fc3377a019b791d7d\" } ],\n" +
+            "    \"licenseConcluded\": \"Apache-2.0\",\n" +
+            "    \"copyrightText\": \"NOASSERTION\"\n" +
+            "  } ],\n" +
+            "  \"packages\": [ {\n" +
+            "    \"SPDXID\": \"SPDXRef-package\",\n" +
+            "    \"name\": \"dependency\",\n" +
+            "    \"versionInfo\": \"1.0\",\n" +
+            "    \"downloadLocation\": \"NOASSERTION\",\n" +
+            "    \"licenseConcluded\": \"Apache-2.0\",\n" +
+            "    \"licenseDeclared\": \"Apache-2.0\",\n" +
+            "    \"copyrightText\": \"NOASSERTION\",\n" +
+            "    \"filesAnalyzed\": false,\n" +
+            "    \"hasFiles\": [ \"SPDXRef-file\" ]\n" +
+            "  } ],\n" +
+            "  \"relationships\": [ {\n" +
+            "    \"spdxElementId\": \"SPDXRef-DOCUMENT\",\n" +
+            "    \"relationshipType\": \"DESCRIBES\",\n" +
+            "    \"relatedSpdxElement\": \"SPDXRef-package\"\n" +
+            "  }, {\n" +
+            "    \"spdxElementId\": \"SPDXRef-file\",\n" +
+            "    \"relationshipType\": \"GENERATES\",\n" +
+            "    \"relatedSpdxElement\": \"SPDXRef-package\"\n" +
+            "  } ]\n" +
+            "}";
+
+    private static final String V3_DOCUMENT = "{\n" +
+            "  \"@context\": \"https://spdx.org/rdf/3.0.1/spdx-context.jsonld\",\n" +
+            "  \"@graph\": [ {\n" +
+            "    \"type\": \"SpdxDocument\",\n" +
+            "    \"spdxId\": \"http://spdx.org/dependency/Document\",\n" +
+            "    \"rootElement\": [ \"http://spdx.org/dependency/package\" ],\n" +
+            "    \"element\": [ \"http://spdx.org/dependency/package\", \"http://spdx.org/dependency/file\" ]\n" +
+            "  }, {\n" +
+            "    \"spdxId\": \"http://spdx.org/dependency/package\",\n" +
+            "    \"type\": \"software_Package\",\n" +
+            "    \"name\": \"dependency\"\n" +
+            "  }, {\n" +
+            "    \"spdxId\": \"http://spdx.org/dependency/file\",\n" +
+            "    \"name\": \"./src/Main.java\",\n" +
+            "    \"type\": \"software_File\"\n" +
+            "  }, {\n" +
+            "    \"spdxId\": \"http://spdx.org/dependency/snippet\",\n" +
+            "    \"type\": \"software_Snippet\",\n" +
+            "    \"software_snippetFromFile\": \"http://spdx.org/dependency/file\"\n" +
+            "  }, {\n" +
+            "    \"spdxId\": \"http://spdx.org/dependency/contains\",\n" +
+            "    \"type\": \"Relationship\",\n" +
+            "    \"relationshipType\": \"contains\",\n" +
+            "    \"from\": \"http://spdx.org/dependency/package\",\n" +
+            "    \"to\": [ \"http://spdx.org/dependency/file\" ]\n" +
+            "  }, {\n" +
+            "    \"spdxId\": \"http://spdx.org/dependency/license\",\n" +
+            "    \"type\": \"Relationship\",\n" +
+            "    \"relationshipType\": \"hasDeclaredLicense\",\n" +
+            "    \"from\": \"http://spdx.org/dependency/package\",\n" +
+            "    \"to\": [ \"http://spdx.org/licenses/Apache-2.0\" ]\n" +
+            "  }, {\n" +
+            "    \"spdxId\": \"http://spdx.org/dependency/annotation\",\n" +
+            "    \"type\": \"Annotation\",\n" +
+            "    \"subject\": \"http://spdx.org/dependency/file\"\n" +
+            "  } ]\n" +
+            "}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception
+    {
+        SpdxModelFactory.init();
+    }
+
+    private File spdxFile( String name, String content ) throws Exception
+    {
+        File file = new File( folder.getRoot(), name );
+        Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+        return file;
+    }
+
+    private static byte[] filter( File file, boolean v2 ) throws Exception
+    {
+        try ( InputStream content = Files.newInputStream( file.toPath() ) )
+        {
+            return v2 ? ExternalSpdxJsonFilter.filterSpdxV2Json( content ) : ExternalSpdxJsonFilter.filterSpdxV3JsonLd( content );
+        }
+    }
+
+    private static List<String> ids( JsonNode elements, String idField )
+    {
+        List<String> retval = new ArrayList<>();
+        for ( JsonNode element : elements )
+        {
+            retval.add( element.path( idField ).asText() );
+        }
+        return retval;
+    }
+
+    @Test
+    public void testFilterSpdxV2Json() throws Exception
+    {
+        JsonNode result = new ObjectMapper().readTree(
+                filter( spdxFile( "dependency.spdx.json", V2_DOCUMENT ), true ) );
+        assertFalse( result.has( "files" ) );
+        assertEquals( "http://spdx.org/spdxdocs/dependency", result.path( "documentNamespace" ).asText() );
+        assertEquals( 1, result.path( "packages" ).size() );
+        assertFalse( result.path( "packages" ).get( 0 ).has( "hasFiles" ) );
+        assertEquals( "Apache-2.0", result.path( "packages" ).get( 0 ).path( "licenseDeclared" ).asText() );
+        assertEquals( 1, result.path( "relationships" ).size() );
+        assertEquals( "DESCRIBES", result.path( "relationships" ).get( 0 ).path( "relationshipType" ).asText() );
+        assertEquals( "SPDXRef-package", result.path( "documentDescribes" ).get( 0 ).asText() );
+    }
+
+    @Test
+    public void testFilterSpdxV2JsonRelationshipsFirst() throws Exception
+    {
+        // relationships to files which follow them are removed by the second pass
+        String relationships = V2_DOCUMENT.substring( V2_DOCUMENT.indexOf( "  \"relationships\"" ), V2_DOCUMENT.lastIndexOf( '}' ) );
+        String content = V2_DOCUMENT.replace( ",\n" + relationships, "\n" )
+                .replace( "  \"documentDescribes\"", relationships.trim() + ",\n  \"documentDescribes\"" );
+        assertTrue( content.indexOf( "GENERATES" ) < content.indexOf( "\"files\"" ) );
+        JsonNode result = new ObjectMapper().readTree( filter( spdxFile( "dependency.spdx.json", content ), true ) );
+        assertFalse( result.has( "files" ) );
+        assertEquals( 1, result.path( "relationships" ).size() );
+        assertEquals( "DESCRIBES", result.path( "relationships" ).get( 0 ).path( "relationshipType" ).asText() );
+        assertEquals( 1, result.path( "packages" ).size() );
+    }
+
+    @Test
+    public void testSpdxV2DocumentFromFile() throws Exception
+    {
+        File file = spdxFile( "dependency.spdx.json", V2_DOCUMENT );
+        SpdxDocument doc = SpdxV2DependencyBuilder.spdxDocumentFromFile( file.getPath() );
+        assertEquals( "http://spdx.org/spdxdocs/dependency", doc.getDocumentUri() );
+        SpdxPackage pkg = SpdxV2DependencyBuilder.findMatchingDescribedPackage( doc, "dependency" );
+        assertEquals( "SPDXRef-package", pkg.getId() );
+        assertEquals( "1.0", pkg.getVersionInfo().orElse( "" ) );
+        assertEquals( "Apache-2.0", pkg.getLicenseDeclared().toString() );
+        assertTrue( pkg.getFiles().isEmpty() );
+    }
+
+    @Test
+    public void testExtractSpdxV2DescribedPackages() throws Exception
+    {
+        File file = spdxFile( "dependency.spdx.json", V2_DOCUMENT );
+        SpdxDocument doc = SpdxV2DependencyBuilder.extractDescribedPackages(
+                SpdxV2DependencyBuilder.spdxDocumentFromFile( file.getPath() ) );
+        assertEquals( "http://spdx.org/spdxdocs/dependency", doc.getDocumentUri() );
+        SpdxPackage pkg = SpdxV2DependencyBuilder.findMatchingDescribedPackage( doc, "dependency" );
+        assertEquals( "SPDXRef-package", pkg.getId() );
+        assertEquals( "1.0", pkg.getVersionInfo().orElse( "" ) );
+        assertEquals( "Apache-2.0", pkg.getLicenseDeclared().toString() );
+        assertFalse( doc.getModelStore().exists( doc.getDocumentUri() + "#SPDXRef-file" ) );
+    }
+
+    @Test
+    public void testExtractSpdxV3DescribedPackages() throws Exception
+    {
+        File file = spdxFile( "dependency.json-ld.json", V3_DOCUMENT );
+        org.spdx.library.model.v3_0_1.core.SpdxDocument doc;
+        try ( InputStream content = Files.newInputStream( file.toPath() ) )
+        {
+            doc = SpdxV3DependencyBuilder.extractDescribedPackages(
+                    SpdxV3DependencyBuilder.spdxDocumentFromStream( file, content ) );
+        }
+        assertEquals( "http://spdx.org/dependency/Document", doc.getObjectUri() );
+        assertEquals( 1, doc.getRootElements().size() );
+        assertEquals( "http://spdx.org/dependency/package", doc.getRootElements().iterator().next().getObjectUri() );
+        assertFalse( doc.getModelStore().exists( "http://spdx.org/dependency/file" ) );
+    }
+
+    @Test
+    public void testFilterSpdxV3JsonLd() throws Exception
+    {
+        JsonNode result = new ObjectMapper().readTree(
+                filter( spdxFile( "dependency.spdx3.json", V3_DOCUMENT ), false ) );
+        assertEquals( "https://spdx.org/rdf/3.0.1/spdx-context.jsonld", result.path( "@context" ).asText() );
+        JsonNode graph = result.path( "@graph" );
+        List<String> ids = ids( graph, "spdxId" );
+        assertEquals( 3, ids.size() );
+        assertTrue( ids.contains( "http://spdx.org/dependency/Document" ) );
+        assertTrue( ids.contains( "http://spdx.org/dependency/package" ) );
+        assertTrue( ids.contains( "http://spdx.org/dependency/license" ) );
+        JsonNode document = graph.get( ids.indexOf( "http://spdx.org/dependency/Document" ) );
+        assertEquals( 1, document.path( "element" ).size() );
+        assertEquals( "http://spdx.org/dependency/package", document.path( "rootElement" ).get( 0 ).asText() );
+    }
+}
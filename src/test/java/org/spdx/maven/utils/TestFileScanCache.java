@@ -0,0 +1,156 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.spdx.library.model.v2.enumerations.ChecksumAlgorithm;
+import org.spdx.maven.Checksum;
+
+public class TestFileScanCache
+{
+    private static final String SCAN_SETTINGS = "test";
+    private static final String RELATIVE_PATH = "src/main/java/Test.java";
+
+    private File directory;
+    private File cacheFile;
+    private File sourceFile;
+    private Set<String> algorithms;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        directory = Files.createTempDirectory( "FileScanCache" ).toFile();
+        cacheFile = new File( directory, "cache.json" );
+        sourceFile = new File( directory, "Test.java" );
+        Files.write( sourceFile.toPath(), "// SPDX-License-Identifier: MIT\n".getBytes( StandardCharsets.UTF_8 ) );
+        algorithms = new HashSet<>( Arrays.asList( ChecksumAlgorithm.SHA1.toString(), ChecksumAlgorithm.SHA256.toString() ) );
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        for ( File file : directory.listFiles() )
+        {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    private ScannedFile newScannedFile() throws IOException
+    {
+        return new ScannedFile( sourceFile.toPath(), Files.readAttributes( sourceFile.toPath(), BasicFileAttributes.class ),
+                                RELATIVE_PATH, RELATIVE_PATH, new SpdxDefaultFileInformation() );
+    }
+
+    private ScannedFile scan() throws Exception
+    {
+        ScannedFile scannedFile = newScannedFile();
+        scannedFile.setChecksums( AbstractFileCollector.generateChecksum( sourceFile, algorithms ) );
+        scannedFile.setSpdxLicenses( SpdxSourceFileParser.parseFileForSpdxLicenses( sourceFile ) );
+        return scannedFile;
+    }
+
+    @Test
+    public void testUnchangedFileIsReused() throws Exception
+    {
+        ScannedFile scanned = scan();
+        FileScanCache cache = FileScanCache.load( cacheFile, false, SCAN_SETTINGS );
+        cache.update( RELATIVE_PATH, scanned );
+        cache.save();
+        assertTrue( cacheFile.exists() );
+
+        FileScanCache reloaded = FileScanCache.load( cacheFile, false, SCAN_SETTINGS );
+        ScannedFile fromCache = newScannedFile();
+        assertTrue( reloaded.fill( RELATIVE_PATH, fromCache, algorithms, true ) );
+        assertEquals( scanned.getChecksums(), fromCache.getChecksums() );
+        assertEquals( Collections.singletonList( "MIT" ), fromCache.getSpdxLicenses() );
+
+        // a subset of the cached algorithms is also a hit
+        ScannedFile sha1Only = newScannedFile();
+        assertTrue( reloaded.fill( RELATIVE_PATH, sha1Only, Collections.singleton( ChecksumAlgorithm.SHA1.toString() ), false ) );
+        assertEquals( 1, sha1Only.getChecksums().size() );
+        Checksum sha1 = sha1Only.getChecksums().iterator().next();
+        assertEquals( AbstractFileCollector.generateSha1( sourceFile ), sha1 );
+    }
+
+    @Test
+    public void testChangedFileIsRescanned() throws Exception
+    {
+        FileScanCache cache = FileScanCache.load( cacheFile, false, SCAN_SETTINGS );
+        cache.update( RELATIVE_PATH, scan() );
+        cache.save();
+
+        Files.write( sourceFile.toPath(), "// SPDX-License-Identifier: Apache-2.0\n".getBytes( StandardCharsets.UTF_8 ) );
+        FileScanCache reloaded = FileScanCache.load( cacheFile, false, SCAN_SETTINGS );
+        assertFalse( reloaded.fill( RELATIVE_PATH, newScannedFile(), algorithms, true ) );
+    }
+
+    @Test
+    public void testFingerprint() throws Exception
+    {
+        FileScanCache cache = FileScanCache.load( cacheFile, true, SCAN_SETTINGS );
+        cache.update( RELATIVE_PATH, scan() );
+        cache.save();
+
+        // same size and last modified time but different content
+        long lastModified = sourceFile.lastModified();
+        Files.write( sourceFile.toPath(), "// SPDX-License-Identifier: BSD\n".getBytes( StandardCharsets.UTF_8 ) );
+        assertTrue( sourceFile.setLastModified( lastModified ) );
+        FileScanCache reloaded = FileScanCache.load( cacheFile, true, SCAN_SETTINGS );
+        assertFalse( reloaded.fill( RELATIVE_PATH, newScannedFile(), algorithms, true ) );
+    }
+
+    @Test
+    public void testFingerprintMiddleOfFile() throws Exception
+    {
+        char[] content = new char[20000];
+        Arrays.fill( content, 'a' );
+        Files.write( sourceFile.toPath(), new String( content ).getBytes( StandardCharsets.UTF_8 ) );
+        FileScanCache cache = FileScanCache.load( cacheFile, true, SCAN_SETTINGS );
+        cache.update( RELATIVE_PATH, scan() );
+        cache.save();
+        FileScanCache reloaded = FileScanCache.load( cacheFile, true, SCAN_SETTINGS );
+        assertTrue( reloaded.fill( RELATIVE_PATH, newScannedFile(), algorithms, true ) );
+
+        // same size and last modified time with a change far from the start and end of the file
+        long lastModified = sourceFile.lastModified();
+        content[10000] = 'b';
+        Files.write( sourceFile.toPath(), new String( content ).getBytes( StandardCharsets.UTF_8 ) );
+        assertTrue( sourceFile.setLastModified( lastModified ) );
+        reloaded = FileScanCache.load( cacheFile, true, SCAN_SETTINGS );
+        assertFalse( reloaded.fill( RELATIVE_PATH, newScannedFile(), algorithms, true ) );
+    }
+
+    @Test
+    public void testScanSettingsChange() throws Exception
+    {
+        FileScanCache cache = FileScanCache.load( cacheFile, false, SCAN_SETTINGS );
+        cache.update( RELATIVE_PATH, scan() );
+        cache.save();
+
+        FileScanCache reloaded = FileScanCache.load( cacheFile, false, "other settings" );
+        ScannedFile fromCache = newScannedFile();
+        assertFalse( reloaded.fill( RELATIVE_PATH, fromCache, algorithms, true ) );
+        assertTrue( reloaded.fill( RELATIVE_PATH, fromCache, algorithms, false ) );
+    }
+
+    @Test
+    public void testCorruptCacheIgnored() throws IOException
+    {
+        Files.write( cacheFile.toPath(), "{not json".getBytes( StandardCharsets.UTF_8 ) );
+        FileScanCache cache = FileScanCache.load( cacheFile, false, SCAN_SETTINGS );
+        assertFalse( cache.fill( RELATIVE_PATH, newScannedFile(), algorithms, false ) );
+    }
+}
@@ -0,0 +1,127 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.shared.model.fileset.FileSet;
+import org.apache.maven.shared.model.fileset.util.FileSetManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFileSetWalker
+{
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        directory = Files.createTempDirectory( "FileSetWalker" ).toFile();
+        createFile( "pom.xml" );
+        createFile( "src/main/java/Main.java" );
+        createFile( "src/main/java/data.bin" );
+        createFile( "src/main/resources/config.properties" );
+        createFile( "src/test/java/MainTest.java" );
+        createFile( ".git/config" );
+        createFile( "target/classes/Main.class" );
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        FileUtils.deleteDirectory( directory );
+    }
+
+    private void createFile( String path ) throws IOException
+    {
+        Path file = directory.toPath().resolve( path );
+        Files.createDirectories( file.getParent() );
+        Files.write( file, path.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    private Set<String> walk( FileSet fileSet ) throws SpdxCollectionException
+    {
+        Set<String> result = new HashSet<>();
+        new FileSetWalker( fileSet ).walk( ( file, attributes, includedFile ) -> {
+            assertTrue( Files.isRegularFile( file ) );
+            assertEquals( file.toFile().length(), attributes.size() );
+            assertEquals( directory.toPath().resolve( includedFile ), file );
+            result.add( includedFile.replace( File.separatorChar, '/' ) );
+        } );
+        return result;
+    }
+
+    private Set<String> scan( FileSet fileSet )
+    {
+        Set<String> result = new HashSet<>();
+        for ( String includedFile : new FileSetManager().getIncludedFiles( fileSet ) )
+        {
+            result.add( includedFile.replace( File.separatorChar, '/' ) );
+        }
+        return result;
+    }
+
+    @Test
+    public void testDefaultExcludes() throws SpdxCollectionException
+    {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory( directory.getPath() );
+        Set<String> expected = new HashSet<>( Arrays.asList( "pom.xml", "src/main/java/Main.java",
+                "src/main/java/data.bin", "src/main/resources/config.properties", "src/test/java/MainTest.java",
+                "target/classes/Main.class" ) );
+        assertEquals( expected, walk( fileSet ) );
+        assertEquals( scan( fileSet ), walk( fileSet ) );
+    }
+
+    @Test
+    public void testIncludesAndExcludes() throws SpdxCollectionException
+    {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory( directory.getPath() );
+        fileSet.addInclude( "src/main/" );
+        fileSet.addInclude( "pom.xml" );
+        fileSet.addExclude( "**/*.bin" );
+        fileSet.addExclude( "**/resources/**" );
+        Set<String> expected = new HashSet<>( Arrays.asList( "pom.xml", "src/main/java/Main.java" ) );
+        assertEquals( expected, walk( fileSet ) );
+        assertEquals( scan( fileSet ), walk( fileSet ) );
+    }
+
+    @Test
+    public void testMissingDirectory() throws SpdxCollectionException
+    {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory( new File( directory, "doesNotExist" ).getPath() );
+        assertTrue( walk( fileSet ).isEmpty() );
+    }
+
+    @Test
+    public void testHandlerException()
+    {
+        FileSet fileSet = new FileSet();
+        fileSet.setDirectory( directory.getPath() );
+        int[] count = new int[1];
+        try
+        {
+            new FileSetWalker( fileSet ).walk( ( file, attributes, includedFile ) -> {
+                count[0]++;
+                throw new SpdxCollectionException( "stop" );
+            } );
+            fail( "Expected exception" );
+        }
+        catch ( SpdxCollectionException e )
+        {
+            assertEquals( "stop", e.getMessage() );
+            assertEquals( 1, count[0] );
+        }
+    }
+}
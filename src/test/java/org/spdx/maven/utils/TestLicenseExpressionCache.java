@@ -0,0 +1,56 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.spdx.core.InvalidSPDXAnalysisException;
+
+public class TestLicenseExpressionCache
+{
+
+    @Test
+    public void testParse() throws InvalidSPDXAnalysisException
+    {
+        LicenseExpressionCache<StringBuilder> cache = new LicenseExpressionCache<>();
+        int[] parseCount = new int[1];
+        LicenseExpressionCache.LicenseParser<StringBuilder> parser = expression -> {
+            parseCount[0]++;
+            return new StringBuilder( expression );
+        };
+        Object document = new Object();
+        StringBuilder mit = cache.parse( document, "MIT", parser );
+        assertSame( mit, cache.parse( document, "MIT", parser ) );
+        StringBuilder apache = cache.parse( document, "Apache-2.0", parser );
+        assertEquals( "Apache-2.0", apache.toString() );
+        assertEquals( 2, parseCount[0] );
+        assertEquals( 2, cache.size() );
+
+        // a different document does not reuse licenses stored in another document
+        StringBuilder otherMit = cache.parse( new Object(), "MIT", parser );
+        assertNotSame( mit, otherMit );
+        assertEquals( 3, parseCount[0] );
+        assertEquals( 1, cache.size() );
+    }
+
+    @Test
+    public void testParseError()
+    {
+        LicenseExpressionCache<String> cache = new LicenseExpressionCache<>();
+        Object document = new Object();
+        for ( int i = 0; i < 2; i++ )
+        {
+            try
+            {
+                cache.parse( document, "(MIT", expression -> {
+                    throw new InvalidSPDXAnalysisException( "Unbalanced" );
+                } );
+                fail( "Expected parse error" );
+            }
+            catch ( InvalidSPDXAnalysisException e )
+            {
+                assertEquals( "Unbalanced", e.getMessage() );
+            }
+        }
+        assertEquals( 0, cache.size() );
+    }
+}
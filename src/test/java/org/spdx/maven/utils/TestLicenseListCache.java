@@ -0,0 +1,168 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class TestLicenseListCache
+{
+    private static final String LICENSE_LIST_1 = "{ \"licenseListVersion\": \"1\", \"licenses\": [ { \"licenseId\": \"MIT\", \"seeAlso\": [ \"https://opensource.org/license/mit/\" ] } ] }";
+    private static final String LICENSE_LIST_2 = "{ \"licenseListVersion\": \"2\", \"licenses\": [ { \"licenseId\": \"Apache-2.0\" } ] }";
+    private static final long HOUR = TimeUnit.HOURS.toMillis( 1 );
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private URL url;
+
+    private volatile String content = LICENSE_LIST_1;
+    private volatile String etag = "\"1\"";
+    private volatile String contentType = "application/json";
+    private volatile long delayMillis = 0;
+    private final List<String> requests = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception
+    {
+        server = HttpServer.create( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 0 );
+        server.createContext( "/licenses.json", this::handle );
+        server.start();
+        url = new URL( "http://localhost:" + server.getAddress().getPort() + "/licenses.json" );
+    }
+
+    @After
+    public void tearDown()
+    {
+        server.stop( 0 );
+    }
+
+    /**
+     * Responds with the current content or not modified if the If-None-Match header matches the current ETag and
+     * records the If-None-Match header of each request
+     */
+    private void handle( HttpExchange exchange ) throws IOException
+    {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst( "If-None-Match" );
+        synchronized ( requests )
+        {
+            requests.add( String.valueOf( ifNoneMatch ) );
+        }
+        try
+        {
+            Thread.sleep( delayMillis );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getResponseHeaders().set( "ETag", etag );
+        if ( etag.equals( ifNoneMatch ) )
+        {
+            exchange.sendResponseHeaders( 304, -1 );
+            exchange.close();
+            return;
+        }
+        byte[] body = content.getBytes( StandardCharsets.UTF_8 );
+        exchange.getResponseHeaders().set( "Content-Type", contentType );
+        exchange.sendResponseHeaders( 200, body.length );
+        try ( OutputStream os = exchange.getResponseBody() )
+        {
+            os.write( body );
+        }
+    }
+
+    private LicenseListCache cache( long timeToLive, boolean backgroundRefresh )
+    {
+        return new LicenseListCache( folder.getRoot(), url, timeToLive, 2000, backgroundRefresh );
+    }
+
+    private static String string( byte[] licenseList )
+    {
+        return new String( licenseList, StandardCharsets.UTF_8 );
+    }
+
+    @Test
+    public void testCachedWithinTimeToLive() throws Exception
+    {
+        assertEquals( LICENSE_LIST_1, string( cache( HOUR, true ).getLicenseList() ) );
+        content = LICENSE_LIST_2;
+        LicenseListCache cache = cache( HOUR, true );
+        assertEquals( LICENSE_LIST_1, string( cache.getLicenseList() ) );
+        assertNull( cache.getBackgroundRevalidation() );
+        assertEquals( 1, requests.size() );
+    }
+
+    @Test
+    public void testConditionalRevalidation() throws Exception
+    {
+        cache( 0, false ).getLicenseList();
+        assertEquals( LICENSE_LIST_1, string( cache( 0, false ).getLicenseList() ) );
+        assertEquals( "\"1\"", requests.get( 1 ) );
+
+        content = LICENSE_LIST_2;
+        etag = "\"2\"";
+        assertEquals( LICENSE_LIST_2, string( cache( 0, false ).getLicenseList() ) );
+        assertEquals( LICENSE_LIST_2, string( cache( HOUR, false ).getLicenseList() ) );
+        assertEquals( 3, requests.size() );
+    }
+
+    @Test
+    public void testBackgroundRefresh() throws Exception
+    {
+        cache( HOUR, true ).getLicenseList();
+        content = LICENSE_LIST_2;
+        etag = "\"2\"";
+        delayMillis = 200;
+        LicenseListCache cache = cache( 0, true );
+        // the stale license list is returned without waiting for the server
+        assertEquals( LICENSE_LIST_1, string( cache.getLicenseList() ) );
+        cache.getBackgroundRevalidation().get( 10, TimeUnit.SECONDS );
+        assertEquals( LICENSE_LIST_2, string( cache( HOUR, true ).getLicenseList() ) );
+    }
+
+    @Test
+    public void testTimeout() throws Exception
+    {
+        delayMillis = 5000;
+        LicenseListCache cache = new LicenseListCache( folder.getRoot(), url, HOUR, 200, false );
+        long start = System.currentTimeMillis();
+        assertNull( cache.getLicenseList() );
+        assertTrue( System.currentTimeMillis() - start < 4000 );
+        assertFalse( cache.getCacheFile().exists() );
+    }
+
+    @Test
+    public void testStaleUsedWhenUnavailable() throws Exception
+    {
+        cache( HOUR, false ).getLicenseList();
+        server.stop( 0 );
+        assertEquals( LICENSE_LIST_1, string( cache( 0, false ).getLicenseList() ) );
+    }
+
+    @Test
+    public void testInvalidContentNotCached() throws Exception
+    {
+        content = "<html><body>Sign in to the network</body></html>";
+        contentType = "text/html";
+        assertNull( cache( HOUR, false ).getLicenseList() );
+        assertFalse( cache( HOUR, false ).getCacheFile().exists() );
+    }
+}
@@ -0,0 +1,87 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Optional;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+import org.spdx.maven.LicenseOverwrite;
+
+public class TestLicenseOverwriteIndex
+{
+    private static LicenseOverwrite overwrite( String target, String groupId, String artifactId, String version )
+    {
+        LicenseOverwrite overwrite = new LicenseOverwrite();
+        overwrite.setTarget( target );
+        overwrite.setGroupId( groupId );
+        overwrite.setArtifactId( artifactId );
+        overwrite.setVersion( version );
+        return overwrite;
+    }
+
+    private static MavenProject project( String groupId, String artifactId, String version )
+    {
+        MavenProject project = new MavenProject();
+        project.setGroupId( groupId );
+        project.setArtifactId( artifactId );
+        project.setVersion( version );
+        return project;
+    }
+
+    @Test
+    public void testFind()
+    {
+        LicenseOverwriteIndex<String> index = new LicenseOverwriteIndex<>();
+        index.add( overwrite( "concluded", "org.example", "lib", null ), "MIT" );
+        index.add( overwrite( "declared", "org.example", "lib", "2.0" ), "Apache-2.0" );
+        index.add( overwrite( "concluded", "org.example", "other", "1.0" ), "BSD-3-Clause" );
+
+        assertEquals( Optional.of( "MIT" ), index.find( project( "org.example", "lib", "1.0" ), "concluded" ) );
+        assertFalse( index.find( project( "org.example", "lib", "1.0" ), "declared" ).isPresent() );
+        assertEquals( Optional.of( "Apache-2.0" ), index.find( project( "org.example", "lib", "2.0" ), "declared" ) );
+        assertEquals( Optional.of( "MIT" ), index.find( project( "org.example", "lib", "2.0" ), "concluded" ) );
+
+        assertEquals( Optional.of( "BSD-3-Clause" ), index.find( project( "org.example", "other", "1.0" ), "concluded" ) );
+        assertFalse( index.find( project( "org.example", "other", "1.0" ), "declared" ).isPresent() );
+        assertFalse( index.find( project( "org.example", "other", "1.1" ), "concluded" ).isPresent() );
+        assertFalse( index.find( project( "org.example.lib", "lib", "1.0" ), "concluded" ).isPresent() );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testInvalidTarget()
+    {
+        new LicenseOverwriteIndex<String>().find( project( "org.example", "lib", "1.0" ), "both" );
+    }
+
+    @Test
+    public void testConflicts()
+    {
+        LicenseOverwriteIndex<String> index = new LicenseOverwriteIndex<>();
+        index.add( overwrite( "declared", "org.example", "lib", null ), "MIT" );
+        index.add( overwrite( "concluded", "org.example", "lib", "1.0" ), "MIT" );
+        assertConflict( index, overwrite( "both", "org.example", "lib", null ) );
+        assertConflict( index, overwrite( "declared", "org.example", "lib", null ) );
+        assertConflict( index, overwrite( "concluded", "org.example", "lib", "1.0" ) );
+        // an overwrite with a version and an overwrite without a version both match that version
+        assertConflict( index, overwrite( "concluded", "org.example", "lib", null ) );
+        assertConflict( index, overwrite( "declared", "org.example", "lib", "1.1" ) );
+        assertConflict( index, overwrite( "both", "org.example", "lib", "1.1" ) );
+        index.add( overwrite( "concluded", "org.example", "lib", "1.1" ), "Apache-2.0" );
+        assertEquals( Optional.of( "Apache-2.0" ), index.find( project( "org.example", "lib", "1.1" ), "concluded" ) );
+        assertEquals( Optional.of( "MIT" ), index.find( project( "org.example", "lib", "1.1" ), "declared" ) );
+    }
+
+    private static void assertConflict( LicenseOverwriteIndex<String> index, LicenseOverwrite overwrite )
+    {
+        try
+        {
+            index.add( overwrite, "Apache-2.0" );
+            fail( "Expected conflict for " + overwrite );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            assertTrue( e.getMessage().startsWith( "multiple matching license overwrites" ) );
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestLicenseUrlIndex
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String LICENSE_LIST = "{ \"licenseListVersion\": \"1\", \"licenses\": [ " +
+            "{ \"licenseId\": \"MIT\", \"seeAlso\": [ \"https://opensource.org/license/mit/\", \"https://example.com/shared\" ] }, " +
+            "{ \"licenseId\": \"Apache-2.0\", \"seeAlso\": [ \"https://example.com/shared\" ] } ] }";
+
+    @Test
+    public void testBuildUrlMap() throws Exception
+    {
+        Map<String, String> urlMap = LicenseUrlIndex.buildUrlMap(
+                LicenseUrlIndex.parseLicenseList( new StringReader( LICENSE_LIST ) ) );
+        assertEquals( "MIT", urlMap.get( "https://spdx.org/licenses/MIT" ) );
+        assertEquals( "Apache-2.0", urlMap.get( "https://spdx.org/licenses/Apache-2.0" ) );
+        assertEquals( "MIT", urlMap.get( "http://opensource.org/license/mit/" ) );
+        // ambiguous URLs are not mapped
+        assertFalse( urlMap.containsKey( "http://example.com/shared" ) );
+        assertEquals( 3, urlMap.size() );
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        Map<String, String> urlMap = new HashMap<>();
+        urlMap.put( "http://opensource.org/license/mit/", "MIT" );
+        urlMap.put( "https://spdx.org/licenses/MIT", "MIT" );
+        urlMap.put( "http://www.apache.org/licenses/LICENSE-2.0", "Apache-2.0" );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LicenseUrlIndex.write( urlMap, "1", out );
+        assertEquals( urlMap, LicenseUrlIndex.read( new ByteArrayInputStream( out.toByteArray() ) ) );
+    }
+
+    @Test( expected = IOException.class )
+    public void testNotAnIndex() throws Exception
+    {
+        LicenseUrlIndex.read( new ByteArrayInputStream( LICENSE_LIST.getBytes( StandardCharsets.UTF_8 ) ) );
+    }
+
+    @Test
+    public void testGenerate() throws Exception
+    {
+        Path licenseList = folder.newFile( "licenses.json" ).toPath();
+        Files.write( licenseList, LICENSE_LIST.getBytes( StandardCharsets.UTF_8 ) );
+        Path index = folder.getRoot().toPath().resolve( "resources" ).resolve( "license-url-index.bin" );
+        LicenseUrlIndex.generate( licenseList, index );
+        try ( InputStream is = Files.newInputStream( index ) )
+        {
+            assertEquals( LicenseUrlIndex.buildUrlMap( LicenseUrlIndex.parseLicenseList( new StringReader( LICENSE_LIST ) ) ),
+                          LicenseUrlIndex.read( is ) );
+        }
+    }
+
+    /**
+     * The bundled index is generated by the build and must match the bundled license list
+     */
+    @Test
+    public void testBundledIndexMatchesLicenseList() throws Exception
+    {
+        Map<String, String> expected;
+        try ( InputStream is = getClass().getClassLoader().getResourceAsStream( "resources/licenses.json" );
+              Reader reader = new InputStreamReader( is, StandardCharsets.UTF_8 ) )
+        {
+            expected = LicenseUrlIndex.buildUrlMap( LicenseUrlIndex.parseLicenseList( reader ) );
+        }
+        assertEquals( "License URL index is out of date", expected, LicenseUrlIndex.readBundledIndex() );
+    }
+}
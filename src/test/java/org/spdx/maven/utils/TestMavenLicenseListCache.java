@@ -0,0 +1,73 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.model.License;
+import org.junit.Test;
+
+public class TestMavenLicenseListCache
+{
+    private static License license( String name, String url )
+    {
+        License license = new License();
+        license.setName( name );
+        license.setUrl( url );
+        return license;
+    }
+
+    @Test
+    public void testConvert() throws Exception
+    {
+        DependencyGraphStatistics statistics = new DependencyGraphStatistics();
+        MavenLicenseListCache<StringBuilder> cache = new MavenLicenseListCache<>( statistics );
+        int[] convertCount = new int[1];
+        MavenLicenseListCache.LicenseConverter<StringBuilder> converter = mavenLicenses -> {
+            convertCount[0]++;
+            return new StringBuilder( String.valueOf( mavenLicenses ) );
+        };
+        List<License> apache = Collections.singletonList( license( "Apache-2.0", "https://www.apache.org/licenses/LICENSE-2.0" ) );
+        StringBuilder converted = cache.convert( apache, converter );
+        // an equal license list from another POM reuses the converted license
+        assertSame( converted, cache.convert( Collections.singletonList(
+                license( "Apache-2.0", "https://www.apache.org/licenses/LICENSE-2.0" ) ), converter ) );
+        cache.convert( Collections.singletonList( license( "Apache License", "https://www.apache.org/licenses/LICENSE-2.0" ) ), converter );
+        cache.convert( Arrays.asList( license( "MIT", null ), apache.get( 0 ) ), converter );
+        cache.convert( Arrays.asList( apache.get( 0 ), license( "MIT", null ) ), converter );
+        cache.convert( Collections.emptyList(), converter );
+        cache.convert( Collections.emptyList(), converter );
+        assertEquals( 5, convertCount[0] );
+        assertEquals( 5, cache.size() );
+        assertEquals( 2, statistics.getLicenseCacheHits() );
+        assertEquals( 5, statistics.getLicenseCacheMisses() );
+    }
+
+    @Test
+    public void testConvertError()
+    {
+        MavenLicenseListCache<String> cache = new MavenLicenseListCache<>( new DependencyGraphStatistics() );
+        List<License> licenses = Collections.singletonList( license( "MIT", "https://opensource.org/license/mit/" ) );
+        for ( int i = 0; i < 2; i++ )
+        {
+            try
+            {
+                cache.convert( licenses, mavenLicenses -> {
+                    throw new LicenseMapperException( "Unavailable" );
+                } );
+                fail( "Expected conversion error" );
+            }
+            catch ( LicenseMapperException e )
+            {
+                assertEquals( "Unavailable", e.getMessage() );
+            }
+            catch ( Exception e )
+            {
+                fail( "Unexpected exception " + e );
+            }
+        }
+        assertEquals( 0, cache.size() );
+    }
+}
@@ -0,0 +1,42 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestPathSpecificInfoResolver
+{
+
+    @Test
+    public void testResolve()
+    {
+        SpdxDefaultFileInformation srcInfo = new SpdxDefaultFileInformation();
+        SpdxDefaultFileInformation packageInfo = new SpdxDefaultFileInformation();
+        SpdxDefaultFileInformation fileInfo = new SpdxDefaultFileInformation();
+        Map<String, SpdxDefaultFileInformation> pathSpecificInformation = new HashMap<>();
+        pathSpecificInformation.put( "src", srcInfo );
+        pathSpecificInformation.put( "src/main/java/org/spdx", packageInfo );
+        pathSpecificInformation.put( "src/main/java/org/spdx/Main.java", fileInfo );
+        PathSpecificInfoResolver resolver = new PathSpecificInfoResolver( pathSpecificInformation );
+
+        assertSame( fileInfo, resolver.resolve( "src/main/java/org/spdx/Main.java" ) );
+        assertSame( packageInfo, resolver.resolve( "src/main/java/org/spdx/Other.java" ) );
+        assertSame( packageInfo, resolver.resolve( "src/main/java/org/spdx/Main.java.orig" ) );
+        assertSame( packageInfo, resolver.resolve( "src/main/java/org/spdx/sub/Deep.java" ) );
+        assertSame( srcInfo, resolver.resolve( "src/main/java/org/spdxother/File.java" ) );
+        assertSame( srcInfo, resolver.resolve( "src/test/java/File.java" ) );
+        assertSame( srcInfo, resolver.resolve( "src" ) );
+        assertNull( resolver.resolve( "srcother/File.java" ) );
+        assertNull( resolver.resolve( "pom.xml" ) );
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        PathSpecificInfoResolver resolver = new PathSpecificInfoResolver( new HashMap<>() );
+        assertNull( resolver.resolve( "src/main/java/File.java" ) );
+    }
+}
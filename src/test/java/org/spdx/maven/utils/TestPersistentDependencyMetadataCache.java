@@ -0,0 +1,110 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.maven.model.License;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestPersistentDependencyMetadataCache
+{
+    private static final String GROUP_ID = "org.spdx.test";
+    private static final String ARTIFACT_ID = "dependency";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static DependencyMetadata metadata( String version )
+    {
+        MavenProject project = new MavenProject();
+        project.setGroupId( GROUP_ID );
+        project.setArtifactId( ARTIFACT_ID );
+        project.setVersion( version );
+        project.setName( "Test dependency" );
+        License license = new License();
+        license.setName( "Apache License, Version 2.0" );
+        project.getModel().addLicense( license );
+        return DependencyMetadata.fromProject( project );
+    }
+
+    private File pom( String content ) throws Exception
+    {
+        File pom = new File( folder.getRoot(), "dependency.pom" );
+        Files.write( pom.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+        return pom;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        File cacheDir = folder.newFolder( "cache" );
+        File pom = pom( "<project/>" );
+        PersistentDependencyMetadataCache cache = new PersistentDependencyMetadataCache( cacheDir );
+        assertNull( cache.get( GROUP_ID, ARTIFACT_ID, "1.0", pom ) );
+        cache.put( GROUP_ID, ARTIFACT_ID, "1.0", pom, metadata( "1.0" ) );
+        assertTrue( cache.entryFile( GROUP_ID, ARTIFACT_ID, "1.0" ).isFile() );
+
+        DependencyMetadata result = new PersistentDependencyMetadataCache( cacheDir )
+                .get( GROUP_ID, ARTIFACT_ID, "1.0", pom );
+        assertNotNull( result );
+        MavenProject project = result.toMavenProject();
+        assertEquals( "Test dependency", project.getName() );
+        assertEquals( "1.0", project.getVersion() );
+        assertEquals( "Apache License, Version 2.0", project.getLicenses().get( 0 ).getName() );
+        assertNull( cache.get( GROUP_ID, ARTIFACT_ID, "2.0", pom ) );
+    }
+
+    @Test
+    public void testPomChanged() throws Exception
+    {
+        PersistentDependencyMetadataCache cache = new PersistentDependencyMetadataCache( folder.newFolder( "cache" ) );
+        File pom = pom( "<project/>" );
+        cache.put( GROUP_ID, ARTIFACT_ID, "1.0", pom, metadata( "1.0" ) );
+        pom( "<project><name>changed</name></project>" );
+        assertNull( cache.get( GROUP_ID, ARTIFACT_ID, "1.0", pom ) );
+    }
+
+    @Test
+    public void testSnapshotTimestamp() throws Exception
+    {
+        PersistentDependencyMetadataCache cache = new PersistentDependencyMetadataCache( folder.newFolder( "cache" ) );
+        File pom = pom( "<project/>" );
+        cache.put( GROUP_ID, ARTIFACT_ID, "1.0-SNAPSHOT", pom, metadata( "1.0-SNAPSHOT" ) );
+        cache.put( GROUP_ID, ARTIFACT_ID, "1.0", pom, metadata( "1.0" ) );
+        assertNotNull( cache.get( GROUP_ID, ARTIFACT_ID, "1.0-SNAPSHOT", pom ) );
+        assertTrue( pom.setLastModified( pom.lastModified() - 10000 ) );
+        assertNull( cache.get( GROUP_ID, ARTIFACT_ID, "1.0-SNAPSHOT", pom ) );
+        // released versions only depend on the POM content
+        assertNotNull( cache.get( GROUP_ID, ARTIFACT_ID, "1.0", pom ) );
+    }
+
+    @Test
+    public void testFailureNotStored() throws Exception
+    {
+        PersistentDependencyMetadataCache cache = new PersistentDependencyMetadataCache( folder.newFolder( "cache" ) );
+        File pom = pom( "<project/>" );
+        cache.put( GROUP_ID, ARTIFACT_ID, "1.0", pom, DependencyMetadata.failure( "error" ) );
+        assertFalse( cache.entryFile( GROUP_ID, ARTIFACT_ID, "1.0" ).exists() );
+    }
+
+    @Test
+    public void testCorruptEntry() throws Exception
+    {
+        PersistentDependencyMetadataCache cache = new PersistentDependencyMetadataCache( folder.newFolder( "cache" ) );
+        File pom = pom( "<project/>" );
+        File entry = cache.entryFile( GROUP_ID, ARTIFACT_ID, "1.0" );
+        assertTrue( entry.getParentFile().mkdirs() );
+        Files.write( entry.toPath(), "{not json".getBytes( StandardCharsets.UTF_8 ) );
+        assertNull( cache.get( GROUP_ID, ARTIFACT_ID, "1.0", pom ) );
+        cache.put( GROUP_ID, ARTIFACT_ID, "1.0", pom, metadata( "1.0" ) );
+        assertNotNull( cache.get( GROUP_ID, ARTIFACT_ID, "1.0", pom ) );
+        String[] leftovers = entry.getParentFile().list( ( dir, name ) -> name.endsWith( ".tmp" ) );
+        assertEquals( 0, leftovers.length );
+    }
+}
@@ -2,7 +2,11 @@ package org.spdx.maven.utils;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 
 import org.junit.After;
@@ -132,4 +136,106 @@ public class TestSpdxSourceFileParser
         }
     }
 
+    @Test
+    public void testParseExpressionAcrossBufferBoundary() throws SpdxSourceParserException, InvalidSPDXAnalysisException
+    {
+        StringBuilder sb = new StringBuilder();
+        while ( sb.length() < SpdxSourceFileParser.READ_BUFFER_SIZE - 30 )
+        {
+            sb.append( "// filler text which does not contain a tag\n" );
+        }
+        sb.append( COMPLEX_MULTI );
+        sb.append( "\nspdx-license-identifier: " + MIT_LICENSE_ID );
+        List<String> result = SpdxSourceFileParser.parseTextForSpdxLicenses( sb.toString() );
+        assertEquals( 2, result.size() );
+        assertTrue( parseLic( result.get( 0 ) ) instanceof DisjunctiveLicenseSet );
+        assertEquals( MIT_LICENSE_ID, ( (ListedLicense) parseLic( result.get( 1 ) ) ).toString() );
+    }
+
+    @Test
+    public void testParseHeaderLines() throws SpdxSourceParserException, IOException
+    {
+        File file = Files.createTempFile( "header", ".java" ).toFile();
+        try
+        {
+            Files.write( file.toPath(), MULTIPLE_SIMPLE_IDS.getBytes( StandardCharsets.UTF_8 ) );
+            assertEquals( 2, SpdxSourceFileParser.parseFileForSpdxLicenses( file ).size() );
+            List<String> result = SpdxSourceFileParser.parseFileForSpdxLicenses( file, 2 );
+            assertEquals( 1, result.size() );
+            assertEquals( APACHE_LICENSE_ID, result.get( 0 ) );
+            assertEquals( 0, SpdxSourceFileParser.parseFileForSpdxLicenses( file, 1 ).size() );
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParseHeaderLinesLineEndings() throws SpdxSourceParserException, IOException
+    {
+        for ( String lineEnd : new String[] { "\n", "\r", "\r\n" } )
+        {
+            String text = "line 1" + lineEnd + "SPDX-License-Identifier: " + APACHE_LICENSE_ID + lineEnd
+                    + "line 3" + lineEnd + "SPDX-License-Identifier: " + MIT_LICENSE_ID + lineEnd;
+            List<String> result = SpdxSourceFileParser.parseStreamForSpdxLicenses(
+                    new ByteArrayInputStream( text.getBytes( StandardCharsets.UTF_8 ) ), 3 );
+            assertEquals( 1, result.size() );
+            assertEquals( APACHE_LICENSE_ID, result.get( 0 ) );
+        }
+    }
+
+    @Test
+    public void testParseExpressionTooLong() throws SpdxSourceParserException
+    {
+        StringBuilder sb = new StringBuilder( "SPDX-License-Identifier: (" );
+        while ( sb.length() <= SpdxSourceFileParser.MAXIMUM_EXPRESSION_LENGTH + 32 )
+        {
+            sb.append( MIT_LICENSE_ID ).append( " OR " );
+        }
+        sb.append( MIT_LICENSE_ID ).append( ')' );
+        try
+        {
+            SpdxSourceFileParser.parseTextForSpdxLicenses( sb.toString() );
+            fail( "Expression exceeding the maximum length was parsed" );
+        }
+        catch ( SpdxSourceParserException e )
+        {
+            // expected
+        }
+        sb.setCharAt( "SPDX-License-Identifier: ".length(), ' ' );
+        sb.setLength( sb.length() - 1 );
+        try
+        {
+            SpdxSourceFileParser.parseTextForSpdxLicenses( sb.toString() );
+            fail( "Line exceeding the maximum length was parsed" );
+        }
+        catch ( SpdxSourceParserException e )
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void testParseLargeFile() throws SpdxSourceParserException, IOException
+    {
+        File file = Files.createTempFile( "large", ".java" ).toFile();
+        try
+        {
+            StringBuilder sb = new StringBuilder();
+            while ( sb.length() < 400000 )
+            {
+                sb.append( "int x = 0; // SPDX-License-Identifiers are not in this line\n" );
+            }
+            sb.append( SIMPLE );
+            Files.write( file.toPath(), sb.toString().getBytes( StandardCharsets.UTF_8 ) );
+            List<String> result = SpdxSourceFileParser.parseFileForSpdxLicenses( file );
+            assertEquals( 1, result.size() );
+            assertEquals( APACHE_LICENSE_ID, result.get( 0 ) );
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
 }
@@ -3,20 +3,56 @@ package org.spdx.maven.utils;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.lang.reflect.Proxy;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
+import org.apache.maven.artifact.repository.MavenArtifactRepository;
+import org.apache.maven.artifact.repository.layout.DefaultRepositoryLayout;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.artifact.resolver.filter.CumulativeScopeArtifactFilter;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingResult;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.apache.maven.shared.dependency.graph.internal.DefaultDependencyNode;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.spdx.core.DefaultModelStore;
+import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.library.LicenseInfoFactory;
 import org.spdx.library.ModelCopyManager;
 import org.spdx.library.SpdxModelFactory;
+import org.spdx.library.model.v2.Relationship;
+import org.spdx.library.model.v2.SpdxConstantsCompatV2;
 import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.library.model.v2.SpdxPackage;
 import org.spdx.library.model.v2.license.AnyLicenseInfo;
 import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
 import org.spdx.library.model.v2.license.SpdxListedLicense;
+import org.spdx.library.model.v2.license.SpdxNoAssertionLicense;
 import org.spdx.maven.LicenseOverwrite;
 import org.spdx.maven.NonStandardLicense;
 import org.spdx.maven.OutputFormat;
@@ -28,6 +64,63 @@ import org.spdx.storage.simple.InMemSpdxStore;
  */
 public class TestSpdxV2DependencyBuilder
 {
+    /**
+     * SPDX document for a module depending on a with a -> d
+     */
+    private static final String MODULE_DOCUMENT = "{\n" +
+            "  \"SPDXID\": \"SPDXRef-DOCUMENT\",\n" +
+            "  \"spdxVersion\": \"SPDX-2.3\",\n" +
+            "  \"name\": \"module\",\n" +
+            "  \"dataLicense\": \"CC0-1.0\",\n" +
+            "  \"documentNamespace\": \"http://spdx.org/spdxdocs/module\",\n" +
+            "  \"creationInfo\": { \"created\": \"2024-01-01T00:00:00Z\", \"creators\": [ \"Tool: test\" ] },\n" +
+            "  \"documentDescribes\": [ \"SPDXRef-module\" ],\n" +
+            "  \"packages\": [\n" +
+            "  {\n" +
+            "    \"SPDXID\": \"SPDXRef-module\",\n" +
+            "    \"name\": \"org.spdx.test:module\",\n" +
+            "    \"versionInfo\": \"1.0\",\n" +
+            "    \"downloadLocation\": \"NOASSERTION\",\n" +
+            "    \"licenseConcluded\": \"NOASSERTION\",\n" +
+            "    \"licenseDeclared\": \"Apache-2.0\",\n" +
+            "    \"copyrightText\": \"NOASSERTION\",\n" +
+            "    \"filesAnalyzed\": false,\n" +
+            "    \"externalRefs\": [ { \"referenceCategory\": \"PACKAGE-MANAGER\", \"referenceType\": \"purl\", \"referenceLocator\": \"pkg:maven/org.spdx.test/module@1.0\" } ]\n" +
+            "  }, " +
+            "  {\n" +
+            "    \"SPDXID\": \"SPDXRef-a\",\n" +
+            "    \"name\": \"org.spdx.test:a\",\n" +
+            "    \"versionInfo\": \"1.0\",\n" +
+            "    \"downloadLocation\": \"NOASSERTION\",\n" +
+            "    \"licenseConcluded\": \"NOASSERTION\",\n" +
+            "    \"licenseDeclared\": \"Apache-2.0\",\n" +
+            "    \"copyrightText\": \"NOASSERTION\",\n" +
+            "    \"filesAnalyzed\": false,\n" +
+            "    \"externalRefs\": [ { \"referenceCategory\": \"PACKAGE-MANAGER\", \"referenceType\": \"purl\", \"referenceLocator\": \"pkg:maven/org.spdx.test/a@1.0\" } ]\n" +
+            "  }, " +
+            "  {\n" +
+            "    \"SPDXID\": \"SPDXRef-d\",\n" +
+            "    \"name\": \"org.spdx.test:d\",\n" +
+            "    \"versionInfo\": \"1.0\",\n" +
+            "    \"downloadLocation\": \"NOASSERTION\",\n" +
+            "    \"licenseConcluded\": \"NOASSERTION\",\n" +
+            "    \"licenseDeclared\": \"Apache-2.0\",\n" +
+            "    \"copyrightText\": \"NOASSERTION\",\n" +
+            "    \"filesAnalyzed\": false,\n" +
+            "    \"externalRefs\": [ { \"referenceCategory\": \"PACKAGE-MANAGER\", \"referenceType\": \"purl\", \"referenceLocator\": \"pkg:maven/org.spdx.test/d@1.0\" } ]\n" +
+            "  }\n" +
+            "  ],\n" +
+            "  \"relationships\": [\n" +
+            "  { \"spdxElementId\": \"SPDXRef-DOCUMENT\", \"relationshipType\": \"DESCRIBES\", \"relatedSpdxElement\": \"SPDXRef-module\" },\n" +
+            "  { \"spdxElementId\": \"SPDXRef-module\", \"relationshipType\": \"DYNAMIC_LINK\", \"relatedSpdxElement\": \"SPDXRef-a\" },\n" +
+            "  { \"spdxElementId\": \"SPDXRef-a\", \"relationshipType\": \"DYNAMIC_LINK\", \"relatedSpdxElement\": \"SPDXRef-d\" }\n" +
+            "  ]\n" +
+            "}";
+
+    /**
+     * Statistics of the last dependency graph added by addDependencies
+     */
+    private DependencyGraphStatistics graphStatistics;
 
     /**
      * @throws java.lang.Exception
@@ -103,6 +196,448 @@ public class TestSpdxV2DependencyBuilder
         assertEquals( "My fancy license text", ((ExtractedLicenseInfo) customLicense.get()).getExtractedText() );
     }
 
+    @Test
+    public void testConcurrentDependencyResolution() throws Exception
+    {
+        Map<String, AtomicInteger> serialBuilds = new ConcurrentHashMap<>();
+        List<String> serial = addDependencies( 1, 0, false, serialBuilds );
+        Map<String, AtomicInteger> concurrentBuilds = new ConcurrentHashMap<>();
+        List<String> concurrent = addDependencies( 4, 0, false, concurrentBuilds );
+
+        assertEquals( Arrays.asList( "a->d", "b->d", "root->a", "root->b", "root->c" ), serial );
+        assertEquals( serial, concurrent );
+        assertEquals( serialBuilds.keySet(), concurrentBuilds.keySet() );
+        for ( AtomicInteger count : concurrentBuilds.values() )
+        {
+            assertEquals( 1, count.get() );
+        }
+    }
+
+    @Test
+    public void testSharedDependencies() throws Exception
+    {
+        Map<String, AtomicInteger> builds = new ConcurrentHashMap<>();
+        addDependencies( 1, 0, false, builds );
+        for ( AtomicInteger count : builds.values() )
+        {
+            assertEquals( 1, count.get() );
+        }
+        assertEquals( 6, graphStatistics.getNodes() );
+        assertEquals( 4, graphStatistics.getDependencies() );
+        assertEquals( 2, graphStatistics.getSharedNodes() );
+        assertEquals( 5, graphStatistics.getRelationships() );
+        assertEquals( 2, graphStatistics.getMaxDepth() );
+        assertEquals( 0, graphStatistics.getDepthLimitedNodes() );
+    }
+
+    @Test
+    public void testMaxDependencyDepth() throws Exception
+    {
+        Map<String, AtomicInteger> builds = new ConcurrentHashMap<>();
+        assertEquals( Arrays.asList( "root->a", "root->b", "root->c" ), addDependencies( 1, 1, false, builds ) );
+        assertFalse( builds.containsKey( "d" ) );
+        assertEquals( 1, graphStatistics.getMaxDepth() );
+        assertEquals( 2, graphStatistics.getDepthLimitedNodes() );
+        builds.clear();
+        assertEquals( Arrays.asList( "root->a", "root->b", "root->c" ), addDependencies( 4, 1, false, builds ) );
+        assertFalse( builds.containsKey( "d" ) );
+    }
+
+    @Test
+    public void testMaxDependencyDepthLowerDepthLater() throws Exception
+    {
+        // b is first reached at depth 2 where d is beyond the maximum depth, then at depth 1 where d is included
+        for ( int threads : new int[] { 1, 4 } )
+        {
+            MavenProject mavenProject = new MavenProject();
+            mavenProject.setGroupId( "org.spdx.test" );
+            mavenProject.setArtifactId( "root" );
+            mavenProject.setVersion( "1.0" );
+            File spdxFile = File.createTempFile( "testMaxDependencyDepthLowerDepthLater", ".spdx.json" );
+            spdxFile.deleteOnExit();
+            SpdxV2DocumentBuilder documentBuilder = new SpdxV2DocumentBuilder( mavenProject, false, spdxFile,
+                    URI.create( "http://spdx.org/spdxpackages/depth-" + threads ), OutputFormat.JSON );
+            SpdxV2DependencyBuilder dependencyBuilder = new SpdxV2DependencyBuilder(
+                    documentBuilder, false, false, true, true );
+            dependencyBuilder.setDependencyResolutionThreads( threads );
+            dependencyBuilder.setMaxDependencyDepth( 3 );
+            SpdxDocument spdxDoc = documentBuilder.getSpdxDoc();
+            SpdxPackage projectPackage = spdxDoc.createPackage( "SPDXRef-root", "root", new SpdxNoAssertionLicense(),
+                                                                "NOASSERTION", new SpdxNoAssertionLicense() )
+                            .setDownloadLocation( "NOASSERTION" )
+                            .setFilesAnalyzed( false )
+                            .build();
+            DefaultDependencyNode root = node( null, "root" );
+            root.setChildren( Arrays.asList( node( root, "a", node( null, "b", node( null, "c", node( null, "d" ) ) ) ),
+                    node( root, "b", node( null, "c", node( null, "d" ) ) ) ) );
+            Map<String, AtomicInteger> builds = new ConcurrentHashMap<>();
+            @SuppressWarnings( "deprecation" )
+            MavenSession session = new MavenSession( null, new DefaultMavenExecutionRequest(),
+                    new DefaultMavenExecutionResult(), mavenProject );
+            dependencyBuilder.addMavenDependencies( projectBuilder( builds ), session, mavenProject, root, projectPackage );
+
+            assertEquals( Arrays.asList( "a->b", "b->c", "c->d", "root->a", "root->b" ), relationships( spdxDoc ) );
+            assertEquals( 4, builds.size() );
+            for ( AtomicInteger count : builds.values() )
+            {
+                assertEquals( 1, count.get() );
+            }
+        }
+    }
+
+    @Test
+    public void testModuleSpdxFile() throws Exception
+    {
+        File moduleSpdxFile = File.createTempFile( "testModuleSpdxFile", ".spdx.json" );
+        moduleSpdxFile.deleteOnExit();
+        Files.write( moduleSpdxFile.toPath(), MODULE_DOCUMENT.getBytes( StandardCharsets.UTF_8 ) );
+        MavenProject mavenProject = new MavenProject();
+        mavenProject.setGroupId( "org.spdx.test" );
+        mavenProject.setArtifactId( "root" );
+        mavenProject.setVersion( "1.0" );
+        MavenProject moduleProject = new MavenProject();
+        moduleProject.setGroupId( "org.spdx.test" );
+        moduleProject.setArtifactId( "module" );
+        moduleProject.setVersion( "1.0" );
+        File spdxFile = File.createTempFile( "testModuleSpdxFile", ".spdx.json" );
+        spdxFile.deleteOnExit();
+        SpdxV2DocumentBuilder documentBuilder = new SpdxV2DocumentBuilder( mavenProject, false, spdxFile,
+                URI.create( "http://spdx.org/spdxpackages/aggregate" ), OutputFormat.JSON );
+        SpdxV2DependencyBuilder dependencyBuilder = new SpdxV2DependencyBuilder(
+                documentBuilder, false, false, true, true );
+        SpdxDocument spdxDoc = documentBuilder.getSpdxDoc();
+        SpdxPackage projectPackage = spdxDoc.createPackage( "SPDXRef-root", "root", new SpdxNoAssertionLicense(),
+                                                            "NOASSERTION", new SpdxNoAssertionLicense() )
+                        .setDownloadLocation( "NOASSERTION" )
+                        .setFilesAnalyzed( false )
+                        .build();
+
+        assertTrue( dependencyBuilder.addModuleDependencies( moduleProject, moduleSpdxFile, projectPackage, null ) );
+        // d is shared with the module SPDX file
+        Map<String, AtomicInteger> builds = new ConcurrentHashMap<>();
+        DefaultDependencyNode root = node( null, "root" );
+        root.setChildren( Arrays.asList( node( root, "b", node( null, "d" ) ) ) );
+        @SuppressWarnings( "deprecation" )
+        MavenSession session = new MavenSession( null, new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult(), mavenProject );
+        dependencyBuilder.addMavenDependencies( projectBuilder( builds ), session, mavenProject, root, projectPackage );
+
+        assertEquals( Arrays.asList( "a->d", "b->d", "root->a", "root->b" ), relationships( spdxDoc ) );
+        assertEquals( Collections.singleton( "b" ), builds.keySet() );
+        assertEquals( 3, dependencyBuilder.getGraphStatistics().getDependencies() );
+        assertEquals( 1, dependencyBuilder.getGraphStatistics().getSharedNodes() );
+    }
+
+    @Test
+    public void testModuleSpdxFileScopes() throws Exception
+    {
+        String testDocument = MODULE_DOCUMENT.replace(
+                "\"SPDXRef-module\", \"relationshipType\": \"DYNAMIC_LINK\"",
+                "\"SPDXRef-module\", \"relationshipType\": \"TEST_DEPENDENCY_OF\"" );
+        ArtifactFilter compileAndRuntime = new CumulativeScopeArtifactFilter( Arrays.asList( "compile", "runtime" ) );
+        assertEquals( Arrays.asList( "a->d", "root->a" ), moduleRelationships( testDocument, null ) );
+        assertEquals( Arrays.asList( "a->d", "root->a" ),
+                      moduleRelationships( testDocument, new CumulativeScopeArtifactFilter(
+                              Collections.singletonList( "test" ) ) ) );
+        assertEquals( Collections.emptyList(), moduleRelationships( testDocument, compileAndRuntime ) );
+
+        // optional dependencies may be in any scope
+        String optionalDocument = MODULE_DOCUMENT.replace(
+                "\"SPDXRef-module\", \"relationshipType\": \"DYNAMIC_LINK\"",
+                "\"SPDXRef-module\", \"relationshipType\": \"OPTIONAL_COMPONENT_OF\"" );
+        assertEquals( Arrays.asList( "a->d", "root->a" ), moduleRelationships( optionalDocument, null ) );
+        assertNull( moduleRelationships( optionalDocument, compileAndRuntime ) );
+    }
+
+    /**
+     * @return relationships added from the module SPDX document or null if the module SPDX document is not used
+     */
+    private List<String> moduleRelationships( String moduleDocument, ArtifactFilter artifactFilter ) throws Exception
+    {
+        File moduleSpdxFile = File.createTempFile( "testModuleSpdxFileScopes", ".spdx.json" );
+        moduleSpdxFile.deleteOnExit();
+        Files.write( moduleSpdxFile.toPath(), moduleDocument.getBytes( StandardCharsets.UTF_8 ) );
+        MavenProject mavenProject = new MavenProject();
+        mavenProject.setGroupId( "org.spdx.test" );
+        mavenProject.setArtifactId( "root" );
+        mavenProject.setVersion( "1.0" );
+        MavenProject moduleProject = new MavenProject();
+        moduleProject.setGroupId( "org.spdx.test" );
+        moduleProject.setArtifactId( "module" );
+        moduleProject.setVersion( "1.0" );
+        File spdxFile = File.createTempFile( "testModuleSpdxFileScopes", ".spdx.json" );
+        spdxFile.deleteOnExit();
+        SpdxV2DocumentBuilder documentBuilder = new SpdxV2DocumentBuilder( mavenProject, false, spdxFile,
+                URI.create( "http://spdx.org/spdxpackages/aggregate" ), OutputFormat.JSON );
+        SpdxV2DependencyBuilder dependencyBuilder = new SpdxV2DependencyBuilder(
+                documentBuilder, false, false, true, true );
+        SpdxDocument spdxDoc = documentBuilder.getSpdxDoc();
+        SpdxPackage projectPackage = spdxDoc.createPackage( "SPDXRef-root", "root", new SpdxNoAssertionLicense(),
+                                                            "NOASSERTION", new SpdxNoAssertionLicense() )
+                        .setDownloadLocation( "NOASSERTION" )
+                        .setFilesAnalyzed( false )
+                        .build();
+        if ( !dependencyBuilder.addModuleDependencies( moduleProject, moduleSpdxFile, projectPackage,
+                artifactFilter ) )
+        {
+            return null;
+        }
+        return relationships( spdxDoc );
+    }
+
+    @Test
+    public void testPersistentCacheNotUsedForReactorDependencies() throws Exception
+    {
+        File localRepository = Files.createTempDirectory( "testPersistentCacheLocalRepository" ).toFile();
+        File cacheDirectory = Files.createTempDirectory( "testPersistentCacheDirectory" ).toFile();
+        // metadata cached by an earlier build from the installed POM of the reactor project a
+        File installedPom = new File( localRepository, "a-1.0.pom" );
+        Files.write( installedPom.toPath(), "<project/>".getBytes( StandardCharsets.UTF_8 ) );
+        MavenProject installed = new MavenProject();
+        installed.setGroupId( "org.spdx.test" );
+        installed.setArtifactId( "a" );
+        installed.setVersion( "1.0" );
+        installed.setName( "Installed name" );
+        new PersistentDependencyMetadataCache( cacheDirectory ).put( "org.spdx.test", "a", "1.0", installedPom,
+                DependencyMetadata.fromProject( installed ) );
+
+        // the workspace POM of a has a different name
+        assertEquals( Collections.singletonList( "Workspace name" ),
+                      dependencyNames( localRepository, cacheDirectory, true ) );
+        assertEquals( Collections.singletonList( "Installed name" ),
+                      dependencyNames( localRepository, cacheDirectory, false ) );
+    }
+
+    /**
+     * @return names of the dependency packages added for a dependency on a built from the workspace POM
+     */
+    private List<String> dependencyNames( File localRepository, File cacheDirectory, boolean inReactor ) throws Exception
+    {
+        MavenProject mavenProject = new MavenProject();
+        mavenProject.setGroupId( "org.spdx.test" );
+        mavenProject.setArtifactId( "root" );
+        mavenProject.setVersion( "1.0" );
+        MavenProject workspace = new MavenProject();
+        workspace.setGroupId( "org.spdx.test" );
+        workspace.setArtifactId( "a" );
+        workspace.setVersion( "1.0" );
+        workspace.setName( "Workspace name" );
+        File spdxFile = File.createTempFile( "testPersistentCacheNotUsedForReactorDependencies", ".spdx.json" );
+        spdxFile.deleteOnExit();
+        SpdxV2DocumentBuilder documentBuilder = new SpdxV2DocumentBuilder( mavenProject, false, spdxFile,
+                URI.create( "http://spdx.org/spdxpackages/reactor-" + inReactor ), OutputFormat.JSON );
+        SpdxV2DependencyBuilder dependencyBuilder = new SpdxV2DependencyBuilder(
+                documentBuilder, false, false, false, true );
+        dependencyBuilder.setDependencyMetadataCacheDirectory( cacheDirectory );
+        SpdxDocument spdxDoc = documentBuilder.getSpdxDoc();
+        SpdxPackage projectPackage = spdxDoc.createPackage( "SPDXRef-root", "root", new SpdxNoAssertionLicense(),
+                                                            "NOASSERTION", new SpdxNoAssertionLicense() )
+                        .setDownloadLocation( "NOASSERTION" )
+                        .setFilesAnalyzed( false )
+                        .build();
+        DefaultRepositorySystemSession repositorySession = new DefaultRepositorySystemSession();
+        repositorySession.setLocalRepositoryManager( (LocalRepositoryManager) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] { LocalRepositoryManager.class }, ( proxy, method, args ) -> {
+                    switch ( method.getName() )
+                    {
+                        case "getRepository":
+                            return new LocalRepository( localRepository );
+                        case "getPathForLocalArtifact":
+                            org.eclipse.aether.artifact.Artifact pom = (org.eclipse.aether.artifact.Artifact) args[0];
+                            return pom.getArtifactId() + "-" + pom.getVersion() + ".pom";
+                        default:
+                            return null;
+                    }
+                } ) );
+        @SuppressWarnings( "deprecation" )
+        MavenSession session = new MavenSession( null, repositorySession, new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult() );
+        session.setProjects( inReactor ? Arrays.asList( mavenProject, workspace ) : Collections.singletonList( mavenProject ) );
+        ProjectBuilder projectBuilder = (ProjectBuilder) Proxy.newProxyInstance( getClass().getClassLoader(),
+                new Class<?>[] { ProjectBuilder.class }, ( proxy, method, args ) -> Proxy.newProxyInstance(
+                        getClass().getClassLoader(), new Class<?>[] { ProjectBuildingResult.class }, ( p, m, a ) -> workspace ) );
+        DefaultDependencyNode root = node( null, "root" );
+        root.setChildren( Collections.singletonList( node( root, "a" ) ) );
+        dependencyBuilder.addMavenDependencies( projectBuilder, session, mavenProject, root, projectPackage );
+
+        List<String> names = new ArrayList<>();
+        for ( Relationship relationship : projectPackage.getRelationships() )
+        {
+            names.add( relationship.getRelatedSpdxElement().get().getName().get() );
+        }
+        return names;
+    }
+
+    @Test
+    public void testMetadataKey()
+    {
+        MavenProject module = new MavenProject();
+        module.setRemoteArtifactRepositories( Collections.singletonList( repository( "central", "https://repo.maven.apache.org/maven2" ) ) );
+        MavenProject otherModule = new MavenProject();
+        otherModule.setRemoteArtifactRepositories( Collections.singletonList( repository( "central", "https://repo.maven.apache.org/maven2" ) ) );
+        MavenProject profileModule = new MavenProject();
+        profileModule.setRemoteArtifactRepositories( Arrays.asList( repository( "central", "https://repo.maven.apache.org/maven2" ),
+                repository( "snapshots", "https://repo.example.org/snapshots" ) ) );
+        assertEquals( AbstractDependencyBuilder.metadataKey( artifact( "a" ), module ),
+                AbstractDependencyBuilder.metadataKey( artifact( "a" ), otherModule ) );
+        assertNotEquals( AbstractDependencyBuilder.metadataKey( artifact( "a" ), module ),
+                AbstractDependencyBuilder.metadataKey( artifact( "b" ), module ) );
+        assertNotEquals( AbstractDependencyBuilder.metadataKey( artifact( "a" ), module ),
+                AbstractDependencyBuilder.metadataKey( artifact( "a" ), profileModule ) );
+    }
+
+    private static ArtifactRepository repository( String id, String url )
+    {
+        return new MavenArtifactRepository( id, url, new DefaultRepositoryLayout(), new ArtifactRepositoryPolicy(),
+                new ArtifactRepositoryPolicy() );
+    }
+
+    @Test
+    public void testPurlToGav()
+    {
+        assertEquals( "org.spdx:spdx-maven-plugin:1.0.5",
+                SpdxV2DependencyBuilder.purlToGav( "pkg:maven/org.spdx/spdx-maven-plugin@1.0.5?type=maven-plugin" ) );
+        assertEquals( "org.spdx:a b:1.0", SpdxV2DependencyBuilder.purlToGav( "pkg:maven/org.spdx/a+b@1.0" ) );
+        assertNull( SpdxV2DependencyBuilder.purlToGav( "pkg:npm/left-pad@1.0" ) );
+        assertNull( SpdxV2DependencyBuilder.purlToGav( "pkg:maven/org.spdx/no-version" ) );
+    }
+
+    @Test
+    public void testModuleDependencies() throws Exception
+    {
+        Map<String, AtomicInteger> serialBuilds = new ConcurrentHashMap<>();
+        List<String> serial = addDependencies( 1, 0, true, serialBuilds );
+        Map<String, AtomicInteger> concurrentBuilds = new ConcurrentHashMap<>();
+        List<String> concurrent = addDependencies( 4, 0, true, concurrentBuilds );
+
+        assertEquals( Arrays.asList( "a->d", "b->d", "root->a", "root->b", "root->c" ), serial );
+        assertEquals( serial, concurrent );
+        assertEquals( 4, concurrentBuilds.size() );
+        for ( AtomicInteger count : concurrentBuilds.values() )
+        {
+            assertEquals( 1, count.get() );
+        }
+        assertEquals( 4, graphStatistics.getDependencies() );
+    }
+
+    private static Artifact artifact( String artifactId )
+    {
+        return new DefaultArtifact( "org.spdx.test", artifactId, "1.0", "compile", "jar", null,
+                new DefaultArtifactHandler( "jar" ) );
+    }
+
+    private static DefaultDependencyNode node( DependencyNode parent, String artifactId, DependencyNode... children )
+    {
+        DefaultDependencyNode node = new DefaultDependencyNode( parent, artifact( artifactId ), null, null, null );
+        node.setChildren( new ArrayList<>( Arrays.asList( children ) ) );
+        return node;
+    }
+
+    /**
+     * Add the dependency graph root -> a, b, c, a with a -> d, b -> d and return the sorted relationships
+     * <p>
+     * If modules is true, the dependencies are split between the graphs of two modules which are both added to the
+     * root package: root -> a, c and module -> b, a
+     */
+    private List<String> addDependencies( int threads, int maxDepth, boolean modules, Map<String, AtomicInteger> builds ) throws Exception
+    {
+        MavenProject mavenProject = new MavenProject();
+        mavenProject.setGroupId( "org.spdx.test" );
+        mavenProject.setArtifactId( "root" );
+        mavenProject.setVersion( "1.0" );
+        URI namespaceUri = URI.create( "http://spdx.org/spdxpackages/concurrent-" + threads + "-" + maxDepth + "-" + modules );
+        File spdxFile = File.createTempFile( "testConcurrentDependencyResolution", ".spdx.json" );
+        spdxFile.deleteOnExit();
+        SpdxV2DocumentBuilder documentBuilder = new SpdxV2DocumentBuilder(
+                mavenProject, false, spdxFile, namespaceUri, OutputFormat.JSON );
+        SpdxV2DependencyBuilder dependencyBuilder = new SpdxV2DependencyBuilder(
+                documentBuilder, false, false, true, true );
+        dependencyBuilder.setDependencyResolutionThreads( threads );
+        dependencyBuilder.setMaxDependencyDepth( maxDepth );
+
+        ProjectBuilder projectBuilder = projectBuilder( builds );
+        @SuppressWarnings( "deprecation" )
+        MavenSession session = new MavenSession( null, new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult(), mavenProject );
+
+        DefaultDependencyNode root = node( null, "root" );
+        DefaultDependencyNode d = node( null, "d" );
+        Map<MavenProject, DependencyNode> dependencyGraphs = new LinkedHashMap<>();
+        dependencyGraphs.put( mavenProject, root );
+        if ( modules )
+        {
+            MavenProject moduleProject = new MavenProject();
+            moduleProject.setGroupId( "org.spdx.test" );
+            moduleProject.setArtifactId( "module" );
+            moduleProject.setVersion( "1.0" );
+            DefaultDependencyNode module = node( null, "module" );
+            root.setChildren( Arrays.asList( node( root, "a", d ), node( root, "c" ) ) );
+            module.setChildren( Arrays.asList( node( module, "b", d ), node( module, "a" ) ) );
+            dependencyGraphs.put( moduleProject, module );
+        }
+        else
+        {
+            root.setChildren( Arrays.asList( node( root, "a", d ), node( root, "b", d ), node( root, "c" ),
+                    node( root, "a" ) ) );
+        }
+        SpdxDocument spdxDoc = documentBuilder.getSpdxDoc();
+        SpdxPackage projectPackage = spdxDoc.createPackage( "SPDXRef-root", "root", new SpdxNoAssertionLicense(),
+                                                            "NOASSERTION", new SpdxNoAssertionLicense() )
+                        .setDownloadLocation( "NOASSERTION" )
+                        .setFilesAnalyzed( false )
+                        .build();
+        dependencyBuilder.addMavenDependencies( projectBuilder, session, dependencyGraphs, projectPackage );
+        graphStatistics = dependencyBuilder.getGraphStatistics();
+
+        return relationships( spdxDoc );
+    }
+
+    /**
+     * @return project builder which counts the builds for each artifact ID in builds
+     */
+    private ProjectBuilder projectBuilder( Map<String, AtomicInteger> builds )
+    {
+        return (ProjectBuilder) Proxy.newProxyInstance( getClass().getClassLoader(),
+                new Class<?>[] { ProjectBuilder.class }, ( proxy, method, args ) -> {
+                    Artifact artifact = (Artifact) args[0];
+                    builds.computeIfAbsent( artifact.getArtifactId(), key -> new AtomicInteger() ).incrementAndGet();
+                    // later dependencies finish first
+                    Thread.sleep( 'e' - artifact.getArtifactId().charAt( 0 ) );
+                    MavenProject project = new MavenProject();
+                    project.setGroupId( artifact.getGroupId() );
+                    project.setArtifactId( artifact.getArtifactId() );
+                    project.setVersion( artifact.getVersion() );
+                    return Proxy.newProxyInstance( getClass().getClassLoader(),
+                            new Class<?>[] { ProjectBuildingResult.class }, ( p, m, a ) -> project );
+                } );
+    }
+
+    /**
+     * @return the sorted relationships between the packages in the document
+     */
+    private static List<String> relationships( SpdxDocument spdxDoc ) throws InvalidSPDXAnalysisException
+    {
+        List<String> related = new ArrayList<>();
+        SpdxModelFactory.getSpdxObjects( spdxDoc.getModelStore(), spdxDoc.getCopyManager(),
+                SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE, null, spdxDoc.getIdPrefix() ).forEach( element -> {
+                    SpdxPackage pkg = (SpdxPackage) element;
+                    try
+                    {
+                        for ( Relationship relationship : pkg.getRelationships() )
+                        {
+                            related.add( pkg.getName().get().replace( "org.spdx.test:", "" ) + "->" +
+                                    relationship.getRelatedSpdxElement().get().getName().get().replace( "org.spdx.test:", "" ) );
+                        }
+                    }
+                    catch ( InvalidSPDXAnalysisException e )
+                    {
+                        throw new RuntimeException( e );
+                    }
+                } );
+        Collections.sort( related );
+        return related;
+    }
+
     public Optional<AnyLicenseInfo> applyLicenseOverwrites( MavenProject mavenProject, LicenseOverwrite licenseOverwrite ) throws Exception {
         return applyLicenseOverwrites( mavenProject, licenseOverwrite, null );
     }
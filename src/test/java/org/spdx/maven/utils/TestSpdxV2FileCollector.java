@@ -7,6 +7,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -264,6 +265,30 @@ public class TestSpdxV2FileCollector
         }
     }
 
+    @Test
+    public void testCollectFilesInDirectoryParallel() throws InvalidSPDXAnalysisException, SpdxCollectionException, NoSuchAlgorithmException
+    {
+        SpdxV2FileCollector serialCollector = new SpdxV2FileCollector();
+        serialCollector.collectFiles( this.fileSets, this.directory.getAbsolutePath(), this.defaultFileInformation,
+                new HashMap<>(), spdxPackage, RelationshipType.GENERATES, spdxDoc, sha1Algorithm );
+        SpdxV2FileCollector parallelCollector = new SpdxV2FileCollector();
+        parallelCollector.setThreads( 3 );
+        parallelCollector.collectFiles( this.fileSets, this.directory.getAbsolutePath(), this.defaultFileInformation,
+                new HashMap<>(), spdxPackage, RelationshipType.GENERATES, spdxDoc, sha1Algorithm );
+
+        SpdxFile[] serialFiles = serialCollector.getFiles().toArray( new SpdxFile[0] );
+        SpdxFile[] parallelFiles = parallelCollector.getFiles().toArray( new SpdxFile[0] );
+        assertEquals( filePaths.length, parallelFiles.length );
+        for ( int i = 0; i < serialFiles.length; i++ )
+        {
+            assertEquals( serialFiles[i].getName().get(), parallelFiles[i].getName().get() );
+            assertEquals( serialFiles[i].getSha1(), parallelFiles[i].getSha1() );
+            assertEquals( serialFiles[i].getLicenseConcluded(), parallelFiles[i].getLicenseConcluded() );
+        }
+        assertEquals( serialCollector.getVerificationCode( null, spdxDoc ).getValue(),
+                parallelCollector.getVerificationCode( null, spdxDoc ).getValue() );
+    }
+
     @Test
     public void testCollectFileInDirectoryPattern() throws SpdxCollectionException, InvalidSPDXAnalysisException
     {
@@ -659,6 +684,37 @@ public class TestSpdxV2FileCollector
         }
     }
 
+    @Test
+    public void testGenerateChecksumsLargerThanBuffer() throws SpdxCollectionException, InvalidSPDXAnalysisException, IOException, NoSuchAlgorithmException
+    {
+        byte[] content = new byte[AbstractFileCollector.CHECKSUM_BUFFER_SIZE * 3 + 17];
+        for ( int i = 0; i < content.length; i++ )
+        {
+            content[i] = (byte) ( i % 251 );
+        }
+        File largeFile = new File( this.directory, "large.bin" );
+        Files.write( largeFile.toPath(), content );
+
+        Set<String> checksumAlgorithmSet = new HashSet<>();
+        checksumAlgorithmSet.add( ChecksumAlgorithm.SHA1.toString() );
+        checksumAlgorithmSet.add( ChecksumAlgorithm.SHA256.toString() );
+        checksumAlgorithmSet.add( ChecksumAlgorithm.MD5.toString() );
+        Set<Checksum> expectedChecksums = new HashSet<>();
+        expectedChecksums.add( new Checksum( ChecksumAlgorithm.SHA1.toString(),
+                AbstractFileCollector.convertChecksumToString( MessageDigest.getInstance( "SHA-1" ).digest( content ) ) ) );
+        expectedChecksums.add( new Checksum( ChecksumAlgorithm.SHA256.toString(),
+                AbstractFileCollector.convertChecksumToString( MessageDigest.getInstance( "SHA-256" ).digest( content ) ) ) );
+        expectedChecksums.add( new Checksum( ChecksumAlgorithm.MD5.toString(),
+                AbstractFileCollector.convertChecksumToString( MessageDigest.getInstance( "MD5" ).digest( content ) ) ) );
+
+        assertEquals( expectedChecksums, SpdxV2FileCollector.generateChecksum( largeFile, checksumAlgorithmSet ) );
+        // memory mapped in several windows
+        assertEquals( expectedChecksums, SpdxV2FileCollector.generateChecksum( largeFile, checksumAlgorithmSet, 1 ) );
+        assertEquals( new Checksum( ChecksumAlgorithm.SHA1.toString(),
+                AbstractFileCollector.convertChecksumToString( MessageDigest.getInstance( "SHA-1" ).digest( content ) ) ),
+                AbstractFileCollector.generateSha1( largeFile ) );
+    }
+
     @Test
     public void testToRelativeFilePath()
     {
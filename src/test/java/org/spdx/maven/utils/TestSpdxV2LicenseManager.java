@@ -262,6 +262,28 @@ public class TestSpdxV2LicenseManager
         assertEquals( LICENSE_NAME, nonStdResult.getName() );
     }
 
+    @Test
+    public void testNonStandardLicenseUrlNotShared() throws Exception
+    {
+        NonStandardLicense lic = new NonStandardLicense();
+        lic.setCrossReference( new URL[] {new URL( APACHE_CROSS_REF_URL2 )} );
+        lic.setExtractedText( "extracted text" );
+        lic.setLicenseId( "LicenseRef-apache" );
+        lic.setName( "Apache fork" );
+        SpdxV2LicenseManager licenseManager = new SpdxV2LicenseManager( spdxDoc );
+        licenseManager.addExtractedLicense( lic );
+        License apache = new License();
+        apache.setName( APACHE_LICENSE_NAME );
+        apache.setUrl( APACHE_CROSS_REF_URL2 );
+        assertEquals( "LicenseRef-apache", ( (ExtractedLicenseInfo) licenseManager.mavenLicenseToSpdxLicense( apache ) ).getLicenseId() );
+
+        // the non-standard license URL is only mapped for its own document
+        SpdxDocument otherDoc = new SpdxDocument( new InMemSpdxStore(), TEST_SPDX_DOCUMENT_URL + "2", new ModelCopyManager(), true );
+        AnyLicenseInfo result = new SpdxV2LicenseManager( otherDoc ).mavenLicenseToSpdxLicense( apache );
+        assertEquals( APACHE_LICENSE_ID, ( (SpdxListedLicense) result ).getLicenseId() );
+        assertEquals( APACHE_LICENSE_ID, MavenToSpdxLicenseMapper.getInstance().getMap().get( APACHE_CROSS_REF_URL2 ) );
+    }
+
     /**
      * Test method for {@link org.spdx.maven.utils.SpdxV2LicenseManager#spdxLicenseToMavenLicense(org.spdx.rdfparser.AnyLicenseInfo)}.
      *
@@ -417,6 +417,23 @@ public class TestSpdxV3FileCollector
         }
     }
 
+    @Test
+    public void testContributorsShared() throws SpdxCollectionException, InvalidSPDXAnalysisException
+    {
+        SpdxV3FileCollector collector = new SpdxV3FileCollector( customIdMap );
+        collector.collectFiles( this.fileSets, this.directory.getAbsolutePath(), this.defaultFileInformation,
+                new HashMap<>(), spdxPackage, RelationshipType.GENERATES, spdxDoc, sha1Algorithm );
+        SpdxFile[] SpdxFiles = collector.getFiles().toArray( new SpdxFile[collector.getFiles().size()] );
+        assertTrue( SpdxFiles.length > 1 );
+        long persons = SpdxModelFactory.getSpdxObjects( spdxDoc.getModelStore(), spdxDoc.getCopyManager(),
+                SpdxConstantsV3.CORE_PERSON, null, spdxDoc.getIdPrefix() ).count();
+        assertEquals( DEFAULT_CONTRIBUTORS.length, persons );
+        for ( SpdxFile spdxFile : SpdxFiles )
+        {
+            assertEquals( new HashSet<>( SpdxFiles[0].getOriginatedBys() ), new HashSet<>( spdxFile.getOriginatedBys() ) );
+        }
+    }
+
     @Test
     public void testGetSnippets() throws SpdxCollectionException, InvalidSPDXAnalysisException
     {
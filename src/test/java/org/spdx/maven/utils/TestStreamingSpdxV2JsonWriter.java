@@ -0,0 +1,99 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.spdx.library.LicenseInfoFactory;
+import org.spdx.library.ModelCopyManager;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.jacksonstore.MultiFormatStore;
+import org.spdx.jacksonstore.MultiFormatStore.Format;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.library.model.v2.SpdxFile;
+import org.spdx.library.model.v2.SpdxModelFactoryCompatV2;
+import org.spdx.library.model.v2.SpdxPackage;
+import org.spdx.library.model.v2.enumerations.AnnotationType;
+import org.spdx.library.model.v2.enumerations.ChecksumAlgorithm;
+import org.spdx.library.model.v2.enumerations.RelationshipType;
+import org.spdx.library.model.v2.license.AnyLicenseInfo;
+import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
+import org.spdx.storage.simple.InMemSpdxStore;
+
+public class TestStreamingSpdxV2JsonWriter
+{
+    private static final String TEST_SPDX_DOCUMENT_URL = "http://www.spdx.org/documents/streaming";
+    private static final String SHA1 = "2fd4e1c67a2d28fced849ee1bb76e7391b93eb12";
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception
+    {
+        SpdxModelFactory.init();
+    }
+
+    @Test
+    public void testWriteMatchesModelStore() throws Exception
+    {
+        MultiFormatStore modelStore = new MultiFormatStore( new InMemSpdxStore(), Format.JSON_PRETTY );
+        ModelCopyManager copyManager = new ModelCopyManager();
+        SpdxDocument spdxDoc = SpdxModelFactoryCompatV2.createSpdxDocumentV2( modelStore, TEST_SPDX_DOCUMENT_URL, copyManager );
+        spdxDoc.setName( "streaming" );
+        spdxDoc.setCreationInfo( spdxDoc.createCreationInfo( Collections.singletonList( "Tool: test" ), "2024-01-01T00:00:00Z" ) );
+        ExtractedLicenseInfo extracted = new ExtractedLicenseInfo( modelStore, TEST_SPDX_DOCUMENT_URL, "LicenseRef-test", copyManager, true );
+        extracted.setExtractedText( "Test license text" );
+        spdxDoc.addExtractedLicenseInfos( extracted );
+        AnyLicenseInfo license = LicenseInfoFactory.parseSPDXLicenseStringCompatV2( "Apache-2.0 OR LicenseRef-test",
+                                                                                     modelStore, TEST_SPDX_DOCUMENT_URL, copyManager );
+
+        List<SpdxPackage> packages = new ArrayList<>();
+        for ( int i = 0; i < 9; i++ )
+        {
+            SpdxPackage pkg = spdxDoc.createPackage( "SPDXRef-package" + i, "package" + i, license, "NOASSERTION", license )
+                            .setDownloadLocation( "NOASSERTION" )
+                            .setFilesAnalyzed( false )
+                            .build();
+            packages.add( pkg );
+        }
+        spdxDoc.getDocumentDescribes().add( packages.get( 0 ) );
+        packages.get( 0 ).addAnnotation( spdxDoc.createAnnotation( "Tool: test", AnnotationType.REVIEW,
+                                                                    "2024-01-01T00:00:00Z", "reviewed" ) );
+        for ( int i = 1; i < packages.size(); i++ )
+        {
+            packages.get( 0 ).addRelationship( spdxDoc.createRelationship( packages.get( i ), RelationshipType.DEPENDS_ON, null ) );
+        }
+        // relationships which only differ in their comment are written as the model store writes them
+        packages.get( 8 ).addRelationship( spdxDoc.createRelationship( packages.get( 1 ), RelationshipType.OTHER, "first" ) );
+        packages.get( 8 ).addRelationship( spdxDoc.createRelationship( packages.get( 1 ), RelationshipType.OTHER, "second" ) );
+        spdxDoc.addRelationship( spdxDoc.createRelationship( packages.get( 2 ), RelationshipType.DESCRIBES, "document" ) );
+        for ( int i = 0; i < 25; i++ )
+        {
+            SpdxFile file = spdxDoc.createSpdxFile( "SPDXRef-file" + i, "./src/File" + i + ".java", license,
+                                                    Collections.singletonList( license ), "NOASSERTION",
+                                                    spdxDoc.createChecksum( ChecksumAlgorithm.SHA1, SHA1 ) )
+                            .build();
+            packages.get( i % 3 ).addRelationship( spdxDoc.createRelationship( file, RelationshipType.CONTAINS, null ) );
+            if ( i % 5 == 0 )
+            {
+                spdxDoc.createSpdxSnippet( "SPDXRef-snippet" + i, "snippet" + i, license,
+                                           Collections.singletonList( license ), "NOASSERTION", file, 1, 10 )
+                                .setLineRange( 1, 2 )
+                                .build();
+            }
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        modelStore.serialize( expected );
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        new StreamingSpdxV2JsonWriter( modelStore, 7 ).write( spdxDoc.getDocumentUri(), streamed );
+        String result = streamed.toString( StandardCharsets.UTF_8 );
+        assertTrue( result.contains( "SPDXRef-snippet20" ) );
+        assertTrue( result.contains( "\"document\"" ) );
+        assertEquals( expected.toString( StandardCharsets.UTF_8 ), result );
+    }
+}
@@ -0,0 +1,85 @@
+package org.spdx.maven.utils;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TestVerificationCodeAccumulator
+{
+
+    private static String expectedValue( List<String> sha1s ) throws NoSuchAlgorithmException
+    {
+        List<String> sorted = new ArrayList<>( sha1s );
+        Collections.sort( sorted );
+        MessageDigest digest = MessageDigest.getInstance( "SHA-1" );
+        for ( String sha1 : sorted )
+        {
+            digest.update( sha1.getBytes( StandardCharsets.UTF_8 ) );
+        }
+        return AbstractFileCollector.convertChecksumToString( digest.digest() );
+    }
+
+    @Test
+    public void testGetValue() throws NoSuchAlgorithmException
+    {
+        Random random = new Random( 42 );
+        VerificationCodeAccumulator accumulator = new VerificationCodeAccumulator();
+        List<String> included = new ArrayList<>();
+        Set<String> excluded = new HashSet<>();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            byte[] bytes = new byte[VerificationCodeAccumulator.SHA1_LENGTH];
+            // plenty of duplicates including all zero and all 0xff checksums
+            if ( i % 7 == 0 )
+            {
+                Arrays.fill( bytes, (byte) ( i % 2 == 0 ? 0 : 0xff ) );
+            }
+            else
+            {
+                random.nextBytes( bytes );
+            }
+            String sha1 = AbstractFileCollector.convertChecksumToString( bytes );
+            String name = "./file" + i;
+            accumulator.add( name, sha1 );
+            if ( i % 100 == 0 )
+            {
+                excluded.add( name );
+            }
+            else
+            {
+                included.add( sha1 );
+            }
+        }
+        assertEquals( 1000, accumulator.size() );
+        assertEquals( expectedValue( included ), accumulator.getValue( excluded ) );
+
+        // adding after calculating the value
+        accumulator.add( "./last", "0123456789abcdef0123456789abcdef01234567" );
+        included.add( "0123456789abcdef0123456789abcdef01234567" );
+        assertEquals( expectedValue( included ), accumulator.getValue( excluded ) );
+    }
+
+    @Test
+    public void testEmpty() throws NoSuchAlgorithmException
+    {
+        assertEquals( expectedValue( new ArrayList<>() ),
+                new VerificationCodeAccumulator().getValue( Collections.emptySet() ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testInvalidSha1()
+    {
+        new VerificationCodeAccumulator().add( "./file", "not a sha1" );
+    }
+}